@@ -0,0 +1,70 @@
+package com.c11.umastagram.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login throughput at different BCrypt costs: many request threads verifying passwords
+ * through PasswordHasher on a pool sized like the default passwordHashExecutor.
+ *
+ * Run with ./gradlew jmh. Each step up in cost roughly halves throughput, which is the
+ * number to weigh against how long a leaked hash should hold out when picking
+ * app.password.bcrypt-cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PasswordHasherBenchmark {
+
+    @Param({"4", "8", "10", "12"})
+    public int cost;
+
+    private ThreadPoolExecutor pool;
+    private PasswordHasher hasher;
+    private String storedHash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        // request threads block on the result, so the queue never holds more than one task each
+        pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1000));
+        hasher = new PasswordHasher(pool, cost);
+        storedHash = hasher.hash("correct horse battery staple").join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * One successful login's password check, from 16 concurrent request threads.
+     */
+    @Benchmark
+    @Threads(16)
+    public boolean login() {
+        return hasher.matches("correct horse battery staple", storedHash).join();
+    }
+
+    /**
+     * One signup's password hash, from 16 concurrent request threads.
+     */
+    @Benchmark
+    @Threads(16)
+    public String signup() {
+        return hasher.hash("correct horse battery staple").join();
+    }
+}
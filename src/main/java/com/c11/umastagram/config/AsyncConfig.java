@@ -0,0 +1,78 @@
+package com.c11.umastagram.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    /**
+     * Bounded pool that pushes new posts into follower timelines, so createPost
+     * does not wait on the fan-out. When the queue is full the task is rejected
+     * (AbortPolicy) and TimelineService falls back to fan-out-on-read for that author.
+     */
+    @Bean(name = "timelineExecutor")
+    public ThreadPoolTaskExecutor timelineExecutor(
+            @Value("${app.timeline.executor.core-size:2}") int coreSize,
+            @Value("${app.timeline.executor.max-size:4}") int maxSize,
+            @Value("${app.timeline.executor.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("timeline-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Small bounded pool that renders thumbnails after an upload has been stored, so the
+     * upload request does not wait on image decoding. Rejected tasks are dropped
+     * (AbortPolicy) and MediaService serves the original image in place of the thumbnail.
+     */
+    @Bean(name = "thumbnailExecutor")
+    public ThreadPoolTaskExecutor thumbnailExecutor(
+            @Value("${app.media.thumbnail-executor.core-size:1}") int coreSize,
+            @Value("${app.media.thumbnail-executor.max-size:2}") int maxSize,
+            @Value("${app.media.thumbnail-executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("thumbnail-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Bounded pool for password hashing and verification, sized to the CPU count by default,
+     * so a burst of logins queues here instead of holding request threads for the length of
+     * a hash. When the queue is full the task is rejected (AbortPolicy) and login answers
+     * 503 until it drains.
+     */
+    @Bean(name = "passwordHashExecutor")
+    public ThreadPoolTaskExecutor passwordHashExecutor(
+            @Value("${app.password.executor.size:0}") int size,
+            @Value("${app.password.executor.queue-capacity:200}") int queueCapacity) {
+        int threads = size > 0 ? size : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hash-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
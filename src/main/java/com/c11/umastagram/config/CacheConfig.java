@@ -0,0 +1,66 @@
+package com.c11.umastagram.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Spring Cache over Caffeine for lookups that run on almost every request. Caffeine evicts
+ * by W-TinyLFU, so a burst of one-off lookups does not push out the users looked up all the
+ * time. Size, TTL and statistics come from spring.cache.caffeine.spec; the caches are named
+ * in spring.cache.cache-names so actuator binds their cache.gets/cache.evictions metrics at
+ * startup, and the hit and miss ratios are published here as cache.hit.ratio and
+ * cache.miss.ratio. Tests run with spring.cache.type=none.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    /** User by userId; evicted by every UserService method that writes a user. */
+    public static final String USERS_BY_ID = "usersById";
+
+    /** User by username; evicted under the old and the new name when a username changes. */
+    public static final String USERS_BY_USERNAME = "usersByUsername";
+
+    @Autowired
+    private ObjectProvider<CacheManager> cacheManager;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registerRatioGauges() {
+        CacheManager manager = cacheManager.getIfAvailable();
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (manager != null && registry != null) {
+            registerRatioGauges(manager, registry);
+        }
+    }
+
+    /**
+     * Registers hit and miss ratio gauges for every Caffeine cache of cacheManager that
+     * records statistics.
+     */
+    public static void registerRatioGauges(CacheManager cacheManager, MeterRegistry registry) {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine
+                    && caffeine.policy().isRecordingStats()) {
+                Gauge.builder("cache.hit.ratio", caffeine, c -> c.stats().hitRate())
+                    .tag("cache", name)
+                    .description("Share of lookups answered from the cache")
+                    .register(registry);
+                Gauge.builder("cache.miss.ratio", caffeine, c -> c.stats().missRate())
+                    .tag("cache", name)
+                    .description("Share of lookups that went to the database")
+                    .register(registry);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.c11.umastagram.config;
+
+import com.c11.umastagram.util.QueryCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements each request runs. The count is sent as the X-Query-Count
+ * header (by QueryCountHeaderAdvice for responses with a body, here otherwise), recorded
+ * in the http.server.requests.queries metric per endpoint, and logged as a warning when
+ * it exceeds app.query-budget.max, which is how N+1 query patterns show up.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class QueryCountFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    public static final String HEADER = "X-Query-Count";
+    static final String METRIC = "http.server.requests.queries";
+
+    @Value("${app.query-budget.max:20}")
+    private int maxQueries;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int count = QueryCounter.stop();
+            if (!response.isCommitted()) {
+                response.setHeader(HEADER, String.valueOf(count));
+            }
+            record(request, count);
+        }
+    }
+
+    private void record(HttpServletRequest request, int count) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            DistributionSummary.builder(METRIC)
+                .description("SQL statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(count);
+        }
+        if (count > maxQueries) {
+            logger.warn("{} {} ran {} SQL statements (budget {})", request.getMethod(), uri, count, maxQueries);
+        }
+    }
+}
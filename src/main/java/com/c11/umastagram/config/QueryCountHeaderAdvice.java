@@ -0,0 +1,34 @@
+package com.c11.umastagram.config;
+
+import com.c11.umastagram.util.QueryCounter;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds X-Query-Count just before a response body is written. By then the controller
+ * has finished, but the response is not committed yet, which it may be by the time
+ * QueryCountFilter regains control.
+ */
+@ControllerAdvice
+public class QueryCountHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (QueryCounter.isActive()) {
+            response.getHeaders().set(QueryCountFilter.HEADER, String.valueOf(QueryCounter.get()));
+        }
+        return body;
+    }
+}
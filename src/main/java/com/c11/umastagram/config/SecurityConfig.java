@@ -31,6 +31,8 @@ public class SecurityConfig {
                 .requestMatchers("/user/delete", "/user/signup", "/user/login", "/user/username/change").permitAll()  // Allow user signup and login
                 .requestMatchers("/user/getUserByUsername/{username}").permitAll()  // Allow fetching user by username
                 .requestMatchers("/user/userSearch/{query}").permitAll() // Allow user search
+                .requestMatchers("/user/{id}/stats").permitAll() // Allow profile header counts
+                .requestMatchers("/user/batch").permitAll() // Allow batch profile lookups
                 .anyRequest().authenticated()
             )
             // .oauth2Login(oauth2 -> oauth2
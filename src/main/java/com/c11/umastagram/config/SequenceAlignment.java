@@ -0,0 +1,62 @@
+package com.c11.umastagram.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Entity ids used to come from IDENTITY columns and now come from pooled sequences
+ * (allocationSize 50). On an existing PostgreSQL database ddl-auto creates those
+ * sequences starting at 1, below ids that are already taken, so at startup each
+ * sequence is moved past the current max id of its table. Other databases
+ * (the H2 test database) always start empty and are skipped.
+ */
+@Component
+public class SequenceAlignment implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(SequenceAlignment.class);
+
+    static final int ALLOCATION_SIZE = 50;
+
+    // sequence name, table, id column
+    static final String[][] SEQUENCES = {
+        {"posts_seq", "posts", "id"},
+        {"uma_user_seq", "uma_user", "user_id"},
+        {"horse_seq", "horse", "horse_id"},
+        {"uma_seq", "uma", "uma_id"},
+        {"comment_seq", "comment", "comment_id"}
+    };
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return;
+            }
+        }
+
+        for (String[] sequence : SEQUENCES) {
+            // never moves a sequence backwards, so this is a no-op once aligned
+            String sql = "SELECT setval('" + sequence[0] + "', GREATEST("
+                    + "(SELECT COALESCE(MAX(" + sequence[2] + "), 0) FROM " + sequence[1] + ") + " + ALLOCATION_SIZE + ", "
+                    + "(SELECT last_value FROM " + sequence[0] + ")))";
+            try {
+                jdbcTemplate.queryForObject(sql, Long.class);
+            } catch (Exception e) {
+                logger.warn("Could not align sequence {}: {}", sequence[0], e.getMessage());
+            }
+        }
+    }
+}
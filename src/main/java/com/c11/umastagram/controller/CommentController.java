@@ -0,0 +1,73 @@
+package com.c11.umastagram.controller;
+
+import com.c11.umastagram.dto.CommentPageResponse;
+import com.c11.umastagram.dto.CreateCommentRequest;
+import com.c11.umastagram.model.Comment;
+import com.c11.umastagram.service.CommentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/posts/{postId}/comments")
+public class CommentController {
+
+    @Autowired
+    private CommentService commentService;
+
+    /**
+     * Get a page of a post's comments, oldest first
+     * GET /api/posts/{postId}/comments?cursor={commentId}&limit={limit}
+     */
+    @GetMapping
+    public ResponseEntity<?> getComments(@PathVariable Long postId,
+                                         @RequestParam(required = false) Integer cursor,
+                                         @RequestParam(defaultValue = "" + CommentService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            CommentPageResponse page = commentService.getComments(postId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error loading comments: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Add a comment to a post
+     * POST /api/posts/{postId}/comments
+     */
+    @PostMapping
+    public ResponseEntity<?> addComment(@PathVariable Long postId, @RequestBody CreateCommentRequest request) {
+        try {
+            Comment comment = commentService.addComment(postId, request.getUserId(), request.getText());
+            return ResponseEntity.status(HttpStatus.CREATED).body(comment);
+        } catch (IllegalArgumentException e) {
+            if ("Post not found".equals(e.getMessage())) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+            }
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error adding comment: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Delete a comment
+     * DELETE /api/posts/{postId}/comments/{commentId}
+     */
+    @DeleteMapping("/{commentId}")
+    public ResponseEntity<?> deleteComment(@PathVariable Long postId, @PathVariable int commentId) {
+        try {
+            if (commentService.deleteComment(postId, commentId)) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
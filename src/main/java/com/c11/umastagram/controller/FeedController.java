@@ -0,0 +1,35 @@
+package com.c11.umastagram.controller;
+
+import com.c11.umastagram.dto.FeedResponse;
+import com.c11.umastagram.service.FeedService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/feed")
+public class FeedController {
+
+    @Autowired
+    private FeedService feedService;
+
+    /**
+     * Get a page of the home feed (posts from followed users, newest first)
+     * GET /api/feed?userId={userId}&cursor={cursor}&limit={limit}
+     */
+    @GetMapping
+    public ResponseEntity<?> getFeed(@RequestParam Long userId,
+                                     @RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "" + FeedService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            FeedResponse feed = feedService.getFeed(userId, cursor, limit);
+            return ResponseEntity.ok(feed);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error loading feed: " + e.getMessage());
+        }
+    }
+}
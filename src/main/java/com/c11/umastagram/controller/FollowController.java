@@ -1,9 +1,11 @@
 package com.c11.umastagram.controller;
 
-import com.c11.umastagram.model.Follow;
+import com.c11.umastagram.dto.RelationshipStatusRequest;
 import com.c11.umastagram.model.FriendRequest;
+import com.c11.umastagram.service.BlockService;
 import com.c11.umastagram.service.FollowService;
 import com.c11.umastagram.service.FriendRequestService;
+import com.c11.umastagram.service.FriendSuggestionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,16 +19,26 @@ public class FollowController {
 
     private final FriendRequestService friendRequestService;
     private final FollowService followService;
+    private final FriendSuggestionService friendSuggestionService;
+    private final BlockService blockService;
 
     @Autowired
-    public FollowController(FriendRequestService friendRequestService, FollowService followService) {
+    public FollowController(FriendRequestService friendRequestService, FollowService followService,
+                            FriendSuggestionService friendSuggestionService, BlockService blockService) {
         this.friendRequestService = friendRequestService;
         this.followService = followService;
+        this.friendSuggestionService = friendSuggestionService;
+        this.blockService = blockService;
     }
 
+    /**
+     * Returns the usernames of userId's followers. With viewerId, users blocked by or
+     * blocking the viewer are left out as well.
+     */
     @GetMapping("/getUserFollowers/{userId}")
-    public List<String> getUserFollowers(@PathVariable Long userId) {
-        return followService.getUserFollowers(userId);
+    public List<String> getUserFollowers(@PathVariable Long userId,
+                                         @RequestParam(required = false) Long viewerId) {
+        return followService.getUserFollowers(userId, viewerId);
     }
 
     @GetMapping("/getUserFriendRequests/{userId}")
@@ -34,6 +46,90 @@ public class FollowController {
         return friendRequestService.getUserFriendRequests(userId);
     }
 
+    /**
+     * Returns one page of userId's followers, most recent first.
+     * GET /api/friends/{userId}/followers?cursor=&limit=
+     */
+    @GetMapping("/{userId}/followers")
+    public ResponseEntity<?> getFollowersPage(@PathVariable Long userId,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "" + FollowService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            return ResponseEntity.ok(followService.getFollowersPage(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns one page of the users userId follows, most recent first.
+     * GET /api/friends/{userId}/following?cursor=&limit=
+     */
+    @GetMapping("/{userId}/following")
+    public ResponseEntity<?> getFollowingPage(@PathVariable Long userId,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "" + FollowService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            return ResponseEntity.ok(followService.getFollowingPage(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns how the viewer relates to each target user (following, followed by, request
+     * sent, request received), keyed by target id, so a whole user list takes one request.
+     */
+    @PostMapping("/status")
+    public ResponseEntity<?> getRelationshipStatuses(@RequestBody RelationshipStatusRequest request) {
+        try {
+            return ResponseEntity.ok(followService.getRelationshipStatuses(request.getViewerId(), request.getTargetIds()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the users followed by both userId and otherId.
+     */
+    @GetMapping("/{userId}/mutual/{otherId}")
+    public ResponseEntity<?> getMutual(@PathVariable Long userId, @PathVariable Long otherId,
+                                       @RequestParam(defaultValue = "" + FriendSuggestionService.MAX_MUTUAL_LIMIT) int limit) {
+        try {
+            return ResponseEntity.ok(friendSuggestionService.getMutual(userId, otherId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns friend-of-friend suggestions for userId, most mutual connections first.
+     */
+    @GetMapping("/{userId}/suggestions")
+    public ResponseEntity<?> getSuggestions(@PathVariable Long userId,
+                                            @RequestParam(defaultValue = "" + FriendSuggestionService.DEFAULT_LIMIT) int limit) {
+        try {
+            return ResponseEntity.ok(friendSuggestionService.getSuggestions(userId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
     @DeleteMapping("/deleteFriendRequest/{userId}/{friendId}")
     public ResponseEntity<String> deleteFriendRequest(@PathVariable Long userId, @PathVariable Long friendId) {
         try {
@@ -60,20 +156,63 @@ public class FollowController {
 
     @PostMapping("/acceptFriendRequest/{userId}/{friendId}")
     public ResponseEntity<String> acceptFriendRequest(@PathVariable Long userId, @PathVariable Long friendId) {
-//        LocalDateTime now = LocalDateTime.now();
-//        Follow follow = new Follow(userId, friendId, now);
-//
-//        friendRequestService.deleteFriendRequest(userId, friendId);
-//        return followService.saveFollow(follow);
-
         try {
-            LocalDateTime now = LocalDateTime.now();
-            Follow userFollow = new Follow(userId, friendId, now);
-            Follow friendFollow = new Follow(friendId, userId, now);
-            followService.saveFollow(userFollow);
-            followService.saveFollow(friendFollow);
-//            friendRequestService.deleteFriendRequest(userId, friendId);
+            followService.acceptFriendRequest(userId, friendId);
             return ResponseEntity.ok("Friend request accepted successfully");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Accepts many pending friend requests sent to userId in one transaction.
+     * The body is a JSON array of sender ids; without a body every pending request is accepted.
+     * @return the ids of the senders whose requests were accepted
+     */
+    @PostMapping("/acceptFriendRequests/{userId}")
+    public ResponseEntity<?> acceptFriendRequests(@PathVariable Long userId,
+                                                  @RequestBody(required = false) List<Long> requesterIds) {
+        try {
+            return ResponseEntity.ok(followService.acceptFriendRequests(userId, requesterIds));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Blocks targetId for userId, removing the follows and friend requests between them.
+     * POST /api/friends/block/{userId}/{targetId}
+     */
+    @PostMapping("/block/{userId}/{targetId}")
+    public ResponseEntity<String> blockUser(@PathVariable Long userId, @PathVariable Long targetId) {
+        try {
+            followService.blockUser(userId, targetId);
+            return ResponseEntity.ok("User blocked successfully");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(500).body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes userId's block on targetId.
+     * DELETE /api/friends/block/{userId}/{targetId}
+     */
+    @DeleteMapping("/block/{userId}/{targetId}")
+    public ResponseEntity<String> unblockUser(@PathVariable Long userId, @PathVariable Long targetId) {
+        try {
+            blockService.unblock(userId, targetId);
+            return ResponseEntity.ok("User unblocked successfully");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.status(500).body("Error: " + e.getMessage());
@@ -0,0 +1,59 @@
+package com.c11.umastagram.controller;
+
+import com.c11.umastagram.dto.MediaUploadResponse;
+import com.c11.umastagram.service.MediaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/media")
+public class MediaController {
+
+    @Autowired
+    private MediaService mediaService;
+
+    /**
+     * Upload an image
+     * POST /api/media (multipart/form-data, part "file")
+     */
+    @PostMapping
+    public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) {
+        try {
+            MediaUploadResponse response = mediaService.store(file);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error storing file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Download an image or thumbnail
+     * GET /api/media/{name}
+     * Range requests are answered with 206 partial content by Spring's resource region support.
+     */
+    @GetMapping("/{name:.+}")
+    public ResponseEntity<Resource> download(@PathVariable String name) {
+        Path path = mediaService.find(name);
+        if (path == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // names are content hashes, so a stored file never changes
+        return ResponseEntity.ok()
+            .contentType(mediaService.contentType(name))
+            .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+            .eTag(name)
+            .body(new FileSystemResource(path));
+    }
+}
@@ -10,20 +10,65 @@ package com.c11.umastagram.controller;
 import com.c11.umastagram.model.Posts;
 import com.c11.umastagram.repository.PostsRepository;
 import com.c11.umastagram.model.CreatePostRequest;
+import com.c11.umastagram.service.BlockService;
+import com.c11.umastagram.service.CommentService;
+import com.c11.umastagram.service.LikeService;
+import com.c11.umastagram.service.PostSearchService;
+import com.c11.umastagram.service.PostsExportService;
+import com.c11.umastagram.service.TimelineService;
+import com.c11.umastagram.service.TrendingService;
+import com.c11.umastagram.service.UserStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/posts")
 public class PostsController {
+    // largest batch accepted by POST /api/posts/batch
+    public static final int MAX_BATCH_SIZE = 500;
 
     @Autowired
     private PostsRepository postsRepository;
 
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private PostsExportService postsExportService;
+
+    @Autowired
+    private LikeService likeService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private PostSearchService postSearchService;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BlockService blockService;
+
     /**
      * Create a new post
      * POST /api/posts
@@ -47,8 +92,16 @@ public class PostsController {
                 LocalDateTime.now()  // Automatically set current date/time
             );
 
-            // Save to database
-            Posts savedPost = postsRepository.save(newPost);
+            // Save to database, counting it in the author's stats in the same transaction
+            Posts savedPost = new TransactionTemplate(transactionManager).execute(status -> {
+                Posts saved = postsRepository.save(newPost);
+                userStatsService.adjustPostCount(saved.getUserId(), 1);
+                return saved;
+            });
+
+            // Push into followers' timelines in the background
+            timelineService.fanOut(savedPost);
+            postSearchService.index(savedPost);
 
             return ResponseEntity.status(HttpStatus.CREATED).body(savedPost);
         } catch (Exception e) {
@@ -57,15 +110,118 @@ public class PostsController {
         }
     }
 
+    /**
+     * Create many posts in one request (seeding, migrations)
+     * POST /api/posts/batch
+     * Inserts are sent as JDBC batches, so this costs a few round trips rather than one per post.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> createPosts(@RequestBody List<CreatePostRequest> requests) {
+        try {
+            if (requests == null || requests.isEmpty()) {
+                return ResponseEntity.badRequest().body("at least one post is required");
+            }
+            if (requests.size() > MAX_BATCH_SIZE) {
+                return ResponseEntity.badRequest().body("at most " + MAX_BATCH_SIZE + " posts per batch");
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Posts> newPosts = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                CreatePostRequest request = requests.get(i);
+                if (request.getUserId() == null) {
+                    return ResponseEntity.badRequest().body("userId is required (post " + i + ")");
+                }
+                if (request.getText() == null || request.getText().isEmpty()) {
+                    return ResponseEntity.badRequest().body("text is required (post " + i + ")");
+                }
+                newPosts.add(new Posts(request.getUserId(), request.getText(), request.getImage(), now));
+            }
+
+            List<Posts> savedPosts = new TransactionTemplate(transactionManager).execute(status -> {
+                List<Posts> saved = postsRepository.saveAll(newPosts);
+                Map<Long, Integer> postsPerUser = new HashMap<>();
+                for (Posts post : saved) {
+                    postsPerUser.merge(post.getUserId(), 1, Integer::sum);
+                }
+                postsPerUser.forEach(userStatsService::adjustPostCount);
+                return saved;
+            });
+            for (Posts savedPost : savedPosts) {
+                timelineService.fanOut(savedPost);
+                postSearchService.index(savedPost);
+            }
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(savedPosts);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error creating posts: " + e.getMessage());
+        }
+    }
+
     /**
      * Get all posts
-     * GET /api/posts
+     * GET /api/posts?viewerId={viewerId}
+     * The listings below take an optional viewerId; posts by users blocked by or blocking
+     * the viewer are left out.
      */
     @GetMapping
-    public ResponseEntity<List<Posts>> getAllPosts() {
+    public ResponseEntity<List<Posts>> getAllPosts(@RequestParam(required = false) Long viewerId) {
         try {
             List<Posts> posts = postsRepository.findAll();
-            return ResponseEntity.ok(posts);
+            return ResponseEntity.ok(visibleTo(viewerId, posts));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Stream all posts without loading them into memory first
+     * GET /api/posts?stream=json   (a single JSON array)
+     * GET /api/posts?stream=ndjson (one JSON object per line)
+     */
+    @GetMapping(params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamAllPosts(@RequestParam String stream) {
+        boolean ndjson = "ndjson".equalsIgnoreCase(stream);
+        if (!ndjson && !"json".equalsIgnoreCase(stream)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> postsExportService.writePosts(out, ndjson);
+        return ResponseEntity.ok()
+            .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
+    /**
+     * Search posts by text (all terms must match), newest first
+     * GET /api/posts/search?q={query}&limit={limit}&viewerId={viewerId}
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchPosts(@RequestParam String q,
+                                         @RequestParam(defaultValue = "" + PostSearchService.DEFAULT_LIMIT) int limit,
+                                         @RequestParam(required = false) Long viewerId) {
+        try {
+            List<Posts> posts = postSearchService.search(q, limit);
+            return ResponseEntity.ok(visibleTo(viewerId, posts));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error searching posts: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the currently trending posts, best first
+     * GET /api/posts/trending?limit={limit}&viewerId={viewerId}
+     * Served from a snapshot that TrendingService refreshes in the background.
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<Posts>> getTrendingPosts(@RequestParam(required = false) Integer limit,
+                                                        @RequestParam(required = false) Long viewerId) {
+        try {
+            int max = limit == null ? trendingService.getSize() : limit;
+            return ResponseEntity.ok(visibleTo(viewerId, trendingService.getTrending(max)));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -73,11 +229,15 @@ public class PostsController {
 
     /**
      * Get posts by a specific user
-     * GET /api/posts/user/{userId}
+     * GET /api/posts/user/{userId}?viewerId={viewerId}
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Posts>> getPostsByUser(@PathVariable Long userId) {
+    public ResponseEntity<List<Posts>> getPostsByUser(@PathVariable Long userId,
+                                                      @RequestParam(required = false) Long viewerId) {
         try {
+            if (blockService.isBlocked(viewerId, userId)) {
+                return ResponseEntity.ok(List.of());
+            }
             List<Posts> posts = postsRepository.findByUserId(userId);
             return ResponseEntity.ok(posts);
         } catch (Exception e) {
@@ -107,8 +267,16 @@ public class PostsController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deletePost(@PathVariable Long id) {
         try {
-            if (postsRepository.existsById(id)) {
-                postsRepository.deleteById(id);
+            Optional<Posts> post = postsRepository.findById(id);
+            if (post.isPresent()) {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    userStatsService.onPostDeleted(id);
+                    postsRepository.deleteById(id);
+                });
+                // after commit, so a rolled-back delete leaves the post searchable
+                postSearchService.remove(post.get());
+                likeService.onPostDeleted(id);
+                commentService.onPostDeleted(id);
                 return ResponseEntity.noContent().build();
             } else {
                 return ResponseEntity.notFound().build();
@@ -117,4 +285,50 @@ public class PostsController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * Like a post
+     * POST /api/posts/{id}/like?userId=
+     */
+    @PostMapping("/{id}/like")
+    public ResponseEntity<?> likePost(@PathVariable Long id, @RequestParam Long userId) {
+        try {
+            boolean changed = likeService.like(userId, id);
+            return ResponseEntity.ok(Map.of("postId", id, "userId", userId, "liked", true, "changed", changed));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error liking post: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Unlike a post
+     * DELETE /api/posts/{id}/like?userId=
+     */
+    @DeleteMapping("/{id}/like")
+    public ResponseEntity<?> unlikePost(@PathVariable Long id, @RequestParam Long userId) {
+        try {
+            boolean changed = likeService.unlike(userId, id);
+            return ResponseEntity.ok(Map.of("postId", id, "userId", userId, "liked", false, "changed", changed));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body("Error unliking post: " + e.getMessage());
+        }
+    }
+
+    // drops posts whose author is blocked by or blocking viewerId; an in-memory check per post
+    private List<Posts> visibleTo(Long viewerId, List<Posts> posts) {
+        if (viewerId == null) {
+            return posts;
+        }
+        List<Posts> visible = new ArrayList<>(posts.size());
+        for (Posts post : posts) {
+            if (!blockService.isBlocked(viewerId, post.getUserId())) {
+                visible.add(post);
+            }
+        }
+        return visible;
+    }
 }
@@ -8,8 +8,14 @@
 package com.c11.umastagram.controller;
 
 import com.c11.umastagram.dto.SignupRequest;
+import com.c11.umastagram.dto.UserBatchRequest;
+import com.c11.umastagram.dto.UserProfile;
+import com.c11.umastagram.dto.UserSummary;
 import com.c11.umastagram.model.User;
+import com.c11.umastagram.service.BlockService;
+import com.c11.umastagram.service.PasswordHasher;
 import com.c11.umastagram.service.UserService;
+import com.c11.umastagram.service.UserStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -18,6 +24,9 @@ import com.c11.umastagram.dto.LoginRequest;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import com.c11.umastagram.util.JwtUtil;
 
 import java.util.Map;
@@ -34,9 +43,20 @@ public class UserController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private BlockService blockService;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
     // Define user-related endpoints here
+    // the password is hashed on the password hashing pool, so the request thread is released
+    // while it runs; 503 when that pool is saturated
     @PostMapping("/signup")
-    public ResponseEntity<?> signup(@RequestBody SignupRequest signupRequest) {
+    public CompletableFuture<ResponseEntity<?>> signup(@RequestBody SignupRequest signupRequest) {
         try {
             // Convert DTO to User entity
             User user = new User(
@@ -44,51 +64,85 @@ public class UserController {
                 signupRequest.getEmail(),
                 signupRequest.getPassword()
             );
-            
-            User savedUser = userService.saveUser(user);
-            
-            // Return only safe fields (no password)
-            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
-                "userId", savedUser.getUserId(),
-                "username", savedUser.getUsername(),
-                "email", savedUser.getEmail()
-            ));
+
+            return userService.saveUserAsync(user)
+                .<ResponseEntity<?>>thenApply(savedUser ->
+                    // Return only safe fields (no password)
+                    ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                        "userId", savedUser.getUserId(),
+                        "username", savedUser.getUsername(),
+                        "email", savedUser.getEmail()
+                    )))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof IllegalArgumentException) {
+                        return ResponseEntity.badRequest().body(Map.of("error", cause.getMessage()));
+                    }
+                    if (cause instanceof RejectedExecutionException) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Too many signups, please try again shortly"));
+                    }
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "An error occurred during signup"));
+                });
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", e.getMessage())));
         }
     }
 
+    // the password check runs on the password hashing pool, so the request thread is released
+    // while it runs; 503 when that pool is saturated
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest loginRequest) {
         try{
             String username = loginRequest.getUsername();
             String password = loginRequest.getPassword();
     
             if (username == null || password == null) {
-                return ResponseEntity.badRequest().body(Map.of("error", "Username and password are required"));
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", "Username and password are required")));
             }
 
-            // Implement login logic here (e.g., verify credentials, generate token, etc.)
-            
             User user = userService.findUserByUsername(username).get();
-            if (user == null || !user.getPassword().equals(password)) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid username or password"));
+            if (user == null) {
+                return CompletableFuture.completedFuture(invalidLogin());
             }
-            Long userId = user.getUserId();
-            String email = user.getEmail();
-            String token = jwtUtil.generateToken(user.getUserId(), user.getUsername());
-            return ResponseEntity.ok(Map.of(
-                "message", "Login successful for user: " + username,
-                "userId", user.getUserId(),
-                "username", user.getUsername(),
-                "email", user.getEmail(),
-                "token", token
-            ));
+            String stored = user.getPassword();
+            return passwordHasher.matches(password, stored)
+                .<ResponseEntity<?>>thenApply(matched -> {
+                    if (!matched) {
+                        return invalidLogin();
+                    }
+                    // plaintext or outdated-cost passwords are upgraded now that we have the raw one
+                    if (passwordHasher.needsRehash(stored)) {
+                        userService.rehashPassword(user, password);
+                    }
+                    String token = jwtUtil.generateToken(user.getUserId(), user.getUsername());
+                    return ResponseEntity.ok(Map.of(
+                        "message", "Login successful for user: " + username,
+                        "userId", user.getUserId(),
+                        "username", user.getUsername(),
+                        "email", user.getEmail(),
+                        "token", token
+                    ));
+                })
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof RejectedExecutionException) {
+                        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", "Too many login attempts, please try again shortly"));
+                    }
+                    return loginError();
+                });
         } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "An error occurred during login"));
+            return CompletableFuture.completedFuture(loginError());
         }
     }
 
+    private static ResponseEntity<?> invalidLogin() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid username or password"));
+    }
+
+    private static ResponseEntity<?> loginError() {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "An error occurred during login"));
+    }
+
     @PostMapping("/username/change")
     public ResponseEntity<?> changeUsername(@RequestBody Map<String, String> request) {
         try {
@@ -158,19 +212,19 @@ public class UserController {
         }
     }
 
+    // with viewerId, users blocked by or blocking the viewer are left out;
+    // best matches first (prefix, then follower count), at most limit of them
     @GetMapping("/userSearch/{query}")
-    public List<String> userSearch(@PathVariable String query) {
+    public List<String> userSearch(@PathVariable String query, @RequestParam(required = false) Long viewerId,
+                                   @RequestParam(defaultValue = "20") int limit) {
         // Hey ! This function was written by Gabe Gallagher for his really cool search functionality
         // Dec 3, 2025
         //
         try{
             List<String> results = new java.util.ArrayList<>();
-            List<User> userResults = userService.findSimilarUsersByUsername(query);
-            if(userResults.isEmpty()){
-                return results;
-            }
-            for(int i = 0; i < userResults.size(); i++) {
-                results.add(userResults.get(i).getUsername());
+            List<UserSummary> userResults = userService.searchUsers(query, limit, id -> !blockService.isBlocked(viewerId, id));
+            for (UserSummary summary : userResults) {
+                results.add(summary.getUsername());
             }
             return results;
         }
@@ -202,4 +256,42 @@ public class UserController {
             return userInfo;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Profiles of many users in one request, by userIds and/or usernames, so a list screen
+     * does not call getUserByUsername once per user. Users that do not exist are left out,
+     * and with viewerId so are users blocked by or blocking the viewer.
+     * POST /user/batch
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getUsersBatch(@RequestBody UserBatchRequest request) {
+        try {
+            List<UserProfile> visible = new java.util.ArrayList<>();
+            for (UserProfile profile : userService.findProfiles(request.getUserIds(), request.getUsernames())) {
+                if (!blockService.isBlocked(request.getViewerId(), profile.getUserId())) {
+                    visible.add(profile);
+                }
+            }
+            return ResponseEntity.ok(visible);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "An error occurred while loading users"));
+        }
+    }
+
+    /**
+     * Follower, following and post counts for a profile header.
+     * GET /user/{id}/stats
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<?> getUserStats(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(userStatsService.getStats(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "An error occurred while loading user stats"));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.c11.umastagram.dto;
+
+import com.c11.umastagram.model.Comment;
+
+import java.util.List;
+
+/**
+ * One page of a post's comments, oldest first, plus the commentId to pass as
+ * the cursor for the next page (null when there are no more comments).
+ */
+public class CommentPageResponse {
+    private List<Comment> comments;
+    private Integer nextCursor;
+
+    public CommentPageResponse(List<Comment> comments, Integer nextCursor) {
+        this.comments = comments;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Comment> getComments() {
+        return comments;
+    }
+
+    public void setComments(List<Comment> comments) {
+        this.comments = comments;
+    }
+
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,32 @@
+package com.c11.umastagram.dto;
+
+/**
+ * Request body for POST /api/posts/{postId}/comments.
+ */
+public class CreateCommentRequest {
+    private Long userId;
+    private String text;
+
+    public CreateCommentRequest() {}
+
+    public CreateCommentRequest(Long userId, String text) {
+        this.userId = userId;
+        this.text = text;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+}
@@ -0,0 +1,35 @@
+package com.c11.umastagram.dto;
+
+import com.c11.umastagram.model.Posts;
+
+import java.util.List;
+
+/**
+ * One page of the home feed plus the cursor for the next page
+ * (null when there are no more posts).
+ */
+public class FeedResponse {
+    private List<Posts> posts;
+    private String nextCursor;
+
+    public FeedResponse(List<Posts> posts, String nextCursor) {
+        this.posts = posts;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Posts> getPosts() {
+        return posts;
+    }
+
+    public void setPosts(List<Posts> posts) {
+        this.posts = posts;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
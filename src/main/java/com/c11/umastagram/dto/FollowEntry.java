@@ -0,0 +1,42 @@
+package com.c11.umastagram.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One user on a followers or following list, with when the follow started.
+ */
+public class FollowEntry {
+    private Long userId;
+    private String username;
+    private LocalDateTime followedAt;
+
+    public FollowEntry(Long userId, String username, LocalDateTime followedAt) {
+        this.userId = userId;
+        this.username = username;
+        this.followedAt = followedAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public LocalDateTime getFollowedAt() {
+        return followedAt;
+    }
+
+    public void setFollowedAt(LocalDateTime followedAt) {
+        this.followedAt = followedAt;
+    }
+}
@@ -0,0 +1,33 @@
+package com.c11.umastagram.dto;
+
+import java.util.List;
+
+/**
+ * One page of a followers or following list plus the cursor for the next page
+ * (null when there are no more users).
+ */
+public class FollowPageResponse {
+    private List<FollowEntry> users;
+    private String nextCursor;
+
+    public FollowPageResponse(List<FollowEntry> users, String nextCursor) {
+        this.users = users;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<FollowEntry> getUsers() {
+        return users;
+    }
+
+    public void setUsers(List<FollowEntry> users) {
+        this.users = users;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,40 @@
+package com.c11.umastagram.dto;
+
+/**
+ * A user suggested to follow, with the number of users they share with the requester.
+ */
+public class FriendSuggestion {
+    private Long userId;
+    private String username;
+    private int mutualCount;
+
+    public FriendSuggestion(Long userId, String username, int mutualCount) {
+        this.userId = userId;
+        this.username = username;
+        this.mutualCount = mutualCount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public int getMutualCount() {
+        return mutualCount;
+    }
+
+    public void setMutualCount(int mutualCount) {
+        this.mutualCount = mutualCount;
+    }
+}
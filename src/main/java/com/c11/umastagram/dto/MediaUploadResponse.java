@@ -0,0 +1,51 @@
+package com.c11.umastagram.dto;
+
+/**
+ * Result of POST /api/media: the stored name and the URLs of the image and its
+ * thumbnail. The URL can be saved as Posts.image, Horse.horseImageLink or Uma.umaImageLink.
+ */
+public class MediaUploadResponse {
+    private String name;
+    private String url;
+    private String thumbnailUrl;
+    private long size;
+
+    public MediaUploadResponse(String name, String url, String thumbnailUrl, long size) {
+        this.name = name;
+        this.url = url;
+        this.thumbnailUrl = thumbnailUrl;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,56 @@
+package com.c11.umastagram.dto;
+
+/**
+ * How a viewer relates to another user, as shown on a user card.
+ */
+public class RelationshipStatus {
+    private boolean following;
+    private boolean followedBy;
+    private boolean requestSent;
+    private boolean requestReceived;
+
+    public RelationshipStatus() {}
+
+    public RelationshipStatus(boolean following, boolean followedBy, boolean requestSent, boolean requestReceived) {
+        this.following = following;
+        this.followedBy = followedBy;
+        this.requestSent = requestSent;
+        this.requestReceived = requestReceived;
+    }
+
+    /** @return true if the viewer follows the user */
+    public boolean isFollowing() {
+        return following;
+    }
+
+    public void setFollowing(boolean following) {
+        this.following = following;
+    }
+
+    /** @return true if the user follows the viewer */
+    public boolean isFollowedBy() {
+        return followedBy;
+    }
+
+    public void setFollowedBy(boolean followedBy) {
+        this.followedBy = followedBy;
+    }
+
+    /** @return true if the viewer has sent the user a friend request that is still pending */
+    public boolean isRequestSent() {
+        return requestSent;
+    }
+
+    public void setRequestSent(boolean requestSent) {
+        this.requestSent = requestSent;
+    }
+
+    /** @return true if the user has sent the viewer a friend request that is still pending */
+    public boolean isRequestReceived() {
+        return requestReceived;
+    }
+
+    public void setRequestReceived(boolean requestReceived) {
+        this.requestReceived = requestReceived;
+    }
+}
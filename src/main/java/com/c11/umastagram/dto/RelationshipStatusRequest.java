@@ -0,0 +1,34 @@
+package com.c11.umastagram.dto;
+
+import java.util.List;
+
+/**
+ * Request body for POST /api/friends/status.
+ */
+public class RelationshipStatusRequest {
+    private Long viewerId;
+    private List<Long> targetIds;
+
+    public RelationshipStatusRequest() {}
+
+    public RelationshipStatusRequest(Long viewerId, List<Long> targetIds) {
+        this.viewerId = viewerId;
+        this.targetIds = targetIds;
+    }
+
+    public Long getViewerId() {
+        return viewerId;
+    }
+
+    public void setViewerId(Long viewerId) {
+        this.viewerId = viewerId;
+    }
+
+    public List<Long> getTargetIds() {
+        return targetIds;
+    }
+
+    public void setTargetIds(List<Long> targetIds) {
+        this.targetIds = targetIds;
+    }
+}
@@ -0,0 +1,44 @@
+package com.c11.umastagram.dto;
+
+import java.util.List;
+
+/**
+ * Request body for POST /user/batch: the users to look up, by id, by username or both.
+ */
+public class UserBatchRequest {
+    private List<Long> userIds;
+    private List<String> usernames;
+    private Long viewerId;
+
+    public UserBatchRequest() {}
+
+    public UserBatchRequest(List<Long> userIds, List<String> usernames, Long viewerId) {
+        this.userIds = userIds;
+        this.usernames = usernames;
+        this.viewerId = viewerId;
+    }
+
+    public List<Long> getUserIds() {
+        return userIds;
+    }
+
+    public void setUserIds(List<Long> userIds) {
+        this.userIds = userIds;
+    }
+
+    public List<String> getUsernames() {
+        return usernames;
+    }
+
+    public void setUsernames(List<String> usernames) {
+        this.usernames = usernames;
+    }
+
+    public Long getViewerId() {
+        return viewerId;
+    }
+
+    public void setViewerId(Long viewerId) {
+        this.viewerId = viewerId;
+    }
+}
@@ -0,0 +1,52 @@
+package com.c11.umastagram.dto;
+
+/**
+ * Which of a new user's unique fields are already taken, found by one query.
+ */
+public class UserConflicts {
+    private final boolean userId;
+    private final boolean email;
+    private final boolean username;
+    private final boolean githubId;
+    private final boolean githubUsername;
+    private final boolean googleId;
+
+    // each argument is 1 if some user has the value; null when no user matched at all
+    public UserConflicts(Integer userId, Integer email, Integer username, Integer githubId,
+                         Integer githubUsername, Integer googleId) {
+        this.userId = isSet(userId);
+        this.email = isSet(email);
+        this.username = isSet(username);
+        this.githubId = isSet(githubId);
+        this.githubUsername = isSet(githubUsername);
+        this.googleId = isSet(googleId);
+    }
+
+    private static boolean isSet(Integer flag) {
+        return flag != null && flag > 0;
+    }
+
+    public boolean isUserId() {
+        return userId;
+    }
+
+    public boolean isEmail() {
+        return email;
+    }
+
+    public boolean isUsername() {
+        return username;
+    }
+
+    public boolean isGithubId() {
+        return githubId;
+    }
+
+    public boolean isGithubUsername() {
+        return githubUsername;
+    }
+
+    public boolean isGoogleId() {
+        return googleId;
+    }
+}
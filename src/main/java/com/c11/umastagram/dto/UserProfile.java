@@ -0,0 +1,51 @@
+package com.c11.umastagram.dto;
+
+/**
+ * The public profile fields of a user, as returned by GET /user/getUserByUsername,
+ * for rendering user lists without one request per user.
+ */
+public class UserProfile {
+    private Long userId;
+    private String username;
+    private String githubUsername;
+    private String email;
+
+    public UserProfile(Long userId, String username, String githubUsername, String email) {
+        this.userId = userId;
+        this.username = username;
+        this.githubUsername = githubUsername;
+        this.email = email;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getGithubUsername() {
+        return githubUsername;
+    }
+
+    public void setGithubUsername(String githubUsername) {
+        this.githubUsername = githubUsername;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+}
@@ -0,0 +1,30 @@
+package com.c11.umastagram.dto;
+
+/**
+ * The id and username of a user, loaded without the rest of the User row.
+ */
+public class UserSummary {
+    private Long userId;
+    private String username;
+
+    public UserSummary(Long userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+}
@@ -9,11 +9,15 @@ package com.c11.umastagram.model;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "comment")
+@Table(name = "comment", indexes = {
+    // serves listing a post's comments (post_id = ?) in comment_id keyset order
+    @Index(name = "idx_comment_post_comment", columnList = "post_id, comment_id")
+})
 public class Comment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comment_seq", allocationSize = 50)
     @Column(name = "comment_id", unique = true)
     private int commentId;   // Primary Key
 
@@ -1,24 +1,37 @@
 package com.c11.umastagram.model;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "follow")
+@Table(name = "follow", indexes = {
+    // the (user_id, friend_id) primary key cannot serve lookups by friend_id
+    @Index(name = "idx_follow_friend_time", columnList = "friend_id, request_time, user_id"),
+    @Index(name = "idx_follow_user_time", columnList = "user_id, request_time, friend_id"),
+    // follows created since a graph snapshot was written
+    @Index(name = "idx_follow_request_time", columnList = "request_time")
+})
 @IdClass(FollowId.class)
-public class Follow {
+public class Follow implements Persistable<FollowId> {
     @Id
-    @Column(nullable = false)
+    @Column(name = "user_id", nullable = false)
     private Long userId;
 
     @Id
-    @Column(nullable = false)
+    @Column(name = "friend_id", nullable = false)
     private Long friendId;
 
+    @Column(name = "request_time")
     private LocalDateTime requestTime;
 
+    // callers check for duplicates themselves (or let the primary key reject them), so
+    // save() can INSERT directly instead of merging, which would SELECT the row first
+    @Transient
+    private boolean isNew = true;
+
     public Follow(Long userId, Long friendId, LocalDateTime requestTime) {
         this.userId = userId;
         this.friendId = friendId;
@@ -53,6 +66,22 @@ public class Follow {
         this.requestTime = requestTime;
     }
 
+    @Override
+    public FollowId getId() {
+        return new FollowId(userId, friendId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     @Override
     public String toString() {
         return "Follow{" +
@@ -1,12 +1,13 @@
 package com.c11.umastagram.model;
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
 @Table(name = "friend_request")
 @IdClass(FriendRequestId.class)
-public class FriendRequest {
+public class FriendRequest implements Persistable<FriendRequestId> {
     @Id
     @Column(nullable = false)
     private Long userRequestId;
@@ -17,6 +18,11 @@ public class FriendRequest {
 
     private LocalDateTime requestTime;
 
+    // callers check for duplicates themselves (or let the primary key reject them), so
+    // save() can INSERT directly instead of merging, which would SELECT the row first
+    @Transient
+    private boolean isNew = true;
+
     public FriendRequest(Long userRequestId, Long userTargetId, LocalDateTime requestTime) {
         this.userRequestId = userRequestId;
         this.userTargetId = userTargetId;
@@ -51,6 +57,22 @@ public class FriendRequest {
         this.requestTime = requestTime;
     }
 
+    @Override
+    public FriendRequestId getId() {
+        return new FriendRequestId(userRequestId, userTargetId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     @Override
     public String toString() {
         return "FriendRequest{" +
@@ -13,7 +13,8 @@ import java.time.LocalDate;
 public class Horse {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "horse_seq")
+    @SequenceGenerator(name = "horse_seq", sequenceName = "horse_seq", allocationSize = 50)
     @Column(name = "horse_id", nullable = false, unique = true)
     private Long horseId;
 
@@ -0,0 +1,83 @@
+package com.c11.umastagram.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * A single user's like on a post. The (userId, postId) primary key is what makes
+ * liking idempotent; Posts.likes is a denormalized count of these rows.
+ */
+@Entity
+@Table(name = "post_like", indexes = {
+    @Index(name = "idx_post_like_post", columnList = "post_id")
+})
+@IdClass(PostLikeId.class)
+public class PostLike {
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(name = "liked_at")
+    private LocalDateTime likedAt;
+
+    public PostLike() {
+        this.likedAt = LocalDateTime.now();
+    }
+
+    public PostLike(Long userId, Long postId, LocalDateTime likedAt) {
+        this.userId = userId;
+        this.postId = postId;
+        this.likedAt = likedAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+    public LocalDateTime getLikedAt() {
+        return likedAt;
+    }
+
+    public void setLikedAt(LocalDateTime likedAt) {
+        this.likedAt = likedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "PostLike{" +
+                "userId=" + userId +
+                ", postId=" + postId +
+                ", likedAt=" + likedAt +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        PostLike postLike = (PostLike) o;
+        return Objects.equals(userId, postLike.userId) && Objects.equals(postId, postLike.postId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, postId);
+    }
+}
@@ -0,0 +1,41 @@
+package com.c11.umastagram.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// This class represents a composite key for the PostLike entity
+// consisting of userId and postId.
+
+public class PostLikeId implements Serializable {
+    private Long userId;
+    private Long postId;
+
+    public PostLikeId() {}
+
+    public PostLikeId(Long userId, Long postId) {
+        this.userId = userId;
+        this.postId = postId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        PostLikeId that = (PostLikeId) o;
+        return Objects.equals(userId, that.userId) &&
+                Objects.equals(postId, that.postId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, postId);
+    }
+}
@@ -10,10 +10,17 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+    // serves the feed join (user_id = ?) ordered by the (date_posted, id) keyset
+    @Index(name = "idx_posts_user_date_id", columnList = "user_id, date_posted, id"),
+    // serves the trending candidates query (date_posted >= ?)
+    @Index(name = "idx_posts_date_posted", columnList = "date_posted")
+})
 public class Posts {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // pooled sequence rather than IDENTITY so Hibernate can batch inserts
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posts_seq")
+    @SequenceGenerator(name = "posts_seq", sequenceName = "posts_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "user_id", nullable = false)
@@ -31,6 +38,10 @@ public class Posts {
     @Column(name = "likes", nullable = false, columnDefinition = "INT DEFAULT 0")
     private int likes;
 
+    // denormalized count of comment rows, maintained by CommentService
+    @Column(name = "comment_count", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private int commentCount;
+
     public Posts() {}
 
     public Posts(Long userId, String text, String image, LocalDateTime datePosted) {
@@ -39,6 +50,7 @@ public class Posts {
         this.image = image;
         this.datePosted = datePosted;
         this.likes = 0;
+        this.commentCount = 0;
     }
 
 
@@ -91,4 +103,12 @@ public class Posts {
     public void setLikes(int likes) {
         this.likes = likes;
     }
+
+    public int getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(int commentCount) {
+        this.commentCount = commentCount;
+    }
 }
@@ -0,0 +1,105 @@
+package com.c11.umastagram.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * One entry of a user's materialized home timeline: postId was pushed to userId's
+ * timeline because userId follows the post's author. The in-memory rings in
+ * TimelineService are the primary copy; this table only exists so they survive a restart.
+ */
+@Entity
+@Table(name = "timeline", indexes = {
+    @Index(name = "idx_timeline_user_date", columnList = "user_id, date_posted, post_id"),
+    @Index(name = "idx_timeline_date", columnList = "date_posted")
+})
+@IdClass(TimelineId.class)
+public class Timeline implements Persistable<TimelineId> {
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "post_id", nullable = false)
+    private Long postId;
+
+    @Column(name = "date_posted", nullable = false)
+    private LocalDateTime datePosted;
+
+    // Timeline rows are only ever inserted, so skip the merge (SELECT) that
+    // save() would otherwise do for an entity with an assigned composite id.
+    @Transient
+    private boolean isNew = true;
+
+    public Timeline() {}
+
+    public Timeline(Long userId, Long postId, LocalDateTime datePosted) {
+        this.userId = userId;
+        this.postId = postId;
+        this.datePosted = datePosted;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    public void setPostId(Long postId) {
+        this.postId = postId;
+    }
+
+    public LocalDateTime getDatePosted() {
+        return datePosted;
+    }
+
+    public void setDatePosted(LocalDateTime datePosted) {
+        this.datePosted = datePosted;
+    }
+
+    @Override
+    public TimelineId getId() {
+        return new TimelineId(userId, postId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public String toString() {
+        return "Timeline{" +
+                "userId=" + userId +
+                ", postId=" + postId +
+                ", datePosted=" + datePosted +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        Timeline timeline = (Timeline) o;
+        return Objects.equals(userId, timeline.userId) && Objects.equals(postId, timeline.postId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, postId);
+    }
+}
@@ -0,0 +1,41 @@
+package com.c11.umastagram.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// This class represents a composite key for the Timeline entity
+// consisting of userId and postId.
+
+public class TimelineId implements Serializable {
+    private Long userId;
+    private Long postId;
+
+    public TimelineId() {}
+
+    public TimelineId(Long userId, Long postId) {
+        this.userId = userId;
+        this.postId = postId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getPostId() {
+        return postId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TimelineId that = (TimelineId) o;
+        return Objects.equals(userId, that.userId) &&
+                Objects.equals(postId, that.postId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, postId);
+    }
+}
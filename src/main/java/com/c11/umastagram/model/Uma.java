@@ -14,7 +14,8 @@ import java.time.LocalDate;
 public class Uma {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "uma_seq")
+    @SequenceGenerator(name = "uma_seq", sequenceName = "uma_seq", allocationSize = 50)
     @Column(name = "uma_id", nullable = false, unique = true)
     private Long umaId;
 
@@ -16,7 +16,8 @@ import java.util.Objects;
 @Table(name = "uma_user")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "uma_user_seq")
+    @SequenceGenerator(name = "uma_user_seq", sequenceName = "uma_user_seq", allocationSize = 50)
     @Column(unique = true, nullable = false)
     private Long userId;
 
@@ -0,0 +1,84 @@
+package com.c11.umastagram.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * blockerId has blocked blockedId. Either side of a block is hidden from the other;
+ * BlockService keeps every block in memory so lists can be filtered without a join.
+ */
+@Entity
+@Table(name = "user_block", indexes = {
+    // who has blocked a user, for the reverse direction of the check
+    @Index(name = "idx_user_block_blocked", columnList = "blocked_id, blocker_id")
+})
+@IdClass(UserBlockId.class)
+public class UserBlock {
+    @Id
+    @Column(name = "blocker_id", nullable = false)
+    private Long blockerId;
+
+    @Id
+    @Column(name = "blocked_id", nullable = false)
+    private Long blockedId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public UserBlock() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public UserBlock(Long blockerId, Long blockedId) {
+        this.blockerId = blockerId;
+        this.blockedId = blockedId;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public Long getBlockerId() {
+        return blockerId;
+    }
+
+    public void setBlockerId(Long blockerId) {
+        this.blockerId = blockerId;
+    }
+
+    public Long getBlockedId() {
+        return blockedId;
+    }
+
+    public void setBlockedId(Long blockedId) {
+        this.blockedId = blockedId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "UserBlock{" +
+                "blockerId=" + blockerId +
+                ", blockedId=" + blockedId +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        UserBlock that = (UserBlock) o;
+        return Objects.equals(blockerId, that.blockerId) && Objects.equals(blockedId, that.blockedId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(blockerId, blockedId);
+    }
+}
@@ -0,0 +1,38 @@
+package com.c11.umastagram.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+// Composite key for UserBlock: the blocking user and the blocked user.
+public class UserBlockId implements Serializable {
+    private Long blockerId;
+    private Long blockedId;
+
+    public UserBlockId() {}
+
+    public UserBlockId(Long blockerId, Long blockedId) {
+        this.blockerId = blockerId;
+        this.blockedId = blockedId;
+    }
+
+    public Long getBlockerId() {
+        return blockerId;
+    }
+
+    public Long getBlockedId() {
+        return blockedId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UserBlockId that = (UserBlockId) o;
+        return Objects.equals(blockerId, that.blockerId) && Objects.equals(blockedId, that.blockedId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(blockerId, blockedId);
+    }
+}
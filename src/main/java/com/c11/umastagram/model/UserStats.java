@@ -0,0 +1,91 @@
+package com.c11.umastagram.model;
+
+import jakarta.persistence.*;
+
+import java.util.Objects;
+
+/**
+ * Denormalized per-user counters for profile headers. Kept in step with the follow and
+ * posts tables by UserStatsService in the same transaction as each change, and
+ * periodically recounted to repair any drift.
+ */
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "follower_count", nullable = false)
+    private long followerCount;
+
+    @Column(name = "following_count", nullable = false)
+    private long followingCount;
+
+    @Column(name = "post_count", nullable = false)
+    private long postCount;
+
+    public UserStats() {}
+
+    public UserStats(Long userId, long followerCount, long followingCount, long postCount) {
+        this.userId = userId;
+        this.followerCount = followerCount;
+        this.followingCount = followingCount;
+        this.postCount = postCount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public long getFollowerCount() {
+        return followerCount;
+    }
+
+    public void setFollowerCount(long followerCount) {
+        this.followerCount = followerCount;
+    }
+
+    public long getFollowingCount() {
+        return followingCount;
+    }
+
+    public void setFollowingCount(long followingCount) {
+        this.followingCount = followingCount;
+    }
+
+    public long getPostCount() {
+        return postCount;
+    }
+
+    public void setPostCount(long postCount) {
+        this.postCount = postCount;
+    }
+
+    @Override
+    public String toString() {
+        return "UserStats{" +
+                "userId=" + userId +
+                ", followerCount=" + followerCount +
+                ", followingCount=" + followingCount +
+                ", postCount=" + postCount +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        UserStats that = (UserStats) o;
+        return followerCount == that.followerCount && followingCount == that.followingCount
+                && postCount == that.postCount && Objects.equals(userId, that.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, followerCount, followingCount, postCount);
+    }
+}
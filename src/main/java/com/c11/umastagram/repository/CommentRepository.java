@@ -0,0 +1,47 @@
+package com.c11.umastagram.repository;
+
+import com.c11.umastagram.model.Comment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CommentRepository extends JpaRepository<Comment, Integer> {
+
+    /**
+     * Retrieves the oldest comments on a post.
+     * JPQL: SELECT c FROM Comment c WHERE c.postId = :postId ORDER BY c.commentId
+     * @param postId the ID of the post
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<Comment> of at most pageable.getPageSize() comments
+     */
+    @Query("SELECT c FROM Comment c WHERE c.postId = :postId ORDER BY c.commentId")
+    List<Comment> findFirstPage(@Param("postId") int postId, Pageable pageable);
+
+    /**
+     * Retrieves the comments on a post that come after the commentId cursor.
+     * JPQL: SELECT c FROM Comment c WHERE c.postId = :postId AND c.commentId > :afterId
+     *       ORDER BY c.commentId
+     * @param postId the ID of the post
+     * @param afterId commentId of the last comment on the previous page
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<Comment> of at most pageable.getPageSize() comments
+     */
+    @Query("SELECT c FROM Comment c WHERE c.postId = :postId AND c.commentId > :afterId ORDER BY c.commentId")
+    List<Comment> findPageAfter(@Param("postId") int postId, @Param("afterId") int afterId, Pageable pageable);
+
+    /**
+     * Deletes every comment on a post.
+     * JPQL: DELETE FROM Comment c WHERE c.postId = :postId
+     * @param postId the ID of the post
+     * @return int number of rows affected
+     */
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.postId = :postId")
+    int deleteAllByPostId(@Param("postId") int postId);
+}
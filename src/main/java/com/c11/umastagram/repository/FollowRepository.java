@@ -1,15 +1,23 @@
 package com.c11.umastagram.repository;
 
+import com.c11.umastagram.dto.FollowEntry;
+import com.c11.umastagram.dto.UserSummary;
 import com.c11.umastagram.model.Follow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface FollowRepository extends JpaRepository<Follow, Long> {
+public interface FollowRepository extends JpaRepository<Follow, Long>, FollowRepositoryCustom {
 
     /**
      * Retrieves a Follow by userId and friendId.
@@ -37,5 +45,171 @@ public interface FollowRepository extends JpaRepository<Follow, Long> {
     @Query("SELECT f FROM Follow f WHERE f.friendId = :userId")
     java.util.List<Follow> findAllFollowersByUserId(Long userId);
 
+    /**
+     * Retrieves the usernames of the users following userId in one query.
+     * Follow rows whose follower no longer exists are skipped by the join.
+     * JPQL: SELECT u.username FROM Follow f JOIN User u ON u.userId = f.userId WHERE f.friendId = :userId
+     * @param userId
+     * @return List<String> of follower usernames
+     */
+    @Query("SELECT u.username FROM Follow f JOIN User u ON u.userId = f.userId WHERE f.friendId = :userId")
+    java.util.List<String> findFollowerUsernamesByUserId(Long userId);
+
+    /**
+     * Retrieves the ids and usernames of the users following userId in one query.
+     * JPQL: SELECT new com.c11.umastagram.dto.UserSummary(u.userId, u.username) FROM Follow f JOIN User u ON u.userId = f.userId WHERE f.friendId = :userId
+     * @param userId
+     * @return List<UserSummary> of followers
+     */
+    @Query("SELECT new com.c11.umastagram.dto.UserSummary(u.userId, u.username) FROM Follow f JOIN User u ON u.userId = f.userId WHERE f.friendId = :userId")
+    java.util.List<UserSummary> findFollowerSummariesByUserId(Long userId);
+
+    /**
+     * Retrieves the newest followers of userId, served by idx_follow_friend_time.
+     * JPQL: SELECT new FollowEntry(u.userId, u.username, f.requestTime) FROM Follow f JOIN User u ON u.userId = f.userId
+     *       WHERE f.friendId = :userId ORDER BY f.requestTime DESC, f.userId DESC
+     * @param userId
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<FollowEntry> of at most pageable.getPageSize() followers
+     */
+    @Query("SELECT new com.c11.umastagram.dto.FollowEntry(u.userId, u.username, f.requestTime) " +
+           "FROM Follow f JOIN User u ON u.userId = f.userId " +
+           "WHERE f.friendId = :userId " +
+           "ORDER BY f.requestTime DESC, f.userId DESC")
+    java.util.List<FollowEntry> findFollowersFirstPage(Long userId, Pageable pageable);
+
+    /**
+     * Retrieves the followers of userId which come strictly after the (requestTime, userId) cursor.
+     * JPQL: ... WHERE f.friendId = :userId AND (f.requestTime < :requestTime OR (f.requestTime = :requestTime AND f.userId < :afterId))
+     *       ORDER BY f.requestTime DESC, f.userId DESC
+     * @param userId
+     * @param requestTime requestTime of the last follow on the previous page
+     * @param afterId follower id of the last follow on the previous page
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<FollowEntry> of at most pageable.getPageSize() followers
+     */
+    @Query("SELECT new com.c11.umastagram.dto.FollowEntry(u.userId, u.username, f.requestTime) " +
+           "FROM Follow f JOIN User u ON u.userId = f.userId " +
+           "WHERE f.friendId = :userId " +
+           "AND (f.requestTime < :requestTime OR (f.requestTime = :requestTime AND f.userId < :afterId)) " +
+           "ORDER BY f.requestTime DESC, f.userId DESC")
+    java.util.List<FollowEntry> findFollowersPageAfter(Long userId, LocalDateTime requestTime, Long afterId, Pageable pageable);
 
+    /**
+     * Retrieves the users userId most recently followed, served by idx_follow_user_time.
+     * JPQL: SELECT new FollowEntry(u.userId, u.username, f.requestTime) FROM Follow f JOIN User u ON u.userId = f.friendId
+     *       WHERE f.userId = :userId ORDER BY f.requestTime DESC, f.friendId DESC
+     * @param userId
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<FollowEntry> of at most pageable.getPageSize() followed users
+     */
+    @Query("SELECT new com.c11.umastagram.dto.FollowEntry(u.userId, u.username, f.requestTime) " +
+           "FROM Follow f JOIN User u ON u.userId = f.friendId " +
+           "WHERE f.userId = :userId " +
+           "ORDER BY f.requestTime DESC, f.friendId DESC")
+    java.util.List<FollowEntry> findFollowingFirstPage(Long userId, Pageable pageable);
+
+    /**
+     * Retrieves the users userId follows which come strictly after the (requestTime, friendId) cursor.
+     * JPQL: ... WHERE f.userId = :userId AND (f.requestTime < :requestTime OR (f.requestTime = :requestTime AND f.friendId < :afterId))
+     *       ORDER BY f.requestTime DESC, f.friendId DESC
+     * @param userId
+     * @param requestTime requestTime of the last follow on the previous page
+     * @param afterId followed user id of the last follow on the previous page
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<FollowEntry> of at most pageable.getPageSize() followed users
+     */
+    @Query("SELECT new com.c11.umastagram.dto.FollowEntry(u.userId, u.username, f.requestTime) " +
+           "FROM Follow f JOIN User u ON u.userId = f.friendId " +
+           "WHERE f.userId = :userId " +
+           "AND (f.requestTime < :requestTime OR (f.requestTime = :requestTime AND f.friendId < :afterId)) " +
+           "ORDER BY f.requestTime DESC, f.friendId DESC")
+    java.util.List<FollowEntry> findFollowingPageAfter(Long userId, LocalDateTime requestTime, Long afterId, Pageable pageable);
+
+    /**
+     * Retrieves the ids of the users following userId.
+     * JPQL: SELECT f.userId FROM Follow f WHERE f.friendId = :userId
+     * @param userId
+     * @return List<Long> of follower ids
+     */
+    @Query("SELECT f.userId FROM Follow f WHERE f.friendId = :userId")
+    java.util.List<Long> findFollowerIdsByUserId(Long userId);
+
+    /**
+     * Retrieves the ids of the users userId follows.
+     * JPQL: SELECT f.friendId FROM Follow f WHERE f.userId = :userId
+     * @param userId
+     * @return List<Long> of followed user ids
+     */
+    @Query("SELECT f.friendId FROM Follow f WHERE f.userId = :userId")
+    java.util.List<Long> findFollowingIdsByUserId(Long userId);
+
+    /**
+     * Counts the users following userId.
+     * JPQL: SELECT COUNT(f) FROM Follow f WHERE f.friendId = :userId
+     * @param userId
+     * @return long number of followers
+     */
+    @Query("SELECT COUNT(f) FROM Follow f WHERE f.friendId = :userId")
+    long countFollowersByUserId(Long userId);
+
+    /**
+     * Retrieves the ids of every user with more than threshold followers.
+     * JPQL: SELECT f.friendId FROM Follow f GROUP BY f.friendId HAVING COUNT(f) > :threshold
+     * @param threshold
+     * @return List<Long> of user ids
+     */
+    @Query("SELECT f.friendId FROM Follow f GROUP BY f.friendId HAVING COUNT(f) > :threshold")
+    java.util.List<Long> findUserIdsWithMoreFollowersThan(long threshold);
+
+    /**
+     * Retrieves which of the given users userId follows.
+     * JPQL: SELECT f.friendId FROM Follow f WHERE f.userId = :userId AND f.friendId IN :friendIds
+     * @param userId
+     * @param friendIds
+     * @return List<Long> subset of friendIds followed by userId
+     */
+    @Query("SELECT f.friendId FROM Follow f WHERE f.userId = :userId AND f.friendId IN :friendIds")
+    java.util.List<Long> findFollowedAmong(Long userId, java.util.Collection<Long> friendIds);
+
+    /**
+     * Retrieves the follows between userId and any of the given users, in either direction.
+     * JPQL: SELECT f.userId, f.friendId FROM Follow f WHERE (f.userId = :userId AND f.friendId IN :otherIds) OR (f.friendId = :userId AND f.userId IN :otherIds)
+     * @param userId
+     * @param otherIds
+     * @return List<Object[]> of {userId, friendId}
+     */
+    @Query("SELECT f.userId, f.friendId FROM Follow f " +
+           "WHERE (f.userId = :userId AND f.friendId IN :otherIds) OR (f.friendId = :userId AND f.userId IN :otherIds)")
+    java.util.List<Object[]> findFollowsBetween(Long userId, java.util.Collection<Long> otherIds);
+
+    /**
+     * Streams the (userId, friendId) pairs of one partition of the follow table, so the
+     * partitions can be read in parallel. Rows are plain id pairs, no Follow entities are
+     * created; the stream must be consumed and closed inside a transaction.
+     * JPQL: SELECT f.userId, f.friendId FROM Follow f WHERE MOD(f.userId, :partitions) = :partition
+     * @param partitions the total number of partitions
+     * @param partition the partition to read, in [0, partitions)
+     * @return Stream<Object[]> of {userId, friendId}
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT f.userId, f.friendId FROM Follow f WHERE MOD(f.userId, :partitions) = :partition")
+    Stream<Object[]> streamEdgePartition(int partitions, int partition);
+
+    /**
+     * Streams the follows created at or after since, as id pairs. Used to bring a restored
+     * snapshot of the graph up to date; the stream must be consumed and closed inside a transaction.
+     * JPQL: SELECT f.userId, f.friendId FROM Follow f WHERE f.requestTime >= :since
+     * @param since the earliest request_time to include
+     * @return Stream<Object[]> of {userId, friendId}
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT f.userId, f.friendId FROM Follow f WHERE f.requestTime >= :since")
+    Stream<Object[]> streamEdgesSince(LocalDateTime since);
 }
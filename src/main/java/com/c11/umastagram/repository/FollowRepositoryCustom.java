@@ -0,0 +1,16 @@
+package com.c11.umastagram.repository;
+
+import com.c11.umastagram.model.Follow;
+
+import java.util.List;
+
+public interface FollowRepositoryCustom {
+
+    /**
+     * Inserts follows that do not exist yet, without a prior SELECT. Rows are sent as
+     * multi-row inserts of up to INSERT_CHUNK_SIZE follows each.
+     * @param follows the follows to insert
+     * @return int number of follows inserted; existing ones are skipped
+     */
+    int insertAllIfAbsent(List<Follow> follows);
+}
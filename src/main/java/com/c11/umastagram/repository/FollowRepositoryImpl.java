@@ -0,0 +1,41 @@
+package com.c11.umastagram.repository;
+
+import com.c11.umastagram.model.Follow;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public class FollowRepositoryImpl implements FollowRepositoryCustom {
+    static final int INSERT_CHUNK_SIZE = 100;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // HQL "on conflict do nothing" is rendered per dialect (ON CONFLICT on Postgres, MERGE on H2)
+    @Override
+    @Transactional
+    public int insertAllIfAbsent(List<Follow> follows) {
+        int inserted = 0;
+        for (int from = 0; from < follows.size(); from += INSERT_CHUNK_SIZE) {
+            List<Follow> chunk = follows.subList(from, Math.min(from + INSERT_CHUNK_SIZE, follows.size()));
+            StringBuilder hql = new StringBuilder("INSERT INTO Follow (userId, friendId, requestTime) VALUES ");
+            for (int i = 0; i < chunk.size(); i++) {
+                hql.append(i == 0 ? "" : ", ").append("(:u").append(i).append(", :f").append(i).append(", :t").append(i).append(")");
+            }
+            hql.append(" ON CONFLICT DO NOTHING");
+
+            Query query = entityManager.createQuery(hql.toString());
+            for (int i = 0; i < chunk.size(); i++) {
+                Follow follow = chunk.get(i);
+                query.setParameter("u" + i, follow.getUserId());
+                query.setParameter("f" + i, follow.getFriendId());
+                query.setParameter("t" + i, follow.getRequestTime());
+            }
+            inserted += query.executeUpdate();
+        }
+        return inserted;
+    }
+}
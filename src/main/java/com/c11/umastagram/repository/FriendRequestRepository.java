@@ -2,11 +2,15 @@ package com.c11.umastagram.repository;
 
 import com.c11.umastagram.model.Follow;
 import com.c11.umastagram.model.FriendRequest;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface FriendRequestRepository extends JpaRepository<FriendRequest, Long> {
@@ -32,6 +36,82 @@ public interface FriendRequestRepository extends JpaRepository<FriendRequest, Lo
     @Query("DELETE FROM FriendRequest fr WHERE fr.userRequestId = :userRequestId AND fr.userTargetId = :userTargetId")
     int deleteFriendRequest(Long userRequestId, Long userTargetId);
 
+    /**
+     * Deletes the friend requests between two users, in either direction.
+     * JPQL: DELETE FROM FriendRequest fr WHERE (fr.userRequestId = :userId AND fr.userTargetId = :otherId) OR (fr.userRequestId = :otherId AND fr.userTargetId = :userId)
+     * @param userId one of the users
+     * @param otherId the other user
+     * @return int number of rows affected
+     */
+    @Modifying
+    @Query("DELETE FROM FriendRequest fr WHERE (fr.userRequestId = :userId AND fr.userTargetId = :otherId) " +
+           "OR (fr.userRequestId = :otherId AND fr.userTargetId = :userId)")
+    int deleteFriendRequestsBetween(Long userId, Long otherId);
+
+    /**
+     * Retrieves which of the given users have sent userId a friend request.
+     * JPQL: SELECT fr.userRequestId FROM FriendRequest fr WHERE fr.userTargetId = :userId AND fr.userRequestId IN :requesterIds
+     * @param userId the ID of the user who received the requests
+     * @param requesterIds the candidate senders
+     * @return List<Long> subset of requesterIds with a pending request
+     */
+    @Query("SELECT fr.userRequestId FROM FriendRequest fr WHERE fr.userTargetId = :userId AND fr.userRequestId IN :requesterIds")
+    java.util.List<Long> findRequesterIdsAmong(Long userId, java.util.Collection<Long> requesterIds);
+
+    /**
+     * Retrieves the ids of every user who has sent userId a friend request.
+     * JPQL: SELECT fr.userRequestId FROM FriendRequest fr WHERE fr.userTargetId = :userId
+     * @param userId the ID of the user who received the requests
+     * @return List<Long> of requester ids
+     */
+    @Query("SELECT fr.userRequestId FROM FriendRequest fr WHERE fr.userTargetId = :userId")
+    java.util.List<Long> findRequesterIdsByUserId(Long userId);
+
+    /**
+     * Deletes the friend requests the given users sent to userId.
+     * JPQL: DELETE FROM FriendRequest fr WHERE fr.userTargetId = :userId AND fr.userRequestId IN :requesterIds
+     * @param userId the ID of the user who received the requests
+     * @param requesterIds the senders whose requests are deleted
+     * @return int number of rows affected
+     */
+    @Modifying
+    @Query("DELETE FROM FriendRequest fr WHERE fr.userTargetId = :userId AND fr.userRequestId IN :requesterIds")
+    int deleteFriendRequestsTo(Long userId, java.util.Collection<Long> requesterIds);
+
+    /**
+     * Retrieves the pending friend requests between userId and any of the given users, in either direction.
+     * JPQL: SELECT fr.userRequestId, fr.userTargetId FROM FriendRequest fr WHERE (fr.userRequestId = :userId AND fr.userTargetId IN :otherIds) OR (fr.userTargetId = :userId AND fr.userRequestId IN :otherIds)
+     * @param userId the user on one side of every request
+     * @param otherIds the users on the other side
+     * @return List<Object[]> of {userRequestId, userTargetId}
+     */
+    @Query("SELECT fr.userRequestId, fr.userTargetId FROM FriendRequest fr " +
+           "WHERE (fr.userRequestId = :userId AND fr.userTargetId IN :otherIds) OR (fr.userTargetId = :userId AND fr.userRequestId IN :otherIds)")
+    java.util.List<Object[]> findFriendRequestsBetween(Long userId, java.util.Collection<Long> otherIds);
+
     @Query("SELECT f FROM FriendRequest f WHERE f.userTargetId = :userId")
     java.util.List<FriendRequest> findAllFriendRequestsByUserId(Long userId);
+
+    /**
+     * Retrieves the usernames of the users who sent friend requests to userId in one query.
+     * Requests whose sender no longer exists are skipped by the join.
+     * JPQL: SELECT u.username FROM FriendRequest fr JOIN User u ON u.userId = fr.userRequestId WHERE fr.userTargetId = :userId
+     * @param userId the ID of the user who received the requests
+     * @return List<String> of requester usernames
+     */
+    @Query("SELECT u.username FROM FriendRequest fr JOIN User u ON u.userId = fr.userRequestId WHERE fr.userTargetId = :userId")
+    java.util.List<String> findRequesterUsernamesByUserId(Long userId);
+
+    /**
+     * Streams every friend request as an id pair, without creating FriendRequest entities.
+     * The stream must be consumed and closed inside a transaction.
+     * JPQL: SELECT fr.userRequestId, fr.userTargetId FROM FriendRequest fr
+     * @return Stream<Object[]> of {userRequestId, userTargetId}
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT fr.userRequestId, fr.userTargetId FROM FriendRequest fr")
+    Stream<Object[]> streamAllPairs();
 }
@@ -0,0 +1,37 @@
+package com.c11.umastagram.repository;
+
+import com.c11.umastagram.model.PostLike;
+import com.c11.umastagram.model.PostLikeId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface PostLikeRepository extends JpaRepository<PostLike, PostLikeId>, PostLikeRepositoryCustom {
+
+    /**
+     * Deletes a PostLike by userId and postId.
+     * JPQL: DELETE FROM PostLike l WHERE l.userId = :userId AND l.postId = :postId
+     * @param userId the ID of the user who liked the post
+     * @param postId the ID of the liked post
+     * @return int number of rows affected (0 if the user had not liked the post)
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PostLike l WHERE l.userId = :userId AND l.postId = :postId")
+    int deleteLike(@Param("userId") Long userId, @Param("postId") Long postId);
+
+    /**
+     * Deletes every like on a post.
+     * JPQL: DELETE FROM PostLike l WHERE l.postId = :postId
+     * @param postId the ID of the post
+     * @return int number of rows affected
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PostLike l WHERE l.postId = :postId")
+    int deleteAllByPostId(@Param("postId") Long postId);
+}
@@ -0,0 +1,15 @@
+package com.c11.umastagram.repository;
+
+import java.time.LocalDateTime;
+
+public interface PostLikeRepositoryCustom {
+
+    /**
+     * Inserts a like unless the user already likes the post, without a prior SELECT.
+     * @param userId the ID of the user liking the post
+     * @param postId the ID of the post
+     * @param likedAt when the like happened
+     * @return int 1 if the like was recorded, 0 if it already existed
+     */
+    int insertIfAbsent(Long userId, Long postId, LocalDateTime likedAt);
+}
@@ -0,0 +1,26 @@
+package com.c11.umastagram.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public class PostLikeRepositoryImpl implements PostLikeRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // HQL "on conflict do nothing" is rendered per dialect (ON CONFLICT on Postgres, MERGE on H2)
+    @Override
+    @Transactional
+    public int insertIfAbsent(Long userId, Long postId, LocalDateTime likedAt) {
+        return entityManager.createQuery(
+                "INSERT INTO PostLike (userId, postId, likedAt) VALUES (:userId, :postId, :likedAt) " +
+                "ON CONFLICT DO NOTHING")
+            .setParameter("userId", userId)
+            .setParameter("postId", postId)
+            .setParameter("likedAt", likedAt)
+            .executeUpdate();
+    }
+}
@@ -6,10 +6,21 @@ Summary: DAO for Posts entity
 
 package com.c11.umastagram.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import com.c11.umastagram.model.Posts;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Retrieves all Posts by the specified user.
@@ -26,4 +37,150 @@ import java.util.List;
 @Repository
 public interface PostsRepository extends JpaRepository<Posts, Long> {
     List<Posts> findByUserId(Long userId);
+
+    /**
+     * Streams every post in id order without materialising the whole table.
+     * The fetch size hint makes the JDBC driver use a server-side cursor; the stream
+     * must be consumed and closed inside a transaction.
+     * JPQL: SELECT p FROM Posts p ORDER BY p.id
+     * @return Stream<Posts> over all posts
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Posts p ORDER BY p.id")
+    Stream<Posts> streamAllPosts();
+
+    /**
+     * Retrieves the newest posts from the users that userId follows.
+     * JPQL: SELECT p FROM Posts p JOIN Follow f ON f.friendId = p.userId WHERE f.userId = :userId
+     *       ORDER BY p.datePosted DESC, p.id DESC
+     * @param userId the ID of the user whose feed is being read
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<Posts> of at most pageable.getPageSize() posts
+     */
+    @Query("SELECT p FROM Posts p JOIN Follow f ON f.friendId = p.userId " +
+           "WHERE f.userId = :userId " +
+           "ORDER BY p.datePosted DESC, p.id DESC")
+    List<Posts> findFeedFirstPage(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Retrieves the posts from the users that userId follows which come strictly after the
+     * (datePosted, id) cursor in feed order.
+     * JPQL: SELECT p FROM Posts p JOIN Follow f ON f.friendId = p.userId WHERE f.userId = :userId
+     *       AND (p.datePosted < :datePosted OR (p.datePosted = :datePosted AND p.id < :id))
+     *       ORDER BY p.datePosted DESC, p.id DESC
+     * @param userId the ID of the user whose feed is being read
+     * @param datePosted datePosted of the last post on the previous page
+     * @param id id of the last post on the previous page
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<Posts> of at most pageable.getPageSize() posts
+     */
+    @Query("SELECT p FROM Posts p JOIN Follow f ON f.friendId = p.userId " +
+           "WHERE f.userId = :userId " +
+           "AND (p.datePosted < :datePosted OR (p.datePosted = :datePosted AND p.id < :id)) " +
+           "ORDER BY p.datePosted DESC, p.id DESC")
+    List<Posts> findFeedPageBefore(@Param("userId") Long userId,
+                                   @Param("datePosted") LocalDateTime datePosted,
+                                   @Param("id") Long id,
+                                   Pageable pageable);
+
+    /**
+     * Retrieves the newest posts written by any of the given authors.
+     * JPQL: SELECT p FROM Posts p WHERE p.userId IN :authorIds ORDER BY p.datePosted DESC, p.id DESC
+     * @param authorIds the IDs of the authors
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<Posts> of at most pageable.getPageSize() posts
+     */
+    @Query("SELECT p FROM Posts p WHERE p.userId IN :authorIds ORDER BY p.datePosted DESC, p.id DESC")
+    List<Posts> findAuthorsFirstPage(@Param("authorIds") Collection<Long> authorIds, Pageable pageable);
+
+    /**
+     * Retrieves the posts written by any of the given authors which come strictly after the
+     * (datePosted, id) cursor in feed order.
+     * JPQL: SELECT p FROM Posts p WHERE p.userId IN :authorIds
+     *       AND (p.datePosted < :datePosted OR (p.datePosted = :datePosted AND p.id < :id))
+     *       ORDER BY p.datePosted DESC, p.id DESC
+     * @param authorIds the IDs of the authors
+     * @param datePosted datePosted of the last post on the previous page
+     * @param id id of the last post on the previous page
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<Posts> of at most pageable.getPageSize() posts
+     */
+    @Query("SELECT p FROM Posts p WHERE p.userId IN :authorIds " +
+           "AND (p.datePosted < :datePosted OR (p.datePosted = :datePosted AND p.id < :id)) " +
+           "ORDER BY p.datePosted DESC, p.id DESC")
+    List<Posts> findAuthorsPageBefore(@Param("authorIds") Collection<Long> authorIds,
+                                      @Param("datePosted") LocalDateTime datePosted,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
+    /**
+     * Adds delta to a post's denormalized comment count in place, so concurrent
+     * comments never overwrite each other's increments. The count never goes below 0.
+     * JPQL: UPDATE Posts p SET p.commentCount = CASE WHEN p.commentCount + :delta < 0 THEN 0 ELSE p.commentCount + :delta END WHERE p.id = :id
+     * @param id the ID of the post
+     * @param delta the amount to add (negative to subtract)
+     * @return int number of rows affected (0 if the post does not exist)
+     */
+    @Modifying
+    @Query("UPDATE Posts p SET p.commentCount = CASE WHEN p.commentCount + :delta < 0 THEN 0 " +
+           "ELSE p.commentCount + :delta END WHERE p.id = :id")
+    int adjustCommentCount(@Param("id") Long id, @Param("delta") int delta);
+
+    /**
+     * Retrieves posts' stored comment counts next to their actual number of comments, in id order.
+     * JPQL: SELECT p.id, p.commentCount, (SELECT COUNT(c) FROM Comment c WHERE c.postId = p.id) FROM Posts p WHERE p.id > :afterId ORDER BY p.id
+     * @param afterId only posts with a greater id are returned
+     * @param pageable how many posts to return
+     * @return List<Object[]> of {post id, stored count, number of comments}
+     */
+    @Query("SELECT p.id, p.commentCount, (SELECT COUNT(c) FROM Comment c WHERE c.postId = p.id) " +
+           "FROM Posts p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findCommentCountsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Sets a post's comment count, unless it has changed since it was read.
+     * JPQL: UPDATE Posts p SET p.commentCount = :count WHERE p.id = :id AND p.commentCount = :expected
+     * @param id the ID of the post
+     * @param expected the count read before the comments were counted
+     * @param count the number of comments
+     * @return int number of rows affected (0 if the count changed meanwhile)
+     */
+    @Modifying
+    @Query("UPDATE Posts p SET p.commentCount = :count WHERE p.id = :id AND p.commentCount = :expected")
+    int repairCommentCount(@Param("id") Long id, @Param("expected") int expected, @Param("count") int count);
+
+    /**
+     * PostgreSQL full-text search, used when app.search.backend=postgres.
+     * Matches the idx_posts_text_fts GIN expression index created by PostSearchService.
+     * SQL: SELECT * FROM posts WHERE to_tsvector('simple', text) @@ plainto_tsquery('simple', :query)
+     *      ORDER BY id DESC LIMIT :limit
+     * @param query the search terms (all must match)
+     * @param limit the maximum number of posts to return
+     * @return List<Posts> newest first
+     */
+    @Query(value = "SELECT * FROM posts WHERE to_tsvector('simple', text) @@ plainto_tsquery('simple', :query) " +
+                   "ORDER BY id DESC LIMIT :limit", nativeQuery = true)
+    List<Posts> searchFullText(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Retrieves the most liked posts written since the given time.
+     * JPQL: SELECT p FROM Posts p WHERE p.datePosted >= :since ORDER BY p.likes DESC, p.id DESC
+     * @param since the earliest datePosted to include
+     * @param pageable page size (only the first page is ever requested)
+     * @return List<Posts> of at most pageable.getPageSize() posts
+     */
+    @Query("SELECT p FROM Posts p WHERE p.datePosted >= :since ORDER BY p.likes DESC, p.id DESC")
+    List<Posts> findMostLikedSince(@Param("since") LocalDateTime since, Pageable pageable);
+
+    /**
+     * Retrieves the author of a post without loading the post.
+     * JPQL: SELECT p.userId FROM Posts p WHERE p.id = :id
+     * @param id the ID of the post
+     * @return Optional<Long> the author's id, or empty if the post does not exist
+     */
+    @Query("SELECT p.userId FROM Posts p WHERE p.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
 }
@@ -0,0 +1,50 @@
+package com.c11.umastagram.repository;
+
+import com.c11.umastagram.model.Timeline;
+import com.c11.umastagram.model.TimelineId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TimelineRepository extends JpaRepository<Timeline, TimelineId> {
+
+    /**
+     * Retrieves the newest entries of a user's timeline.
+     * JPQL: SELECT t FROM Timeline t WHERE t.userId = :userId ORDER BY t.datePosted DESC, t.postId DESC
+     * @param userId the ID of the timeline owner
+     * @param pageable how many entries to return
+     * @return List<Timeline> of entries, newest first
+     */
+    @Query("SELECT t FROM Timeline t WHERE t.userId = :userId ORDER BY t.datePosted DESC, t.postId DESC")
+    List<Timeline> findRecentEntries(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * Deletes every entry of a user's timeline.
+     * JPQL: DELETE FROM Timeline t WHERE t.userId = :userId
+     * @param userId the ID of the timeline owner
+     * @return int number of rows affected
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Timeline t WHERE t.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Deletes timeline entries for posts older than the cutoff.
+     * JPQL: DELETE FROM Timeline t WHERE t.datePosted < :cutoff
+     * @param cutoff entries for posts made before this time are removed
+     * @return int number of rows affected
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Timeline t WHERE t.datePosted < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
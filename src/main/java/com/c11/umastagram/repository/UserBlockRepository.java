@@ -0,0 +1,52 @@
+package com.c11.umastagram.repository;
+
+import com.c11.umastagram.model.UserBlock;
+import com.c11.umastagram.model.UserBlockId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+@Repository
+public interface UserBlockRepository extends JpaRepository<UserBlock, UserBlockId>, UserBlockRepositoryCustom {
+
+    /**
+     * Deletes the block blockerId placed on blockedId.
+     * JPQL: DELETE FROM UserBlock b WHERE b.blockerId = :blockerId AND b.blockedId = :blockedId
+     * @param blockerId the ID of the blocking user
+     * @param blockedId the ID of the blocked user
+     * @return int number of rows affected
+     */
+    @Modifying
+    @Query("DELETE FROM UserBlock b WHERE b.blockerId = :blockerId AND b.blockedId = :blockedId")
+    int deleteBlock(Long blockerId, Long blockedId);
+
+    /**
+     * Checks whether either user has blocked the other.
+     * JPQL: SELECT COUNT(b) > 0 FROM UserBlock b WHERE (b.blockerId = :userId AND b.blockedId = :otherId) OR (b.blockerId = :otherId AND b.blockedId = :userId)
+     * @param userId one of the users
+     * @param otherId the other user
+     * @return boolean true if there is a block in either direction
+     */
+    @Query("SELECT COUNT(b) > 0 FROM UserBlock b WHERE (b.blockerId = :userId AND b.blockedId = :otherId) " +
+           "OR (b.blockerId = :otherId AND b.blockedId = :userId)")
+    boolean existsBlockBetween(Long userId, Long otherId);
+
+    /**
+     * Streams every block as an id pair, without creating UserBlock entities.
+     * The stream must be consumed and closed inside a transaction.
+     * JPQL: SELECT b.blockerId, b.blockedId FROM UserBlock b
+     * @return Stream<Object[]> of {blockerId, blockedId}
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b.blockerId, b.blockedId FROM UserBlock b")
+    Stream<Object[]> streamAllPairs();
+}
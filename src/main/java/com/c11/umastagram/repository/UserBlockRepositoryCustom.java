@@ -0,0 +1,12 @@
+package com.c11.umastagram.repository;
+
+public interface UserBlockRepositoryCustom {
+
+    /**
+     * Records that blockerId blocked blockedId unless that block already exists, without a prior SELECT.
+     * @param blockerId the ID of the blocking user
+     * @param blockedId the ID of the blocked user
+     * @return int 1 if the block was inserted, 0 if it already existed
+     */
+    int insertIfAbsent(Long blockerId, Long blockedId);
+}
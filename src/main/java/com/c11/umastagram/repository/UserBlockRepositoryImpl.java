@@ -0,0 +1,23 @@
+package com.c11.umastagram.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.time.LocalDateTime;
+
+public class UserBlockRepositoryImpl implements UserBlockRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int insertIfAbsent(Long blockerId, Long blockedId) {
+        return entityManager.createQuery(
+                "INSERT INTO UserBlock (blockerId, blockedId, createdAt) " +
+                "VALUES (:blockerId, :blockedId, :createdAt) ON CONFLICT DO NOTHING")
+            .setParameter("blockerId", blockerId)
+            .setParameter("blockedId", blockedId)
+            .setParameter("createdAt", LocalDateTime.now())
+            .executeUpdate();
+    }
+}
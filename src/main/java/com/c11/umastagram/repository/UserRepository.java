@@ -7,16 +7,25 @@
  */
 package com.c11.umastagram.repository;
 
+import com.c11.umastagram.dto.UserConflicts;
+import com.c11.umastagram.dto.UserProfile;
+import com.c11.umastagram.dto.UserSummary;
 import com.c11.umastagram.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -227,4 +236,88 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByProviderAndProviderId(@Param("provider") String provider, @Param("providerId") String providerId);
 
     List<User> findUserByUsernameContaining(String username);
+
+    /**
+     * Retrieves the id and username of users whose username contains the query, ignoring case.
+     * JPQL: SELECT new com.c11.umastagram.dto.UserSummary(u.userId, u.username) FROM User u
+     *       WHERE LOWER(u.username) LIKE CONCAT('%', LOWER(:query), '%') ORDER BY u.username
+     * @param query the text to look for
+     * @param pageable the maximum number of users to return
+     * @return List<UserSummary> ordered by username
+     */
+    @Query("SELECT new com.c11.umastagram.dto.UserSummary(u.userId, u.username) FROM User u "
+            + "WHERE LOWER(u.username) LIKE CONCAT('%', LOWER(:query), '%') ORDER BY u.username")
+    List<UserSummary> findSummariesByUsernameContaining(String query, Pageable pageable);
+
+    /**
+     * Streams the id and username of every user, for building the in-memory username index.
+     * JPQL: SELECT u.userId, u.username FROM User u
+     * @return Stream<Object[]> of {userId, username}
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.userId, u.username FROM User u")
+    Stream<Object[]> streamAllUsernames();
+
+    /**
+     * Checks every unique field of a new user in one round trip. Null arguments match nothing.
+     * JPQL: SELECT new com.c11.umastagram.dto.UserConflicts(MAX(CASE WHEN u.userId = :userId THEN 1 ELSE 0 END), ...)
+     *       FROM User u WHERE u.userId = :userId OR u.email = :email OR ... OR u.googleId = :googleId
+     *
+     * @return UserConflicts flagging each field that some user already has
+     */
+    @Query("SELECT new com.c11.umastagram.dto.UserConflicts("
+            + "MAX(CASE WHEN u.userId = :userId THEN 1 ELSE 0 END), "
+            + "MAX(CASE WHEN u.email = :email THEN 1 ELSE 0 END), "
+            + "MAX(CASE WHEN u.username = :username THEN 1 ELSE 0 END), "
+            + "MAX(CASE WHEN u.githubId = :githubId THEN 1 ELSE 0 END), "
+            + "MAX(CASE WHEN u.githubUsername = :githubUsername THEN 1 ELSE 0 END), "
+            + "MAX(CASE WHEN u.googleId = :googleId THEN 1 ELSE 0 END)) "
+            + "FROM User u WHERE u.userId = :userId OR u.email = :email OR u.username = :username "
+            + "OR u.githubId = :githubId OR u.githubUsername = :githubUsername "
+            + "OR u.googleId = :googleId")
+    UserConflicts findConflicts(Long userId, String email, String username, String githubId,
+                                String githubUsername, String googleId);
+
+    /**
+     * Retrieves the id and username of each of the given users.
+     * JPQL: SELECT new com.c11.umastagram.dto.UserSummary(u.userId, u.username) FROM User u WHERE u.userId IN :userIds
+     *
+     * @param userIds the IDs of the users; callers should keep this list to a few hundred entries
+     * @return List<UserSummary> for the ids that exist, in no particular order
+     */
+    @Query("SELECT new com.c11.umastagram.dto.UserSummary(u.userId, u.username) FROM User u WHERE u.userId IN :userIds")
+    List<UserSummary> findSummariesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Retrieves the profile fields of each of the given users.
+     * JPQL: SELECT new com.c11.umastagram.dto.UserProfile(u.userId, u.username, u.githubUsername, u.email) FROM User u WHERE u.userId IN :userIds
+     *
+     * @param userIds the IDs of the users; callers should keep this list to a few hundred entries
+     * @return List<UserProfile> for the ids that exist, in no particular order
+     */
+    @Query("SELECT new com.c11.umastagram.dto.UserProfile(u.userId, u.username, u.githubUsername, u.email) FROM User u WHERE u.userId IN :userIds")
+    List<UserProfile> findProfilesByUserIds(Collection<Long> userIds);
+
+    /**
+     * Retrieves the profile fields of each of the given users.
+     * JPQL: SELECT new com.c11.umastagram.dto.UserProfile(u.userId, u.username, u.githubUsername, u.email) FROM User u WHERE u.username IN :usernames
+     *
+     * @param usernames the usernames of the users; callers should keep this list to a few hundred entries
+     * @return List<UserProfile> for the usernames that exist, in no particular order
+     */
+    @Query("SELECT new com.c11.umastagram.dto.UserProfile(u.userId, u.username, u.githubUsername, u.email) FROM User u WHERE u.username IN :usernames")
+    List<UserProfile> findProfilesByUsernames(Collection<String> usernames);
+
+    /**
+     * Retrieves user ids in ascending order, one page after the given id.
+     * JPQL: SELECT u.userId FROM User u WHERE u.userId > :afterId ORDER BY u.userId
+     * @param afterId the last id of the previous page, or 0 for the first page
+     * @param pageable the page size
+     * @return List<Long> of user ids
+     */
+    @Query("SELECT u.userId FROM User u WHERE u.userId > :afterId ORDER BY u.userId")
+    List<Long> findUserIdsAfter(Long afterId, Pageable pageable);
 }
@@ -0,0 +1,69 @@
+package com.c11.umastagram.repository;
+
+import com.c11.umastagram.model.UserStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long>, UserStatsRepositoryCustom {
+
+    /**
+     * Adds the given deltas to a user's counters. Runs in the caller's transaction.
+     * JPQL: UPDATE UserStats s SET s.followerCount = s.followerCount + :followers, ... WHERE s.userId = :userId
+     * @param userId the ID of the user
+     * @param followers change in follower count
+     * @param following change in following count
+     * @param posts change in post count
+     * @return int 1 if the user has a stats row, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE UserStats s SET s.followerCount = s.followerCount + :followers, " +
+           "s.followingCount = s.followingCount + :following, s.postCount = s.postCount + :posts " +
+           "WHERE s.userId = :userId")
+    int adjust(Long userId, long followers, long following, long posts);
+
+    /**
+     * Retrieves and locks the stats rows of the given users, so concurrent adjustments wait
+     * until a recount has committed.
+     * JPQL: SELECT s FROM UserStats s WHERE s.userId IN :userIds
+     * @param userIds
+     * @return List<UserStats> of the rows that exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserStats s WHERE s.userId IN :userIds")
+    List<UserStats> findAllForUpdate(Collection<Long> userIds);
+
+    /**
+     * Counts the followers of each of the given users.
+     * JPQL: SELECT f.friendId, COUNT(f) FROM Follow f WHERE f.friendId IN :userIds GROUP BY f.friendId
+     * @param userIds
+     * @return List<Object[]> of {userId, count}; users without followers are absent
+     */
+    @Query("SELECT f.friendId, COUNT(f) FROM Follow f WHERE f.friendId IN :userIds GROUP BY f.friendId")
+    List<Object[]> countFollowersByUserIds(Collection<Long> userIds);
+
+    /**
+     * Counts the users each of the given users follows.
+     * JPQL: SELECT f.userId, COUNT(f) FROM Follow f WHERE f.userId IN :userIds GROUP BY f.userId
+     * @param userIds
+     * @return List<Object[]> of {userId, count}; users following nobody are absent
+     */
+    @Query("SELECT f.userId, COUNT(f) FROM Follow f WHERE f.userId IN :userIds GROUP BY f.userId")
+    List<Object[]> countFollowingByUserIds(Collection<Long> userIds);
+
+    /**
+     * Counts the posts of each of the given users.
+     * JPQL: SELECT p.userId, COUNT(p) FROM Posts p WHERE p.userId IN :userIds GROUP BY p.userId
+     * @param userIds
+     * @return List<Object[]> of {userId, count}; users without posts are absent
+     */
+    @Query("SELECT p.userId, COUNT(p) FROM Posts p WHERE p.userId IN :userIds GROUP BY p.userId")
+    List<Object[]> countPostsByUserIds(Collection<Long> userIds);
+}
@@ -0,0 +1,13 @@
+package com.c11.umastagram.repository;
+
+import com.c11.umastagram.model.UserStats;
+
+public interface UserStatsRepositoryCustom {
+
+    /**
+     * Inserts a stats row unless one already exists for the user, without a prior SELECT.
+     * @param stats the row to insert
+     * @return int 1 if the row was inserted, 0 if the user already had one
+     */
+    int insertIfAbsent(UserStats stats);
+}
@@ -0,0 +1,24 @@
+package com.c11.umastagram.repository;
+
+import com.c11.umastagram.model.UserStats;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+public class UserStatsRepositoryImpl implements UserStatsRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // joins the caller's transaction, so the row and the counted changes commit together
+    @Override
+    public int insertIfAbsent(UserStats stats) {
+        return entityManager.createQuery(
+                "INSERT INTO UserStats (userId, followerCount, followingCount, postCount) " +
+                "VALUES (:userId, :followerCount, :followingCount, :postCount) ON CONFLICT DO NOTHING")
+            .setParameter("userId", stats.getUserId())
+            .setParameter("followerCount", stats.getFollowerCount())
+            .setParameter("followingCount", stats.getFollowingCount())
+            .setParameter("postCount", stats.getPostCount())
+            .executeUpdate();
+    }
+}
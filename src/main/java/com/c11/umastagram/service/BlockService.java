@@ -0,0 +1,212 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.repository.FriendRequestRepository;
+import com.c11.umastagram.repository.UserBlockRepository;
+import com.c11.umastagram.util.LongHashSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * User blocks. The user_block table is the record; every block is also held in memory as
+ * one LongHashSet of blocked ids per blocking user, so isBlocked() is two hash probes and
+ * lists (search results, followers, friend requests, posts) are filtered in the service
+ * instead of each query carrying an anti-join.
+ *
+ * Sets are never modified once published: a change replaces the user's set with a modified
+ * copy, so readers never lock, and the change is visible on this node as soon as block() or
+ * unblock() returns. Until the sets are loaded at startup isBlocked() asks the database.
+ */
+@Service
+public class BlockService {
+    private static final Logger logger = LoggerFactory.getLogger(BlockService.class);
+
+    @Autowired
+    private UserBlockRepository userBlockRepository;
+
+    @Autowired
+    private FriendRequestRepository friendRequestRepository;
+
+    @Autowired
+    private DuplicateEdgeFilter duplicateEdgeFilter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // blockerId -> ids of the users they blocked; null until loaded
+    private volatile Map<Long, LongHashSet> blocked;
+
+    private final Object writeLock = new Object();
+
+    // changes made while the sets are loading, replayed onto them; guarded by writeLock
+    private List<BlockChange> pendingChanges;
+
+    private record BlockChange(long blockerId, long blockedId, boolean removed) {}
+
+    /**
+     * Blocks targetId for userId: records the block and deletes any pending friend request
+     * between the two users. FollowService.blockUser() also removes their follows.
+     * @return false if userId had already blocked targetId
+     * @throws IllegalArgumentException if an id is missing or the users are the same
+     */
+    public boolean block(Long userId, Long targetId) {
+        validate(userId, targetId);
+        // null if the block already existed, else which of the two requests were deleted
+        boolean[] removed = new TransactionTemplate(transactionManager).execute(status -> {
+            if (userBlockRepository.insertIfAbsent(userId, targetId) == 0) {
+                return null;
+            }
+            return new boolean[]{
+                friendRequestRepository.deleteFriendRequest(userId, targetId) > 0,
+                friendRequestRepository.deleteFriendRequest(targetId, userId) > 0
+            };
+        });
+        if (removed == null) {
+            return false;
+        }
+        if (removed[0]) {
+            duplicateEdgeFilter.friendRequestRemoved(userId, targetId);
+        }
+        if (removed[1]) {
+            duplicateEdgeFilter.friendRequestRemoved(targetId, userId);
+        }
+        apply(new BlockChange(userId, targetId, false));
+        logger.info("User {} blocked user {}", userId, targetId);
+        return true;
+    }
+
+    /**
+     * Removes userId's block on targetId. Follows and requests removed by the block stay removed.
+     * @throws IllegalArgumentException if an id is missing or the users are the same
+     */
+    public void unblock(Long userId, Long targetId) {
+        validate(userId, targetId);
+        Integer deleted = new TransactionTemplate(transactionManager).execute(
+                status -> userBlockRepository.deleteBlock(userId, targetId));
+        if (deleted != null && deleted > 0) {
+            apply(new BlockChange(userId, targetId, true));
+            logger.info("User {} unblocked user {}", userId, targetId);
+        }
+    }
+
+    /**
+     * @return true if either user has blocked the other; false if either id is null
+     */
+    public boolean isBlocked(Long userId, Long otherId) {
+        if (userId == null || otherId == null) {
+            return false;
+        }
+        Map<Long, LongHashSet> sets = blocked;
+        if (sets == null) {
+            return userBlockRepository.existsBlockBetween(userId, otherId);
+        }
+        return contains(sets, userId, otherId) || contains(sets, otherId, userId);
+    }
+
+    /**
+     * @return the ids of the users userId has blocked, ascending
+     */
+    public long[] getBlockedIds(Long userId) {
+        Map<Long, LongHashSet> sets = blocked;
+        LongHashSet set = sets == null || userId == null ? null : sets.get(userId);
+        return set == null ? new long[0] : set.toArray();
+    }
+
+    public boolean isReady() {
+        return blocked != null;
+    }
+
+    /**
+     * Loads every block from the user_block table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        synchronized (writeLock) {
+            pendingChanges = new ArrayList<>();
+        }
+        long start = System.currentTimeMillis();
+        Map<Long, LongHashSet> fresh;
+        try {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            fresh = tx.execute(status -> {
+                Map<Long, LongHashSet> sets = new HashMap<>();
+                try (Stream<Object[]> rows = userBlockRepository.streamAllPairs()) {
+                    rows.forEach(row -> sets.computeIfAbsent(((Number) row[0]).longValue(), k -> new LongHashSet())
+                            .add(((Number) row[1]).longValue()));
+                }
+                return sets;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Loading blocks failed, block checks will query the database: {}", e.getMessage());
+            synchronized (writeLock) {
+                pendingChanges = null;
+            }
+            return;
+        }
+
+        synchronized (writeLock) {
+            Map<Long, LongHashSet> sets = new ConcurrentHashMap<>(fresh);
+            // add and remove are idempotent, so replaying changes the load already saw is harmless
+            for (BlockChange change : pendingChanges) {
+                update(sets, change);
+            }
+            pendingChanges = null;
+            blocked = sets;
+        }
+        logger.info("Loaded blocks of {} users in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    private void apply(BlockChange change) {
+        synchronized (writeLock) {
+            Map<Long, LongHashSet> sets = blocked;
+            if (sets != null) {
+                update(sets, change);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
+    private static void update(Map<Long, LongHashSet> sets, BlockChange change) {
+        LongHashSet current = sets.get(change.blockerId());
+        LongHashSet next = current == null ? new LongHashSet() : current.copy();
+        if (change.removed()) {
+            next.remove(change.blockedId());
+        } else {
+            next.add(change.blockedId());
+        }
+        if (next.isEmpty()) {
+            sets.remove(change.blockerId());
+        } else {
+            sets.put(change.blockerId(), next);
+        }
+    }
+
+    private static boolean contains(Map<Long, LongHashSet> sets, long blockerId, long blockedId) {
+        LongHashSet set = sets.get(blockerId);
+        return set != null && set.contains(blockedId);
+    }
+
+    private static void validate(Long userId, Long targetId) {
+        if (userId == null || targetId == null) {
+            throw new IllegalArgumentException("userId and targetId are required");
+        }
+        if (userId.equals(targetId)) {
+            throw new IllegalArgumentException("Users cannot block themselves");
+        }
+    }
+}
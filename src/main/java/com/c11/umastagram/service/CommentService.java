@@ -0,0 +1,188 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.dto.CommentPageResponse;
+import com.c11.umastagram.model.Comment;
+import com.c11.umastagram.repository.CommentRepository;
+import com.c11.umastagram.repository.PostsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Comments on posts. Every insert/delete adjusts Posts.commentCount in the same
+ * transaction, so the count moves exactly when a comment row commits.
+ * reconcileCommentCounts() recounts every post in chunks, which also fills in the counts
+ * of posts commented on before the column existed (it starts at 0).
+ */
+@Service
+public class CommentService {
+    private static final Logger logger = LoggerFactory.getLogger(CommentService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_COMMENT_LENGTH = 500;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private PostsRepository postsRepository;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.comments.reconcile-chunk-size:500}")
+    private int reconcileChunkSize;
+
+    /**
+     * Adds a comment to a post and increments the post's comment count.
+     * @param postId the ID of the post
+     * @param userId the ID of the commenting user
+     * @param text the comment text (1 to MAX_COMMENT_LENGTH characters)
+     * @return the saved comment
+     * @throws IllegalArgumentException if an argument is missing or invalid, or the post does not exist
+     */
+    @Transactional
+    public Comment addComment(Long postId, Long userId, String text) {
+        if (postId == null || userId == null) {
+            throw new IllegalArgumentException("postId and userId are required");
+        }
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("text is required");
+        }
+        if (text.length() > MAX_COMMENT_LENGTH) {
+            throw new IllegalArgumentException("text must be at most " + MAX_COMMENT_LENGTH + " characters");
+        }
+        // the UPDATE doubles as the existence check and locks the post row until commit
+        if (postsRepository.adjustCommentCount(postId, 1) == 0) {
+            throw new IllegalArgumentException("Post not found");
+        }
+        Comment saved = commentRepository.save(new Comment(text, Math.toIntExact(userId), Math.toIntExact(postId)));
+        // counted once the comment commits, so a rolled-back comment never trends
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    trendingService.recordComment(postId);
+                }
+            });
+        } else {
+            trendingService.recordComment(postId);
+        }
+        return saved;
+    }
+
+    /**
+     * Deletes a comment and decrements its post's comment count.
+     * @param postId the ID of the post the comment belongs to
+     * @param commentId the ID of the comment
+     * @return true if the comment was deleted, false if it does not exist on that post
+     */
+    @Transactional
+    public boolean deleteComment(Long postId, int commentId) {
+        Comment comment = commentRepository.findById(commentId).orElse(null);
+        if (comment == null || comment.getPostId() != postId) {
+            return false;
+        }
+        commentRepository.delete(comment);
+        postsRepository.adjustCommentCount(postId, -1);
+        return true;
+    }
+
+    /**
+     * Returns one page of a post's comments, oldest first. Pages are addressed by the
+     * last commentId seen, so reading deep into a long thread stays an index range scan.
+     * @param postId the ID of the post
+     * @param after the nextCursor of the previous page, or null for the first page
+     * @param limit the requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @return the page of comments and the cursor for the next page (null if this is the last page)
+     */
+    public CommentPageResponse getComments(Long postId, Integer after, int limit) {
+        if (postId == null) {
+            throw new IllegalArgumentException("postId is required");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageRequest page = PageRequest.of(0, pageSize);
+        int post = Math.toIntExact(postId);
+        List<Comment> comments = after == null
+                ? commentRepository.findFirstPage(post, page)
+                : commentRepository.findPageAfter(post, after, page);
+
+        Integer nextCursor = null;
+        if (comments.size() == pageSize) {
+            nextCursor = comments.get(comments.size() - 1).getCommentId();
+        }
+        return new CommentPageResponse(comments, nextCursor);
+    }
+
+    /**
+     * Recounts every post's comments, reconcileChunkSize posts per transaction, and repairs
+     * the counts that differ. A count that changes between the read and the repair is left
+     * for the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.comments.reconcile-interval-ms:3600000}",
+               initialDelayString = "${app.comments.reconcile-initial-delay-ms:60000}")
+    public void reconcileCommentCounts() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int chunkSize = Math.max(1, reconcileChunkSize);
+        long afterId = 0;
+        int posts = 0;
+        int repaired = 0;
+        try {
+            while (true) {
+                List<Object[]> rows = postsRepository.findCommentCountsAfter(afterId, PageRequest.of(0, chunkSize));
+                if (rows.isEmpty()) {
+                    break;
+                }
+                Integer chunkRepaired = tx.execute(status -> repairCommentCounts(rows));
+                repaired += chunkRepaired == null ? 0 : chunkRepaired;
+                posts += rows.size();
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Comment count reconciliation stopped after {} posts: {}", posts, e.getMessage());
+            return;
+        }
+        if (repaired > 0) {
+            logger.warn("Comment count reconciliation repaired {} of {} posts in {} ms", repaired, posts, System.currentTimeMillis() - start);
+        } else {
+            logger.info("Comment count reconciliation checked {} posts in {} ms", posts, System.currentTimeMillis() - start);
+        }
+    }
+
+    private int repairCommentCounts(List<Object[]> rows) {
+        int repaired = 0;
+        for (Object[] row : rows) {
+            int stored = ((Number) row[1]).intValue();
+            int counted = ((Number) row[2]).intValue();
+            if (stored != counted) {
+                repaired += postsRepository.repairCommentCount((Long) row[0], stored, counted);
+            }
+        }
+        return repaired;
+    }
+
+    /**
+     * Removes all comments of a deleted post.
+     * @param postId the ID of the deleted post
+     */
+    @Transactional
+    public void onPostDeleted(Long postId) {
+        commentRepository.deleteAllByPostId(Math.toIntExact(postId));
+    }
+}
@@ -0,0 +1,294 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.repository.FollowRepository;
+import com.c11.umastagram.repository.FriendRequestRepository;
+import com.c11.umastagram.util.CountingBloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Counting Bloom filters over the existing follow and friend request pairs, so inserting a
+ * new pair can skip the SELECT that checks for a duplicate.
+ *
+ * A "might exist" answer still needs the SELECT; a "does not exist" answer is trusted, with
+ * the table's primary key as the backstop for the rare wrong one. Wrong answers come from a
+ * pair inserted by another instance or racing with us, and from removals: each instance only
+ * adds the pairs it saved itself, but removes every pair it deletes, so deleting a pair that
+ * another instance added can clear counters shared with a pair this filter does hold. The
+ * next insert of that pair skips the SELECT and is rejected by the primary key instead,
+ * which callers turn into the same duplicate error. Callers report when a SELECT found nothing after a
+ * "might exist", and the observed false-positive rate is published per filter as
+ * edge.filter.false.positive.rate.
+ *
+ * The filters are built at startup and rebuilt twice as large once they hold more pairs than
+ * they were sized for. Until a filter is built every pair "might exist".
+ */
+@Component
+public class DuplicateEdgeFilter {
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateEdgeFilter.class);
+
+    static final String METRIC_PREFIX = "edge.filter";
+
+    @Value("${app.edge-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.edge-filter.fpp:0.01}")
+    private double fpp;
+
+    @Value("${app.edge-filter.min-capacity:100000}")
+    private long minCapacity;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private FriendRequestRepository friendRequestRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final Edges follows = new Edges("follow");
+    private final Edges friendRequests = new Edges("friend_request");
+
+    /**
+     * @return false only if userId definitely does not follow friendId
+     */
+    public boolean followMightExist(long userId, long friendId) {
+        return follows.mightExist(userId, friendId);
+    }
+
+    /**
+     * Records that a duplicate check after followMightExist() found no row. Ignored until the
+     * filter is built, since before that every pair "might exist".
+     */
+    public void recordFollowFalsePositive() {
+        follows.recordFalsePositive();
+    }
+
+    /**
+     * Records that the follow row now exists. Call after it has been saved.
+     */
+    public void followAdded(long userId, long friendId) {
+        follows.add(userId, friendId);
+    }
+
+    /**
+     * Records that the follow row was deleted. Only call when a row was actually deleted.
+     */
+    public void followRemoved(long userId, long friendId) {
+        follows.remove(userId, friendId);
+    }
+
+    /**
+     * @return false only if there is definitely no request from userRequestId to userTargetId
+     */
+    public boolean friendRequestMightExist(long userRequestId, long userTargetId) {
+        return friendRequests.mightExist(userRequestId, userTargetId);
+    }
+
+    /**
+     * Records that a duplicate check after friendRequestMightExist() found no row. Ignored
+     * until the filter is built.
+     */
+    public void recordFriendRequestFalsePositive() {
+        friendRequests.recordFalsePositive();
+    }
+
+    /**
+     * Records that the friend request row now exists. Call after it has been saved.
+     */
+    public void friendRequestAdded(long userRequestId, long userTargetId) {
+        friendRequests.add(userRequestId, userTargetId);
+    }
+
+    /**
+     * Records that the friend request row was deleted. Only call when a row was actually deleted.
+     */
+    public void friendRequestRemoved(long userRequestId, long userTargetId) {
+        friendRequests.remove(userRequestId, userTargetId);
+    }
+
+    /**
+     * Builds both filters from their tables.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        registerMetrics();
+        build(follows, followRepository::count, () -> followRepository.streamEdgePartition(1, 0));
+        build(friendRequests, friendRequestRepository::count, friendRequestRepository::streamAllPairs);
+    }
+
+    /**
+     * Rebuilds a filter at twice the size once it holds more pairs than it was sized for,
+     * since past that its false-positive rate climbs quickly.
+     */
+    @Scheduled(fixedDelayString = "${app.edge-filter.check-interval-ms:60000}")
+    public void resizeIfFull() {
+        if (follows.isFull()) {
+            build(follows, followRepository::count, () -> followRepository.streamEdgePartition(1, 0));
+        }
+        if (friendRequests.isFull()) {
+            build(friendRequests, friendRequestRepository::count, friendRequestRepository::streamAllPairs);
+        }
+    }
+
+    private void build(Edges edges, Supplier<Long> count, Supplier<Stream<Object[]>> pairs) {
+        long start = System.currentTimeMillis();
+        synchronized (edges) {
+            edges.pendingAdds = new ArrayList<>();
+        }
+        CountingBloomFilter filter;
+        try {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            filter = tx.execute(status -> {
+                CountingBloomFilter fresh = CountingBloomFilter.create(Math.max(minCapacity, count.get() * 2), fpp);
+                try (Stream<Object[]> rows = pairs.get()) {
+                    rows.forEach(row -> fresh.add(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+                }
+                return fresh;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Building the {} filter failed, duplicate checks will query the database: {}", edges.name, e.getMessage());
+            synchronized (edges) {
+                edges.pendingAdds = null;
+            }
+            return;
+        }
+        edges.install(filter);
+        logger.info("Built the {} filter: {} pairs, capacity {} in {} ms",
+                edges.name, filter.size(), filter.capacity(), System.currentTimeMillis() - start);
+    }
+
+    private void registerMetrics() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        for (Edges edges : List.of(follows, friendRequests)) {
+            Gauge.builder(METRIC_PREFIX + ".false.positive.rate", edges, Edges::falsePositiveRate)
+                .description("Share of absent pairs the filter reported as possibly present")
+                .tag("filter", edges.name)
+                .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".expected.fpp", edges, Edges::expectedFpp)
+                .description("False-positive probability expected at the filter's current size")
+                .tag("filter", edges.name)
+                .register(registry);
+            Gauge.builder(METRIC_PREFIX + ".size", edges, Edges::size)
+                .description("Pairs held by the filter")
+                .tag("filter", edges.name)
+                .register(registry);
+            FunctionCounter.builder(METRIC_PREFIX + ".skipped.queries", edges.skipped, LongAdder::sum)
+                .description("Duplicate checks answered without a query")
+                .tag("filter", edges.name)
+                .register(registry);
+        }
+    }
+
+    /** One filter plus its counters. */
+    private static final class Edges {
+        final String name;
+        final LongAdder skipped = new LongAdder();
+        final LongAdder falsePositives = new LongAdder();
+        volatile CountingBloomFilter filter;
+        // pairs added while the filter is being built, replayed onto it; guarded by this
+        List<long[]> pendingAdds;
+
+        Edges(String name) {
+            this.name = name;
+        }
+
+        boolean mightExist(long a, long b) {
+            CountingBloomFilter f = filter;
+            if (f == null) {
+                return true;
+            }
+            if (!f.mightContain(a, b)) {
+                skipped.increment();
+                return false;
+            }
+            return true;
+        }
+
+        void recordFalsePositive() {
+            if (filter != null) {
+                falsePositives.increment();
+            }
+        }
+
+        synchronized void add(long a, long b) {
+            CountingBloomFilter f = filter;
+            if (f != null) {
+                f.add(a, b);
+            }
+            if (pendingAdds != null) {
+                pendingAdds.add(new long[]{a, b});
+            }
+        }
+
+        // a removal during a build is dropped, so the new filter may keep a stale pair; that
+        // only costs a query, whereas removing a pair it never saw could hide a real one.
+        // A pair added on another instance cannot be told apart here, see the class comment
+        synchronized void remove(long a, long b) {
+            CountingBloomFilter f = filter;
+            if (f != null) {
+                f.remove(a, b);
+            }
+        }
+
+        synchronized void install(CountingBloomFilter fresh) {
+            for (long[] pair : pendingAdds) {
+                fresh.add(pair[0], pair[1]);
+            }
+            pendingAdds = null;
+            filter = fresh;
+        }
+
+        boolean isFull() {
+            CountingBloomFilter f = filter;
+            synchronized (this) {
+                return f != null && pendingAdds == null && f.size() > f.capacity();
+            }
+        }
+
+        double falsePositiveRate() {
+            long fp = falsePositives.sum();
+            long negatives = fp + skipped.sum();
+            return negatives == 0 ? 0 : (double) fp / negatives;
+        }
+
+        double expectedFpp() {
+            CountingBloomFilter f = filter;
+            return f == null ? 0 : f.expectedFpp();
+        }
+
+        double size() {
+            CountingBloomFilter f = filter;
+            return f == null ? 0 : f.size();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.dto.FeedResponse;
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.repository.PostsRepository;
+import com.c11.umastagram.util.KeysetCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class FeedService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // feed order: datePosted DESC, id DESC
+    private static final Comparator<Posts> FEED_ORDER = Comparator
+            .comparing(Posts::getDatePosted)
+            .thenComparing(Posts::getId)
+            .reversed();
+
+    @Autowired
+    private PostsRepository postsRepository;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private BlockService blockService;
+
+    /**
+     * Returns one page of the home feed for a user: posts from the users they follow,
+     * newest first, ordered by (datePosted DESC, id DESC).
+     * Pages are addressed with an opaque keyset cursor so the cost of a page does not
+     * depend on how deep into the feed the client has scrolled.
+     * Pages are served from the user's fan-out-on-write timeline unless the page reaches
+     * past what the timeline can vouch for, and from the follow/posts join then.
+     * Posts by users blocked by or blocking userId are dropped after the page is read, so
+     * a page can come back shorter than limit while still having a next page.
+     * @param userId the ID of the user reading the feed
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit the requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @return the page of posts and the cursor for the next page (null if this is the last page)
+     * @throws IllegalArgumentException if userId is null or the cursor is malformed
+     */
+    public FeedResponse getFeed(Long userId, String cursor, int limit) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+
+        List<Posts> posts = null;
+        if (timelineService.isEnabled()) {
+            posts = readFromTimeline(userId, after, pageSize);
+        }
+        if (posts == null) {
+            posts = readFromJoin(userId, after, pageSize);
+        }
+
+        String nextCursor = null;
+        if (posts.size() == pageSize) {
+            Posts last = posts.get(posts.size() - 1);
+            nextCursor = new KeysetCursor(last.getDatePosted(), last.getId()).encode();
+        }
+        List<Posts> visible = new ArrayList<>(posts.size());
+        for (Posts post : posts) {
+            if (!blockService.isBlocked(userId, post.getUserId())) {
+                visible.add(post);
+            }
+        }
+        return new FeedResponse(visible, nextCursor);
+    }
+
+    private List<Posts> readFromJoin(Long userId, KeysetCursor after, int pageSize) {
+        PageRequest page = PageRequest.of(0, pageSize);
+        if (after == null) {
+            return postsRepository.findFeedFirstPage(userId, page);
+        }
+        return postsRepository.findFeedPageBefore(userId, after.getTimestamp(), after.getId(), page);
+    }
+
+    /**
+     * Builds a page from the timeline ring plus the posts of followed high-follower authors.
+     * Only the page's share of the ring is loaded: the ring is kept in feed order, so the ids
+     * after the cursor are a slice of it.
+     * @return the page, or null if the timeline cannot vouch for it (it may have dropped or
+     *         never held posts past its oldest entry, or a post on it was deleted) and the
+     *         join must be used instead
+     */
+    private List<Posts> readFromTimeline(Long userId, KeysetCursor after, int pageSize) {
+        TimelineService.TimelinePage page = timelineService.getTimelinePage(userId, after, pageSize);
+
+        Map<Long, Posts> candidates = new LinkedHashMap<>();
+        if (!page.postIds().isEmpty()) {
+            for (Posts post : postsRepository.findAllById(page.postIds())) {
+                candidates.put(post.getId(), post);
+            }
+            if (candidates.size() < page.postIds().size() && page.more()) {
+                // deleted posts left a gap the next ids on the ring would have filled
+                return null;
+            }
+        }
+
+        List<Long> pulledAuthors = timelineService.getReadFanoutAuthors(userId);
+        if (!pulledAuthors.isEmpty()) {
+            PageRequest request = PageRequest.of(0, pageSize);
+            List<Posts> pulled = after == null
+                    ? postsRepository.findAuthorsFirstPage(pulledAuthors, request)
+                    : postsRepository.findAuthorsPageBefore(pulledAuthors, after.getTimestamp(), after.getId(), request);
+            for (Posts post : pulled) {
+                // past the oldest ring entry an incomplete ring may be missing posts, so stop there
+                if (page.complete() || (page.oldest() != null && !isAfter(post, page.oldest()))) {
+                    candidates.putIfAbsent(post.getId(), post);
+                }
+            }
+        }
+
+        List<Posts> posts = new ArrayList<>(candidates.values());
+        if (posts.size() < pageSize && !page.complete()) {
+            return null;
+        }
+        posts.sort(FEED_ORDER);
+        return new ArrayList<>(posts.subList(0, Math.min(pageSize, posts.size())));
+    }
+
+    // true if post comes strictly after the cursor in feed order
+    private static boolean isAfter(Posts post, KeysetCursor cursor) {
+        int byDate = post.getDatePosted().compareTo(cursor.getTimestamp());
+        return byDate < 0 || (byDate == 0 && post.getId() < cursor.getId());
+    }
+}
@@ -0,0 +1,692 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.repository.FollowRepository;
+import com.c11.umastagram.util.SnapshotFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory copy of the follow table, so graph lookups do not cost a query.
+ *
+ * Edges are held twice, as out-edges (userId -> friendId) and in-edges (friendId -> userId),
+ * each in compressed sparse row form: a sorted long[] of user ids, an int[] of offsets into
+ * one long[] of neighbour ids, sorted within each user's range. That is 8 bytes per edge per
+ * direction plus 12 bytes per user, and a lookup is two binary searches.
+ *
+ * The arrays are never modified. addEdge/removeEdge go into a small copy-on-write overlay of
+ * added and removed edges per user, and the whole Graph is swapped through a volatile field,
+ * so readers never lock. compact() folds the overlay into fresh arrays once it grows past
+ * app.follow-graph.compact-threshold edges.
+ *
+ * The index is loaded at startup, reading the table in app.follow-graph.load-partitions
+ * parallel streams. Until it is loaded isReady() is false and callers should query
+ * FollowRepository instead.
+ *
+ * With app.snapshot.dir set, the out-edge arrays are also written to a SnapshotFile every
+ * app.follow-graph.snapshot-interval-ms. At startup the index is restored from that file
+ * plus the follows created since it was written (by request_time), so it is ready without
+ * scanning the table. Deletes leave no timestamp, so when the restored edge count does not
+ * match the table the snapshot is dropped and the full load runs in the background, with
+ * the index not ready until it finishes.
+ */
+@Component
+public class FollowGraphIndex {
+    private static final Logger logger = LoggerFactory.getLogger(FollowGraphIndex.class);
+
+    private static final long[] NO_IDS = new long[0];
+
+    @Value("${app.follow-graph.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.follow-graph.load-partitions:4}")
+    private int loadPartitions;
+
+    @Value("${app.follow-graph.compact-threshold:10000}")
+    private int compactThreshold;
+
+    @Value("${app.snapshot.dir:}")
+    private String snapshotDir;
+
+    // follows are timestamped before they commit, so re-read a margin before the watermark
+    @Value("${app.follow-graph.snapshot-margin-ms:60000}")
+    private long snapshotMarginMs;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile Graph graph;
+
+    private final Object writeLock = new Object();
+
+    // changes made while a load or compaction is building new arrays, replayed onto them; guarded by writeLock.
+    // Non-null exactly while one rebuild is running, so only one runs at a time
+    private List<EdgeChange> pendingChanges;
+
+    private record EdgeChange(long userId, long friendId, boolean removed) {}
+
+    static final String SNAPSHOT_FILE = "follow-graph.snap";
+
+    public boolean isReady() {
+        return graph != null;
+    }
+
+    /**
+     * @return true if userId follows friendId
+     * @throws IllegalStateException if the index is not loaded
+     */
+    public boolean follows(long userId, long friendId) {
+        return requireGraph().out.contains(userId, friendId);
+    }
+
+    /**
+     * @return the number of users userId follows
+     * @throws IllegalStateException if the index is not loaded
+     */
+    public int followingCount(long userId) {
+        return requireGraph().out.degree(userId);
+    }
+
+    /**
+     * @return the number of users following userId
+     * @throws IllegalStateException if the index is not loaded
+     */
+    public int followerCount(long userId) {
+        return requireGraph().in.degree(userId);
+    }
+
+    /**
+     * @return the ids of the users userId follows, ascending
+     * @throws IllegalStateException if the index is not loaded
+     */
+    public long[] following(long userId) {
+        return requireGraph().out.neighbours(userId);
+    }
+
+    /**
+     * @return the ids of the users following userId, ascending
+     * @throws IllegalStateException if the index is not loaded
+     */
+    public long[] followers(long userId) {
+        return requireGraph().in.neighbours(userId);
+    }
+
+    /**
+     * Calls action with the id of every user userId follows, ascending, without copying
+     * the adjacency list when it has no pending changes.
+     * @throws IllegalStateException if the index is not loaded
+     */
+    public void forEachFollowing(long userId, LongConsumer action) {
+        requireGraph().out.forEach(userId, action);
+    }
+
+    /**
+     * Calls action with the id of every user following userId, ascending.
+     * @throws IllegalStateException if the index is not loaded
+     */
+    public void forEachFollower(long userId, LongConsumer action) {
+        requireGraph().in.forEach(userId, action);
+    }
+
+    /**
+     * @return the number of follow edges in the index, or 0 if it is not loaded
+     */
+    public long getEdgeCount() {
+        Graph g = graph;
+        return g == null ? 0 : g.out.edgeCount();
+    }
+
+    /**
+     * Records that userId now follows friendId. Call after the row has been saved.
+     */
+    public void addEdge(long userId, long friendId) {
+        apply(new EdgeChange(userId, friendId, false));
+    }
+
+    /**
+     * Records that userId no longer follows friendId. Call after the row has been deleted.
+     */
+    public void removeEdge(long userId, long friendId) {
+        apply(new EdgeChange(userId, friendId, true));
+    }
+
+    private void apply(EdgeChange change) {
+        synchronized (writeLock) {
+            Graph g = graph;
+            if (g != null) {
+                graph = g.with(change.userId(), change.friendId(), !change.removed());
+            }
+            // before the first load the change is already in the table the load will read
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
+    /**
+     * Restores the index from the snapshot if there is one; otherwise, or if the snapshot
+     * turns out to be missing deletes, loads it from the table on a background thread so
+     * startup does not wait for the scan.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmStart() {
+        if (!enabled) {
+            return;
+        }
+        if (loadSnapshot()) {
+            return;
+        }
+        Thread loader = new Thread(this::load, "follow-graph-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Loads the index from the follow table. Partitions of the table are read in parallel
+     * and the out- and in-edge arrays are built in parallel.
+     */
+    public void load() {
+        if (!enabled || !beginRebuild()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Graph fresh;
+        try {
+            EdgeBuffer edges = readEdges(Math.max(1, loadPartitions));
+            CompletableFuture<Csr> in = CompletableFuture.supplyAsync(() -> Csr.build(edges.dst, edges.src, edges.size));
+            Csr out = Csr.build(edges.src, edges.dst, edges.size);
+            fresh = new Graph(new Adjacency(out), new Adjacency(in.join()));
+        } catch (RuntimeException e) {
+            logger.warn("Follow graph load failed, lookups will use the database: {}", e.getMessage());
+            endRebuild();
+            return;
+        }
+
+        install(fresh);
+        logger.info("Follow graph loaded: {} edges in {} ms", fresh.out.edgeCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Folds the overlay into new arrays once it has grown past the compact threshold,
+     * so lookups stay two binary searches and updates stay cheap to copy.
+     */
+    @Scheduled(fixedDelayString = "${app.follow-graph.compact-interval-ms:10000}")
+    public void compact() {
+        Graph current;
+        synchronized (writeLock) {
+            current = graph;
+            if (current == null || pendingChanges != null || current.out.overlaySize() < compactThreshold) {
+                return;
+            }
+            pendingChanges = new ArrayList<>();
+        }
+        Graph compacted;
+        try {
+            compacted = current.compacted();
+        } catch (RuntimeException e) {
+            logger.warn("Follow graph compaction failed: {}", e.getMessage());
+            endRebuild();
+            return;
+        }
+        install(compacted);
+    }
+
+    /**
+     * Writes the current out-edges to the snapshot file.
+     */
+    @Scheduled(fixedDelayString = "${app.follow-graph.snapshot-interval-ms:600000}",
+               initialDelayString = "${app.follow-graph.snapshot-interval-ms:600000}")
+    public void writeSnapshot() {
+        Path file = snapshotFile();
+        Graph g = graph;
+        if (file == null || g == null) {
+            return;
+        }
+        // every follow committed before this instant is already in g, except ones whose
+        // addEdge has not run yet; the margin on load covers those
+        long watermark = System.currentTimeMillis();
+        long start = watermark;
+        Csr out = g.out.toCsr();
+        try {
+            SnapshotFile.writer(watermark)
+                .putLongs("users", out.users)
+                .putInts("offsets", out.offsets)
+                .putLongs("neighbours", out.neighbours)
+                .writeTo(file);
+        } catch (IOException e) {
+            logger.warn("Writing the follow graph snapshot to {} failed: {}", file, e.getMessage());
+            return;
+        }
+        logger.info("Follow graph snapshot written: {} edges in {} ms", out.edgeCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Installs the graph from the snapshot file plus the follows created since it was written.
+     * @return true if the result matches the table's edge count, false if there was no usable
+     *         snapshot or a full load is needed to pick up deletes
+     */
+    boolean loadSnapshot() {
+        Path file = snapshotFile();
+        if (file == null || !Files.isRegularFile(file) || !beginRebuild()) {
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        Graph fresh;
+        long tableCount;
+        try {
+            SnapshotFile snapshot = SnapshotFile.read(file);
+            Csr base = new Csr(snapshot.getLongs("users"), snapshot.getInts("offsets"), snapshot.getLongs("neighbours"));
+            if (base.offsets.length != base.users.length + 1 || base.offsets[base.users.length] != base.neighbours.length) {
+                throw new IOException("inconsistent arrays");
+            }
+            LocalDateTime since = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(snapshot.getWatermark() - snapshotMarginMs), ZoneId.systemDefault());
+
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            EdgeBuffer edges = tx.execute(status -> {
+                EdgeBuffer buffer = EdgeBuffer.of(base);
+                try (Stream<Object[]> rows = followRepository.streamEdgesSince(since)) {
+                    rows.forEach(row -> {
+                        long from = ((Number) row[0]).longValue();
+                        long to = ((Number) row[1]).longValue();
+                        if (!base.contains(from, to)) {
+                            buffer.add(from, to);
+                        }
+                    });
+                }
+                return buffer;
+            });
+            CompletableFuture<Csr> in = CompletableFuture.supplyAsync(() -> Csr.build(edges.dst, edges.src, edges.size));
+            Csr out = edges.size == base.edgeCount() ? base : Csr.build(edges.src, edges.dst, edges.size);
+            fresh = new Graph(new Adjacency(out), new Adjacency(in.join()));
+            tableCount = followRepository.count();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Follow graph snapshot {} could not be used: {}", file, e.getMessage());
+            endRebuild();
+            return false;
+        }
+
+        long edgeCount;
+        synchronized (writeLock) {
+            fresh = withPendingChanges(fresh);
+            edgeCount = fresh.out.edgeCount();
+            // otherwise it is missing deletes; stay not ready so callers use the database until the full load
+            if (edgeCount == tableCount) {
+                graph = fresh;
+            }
+            endRebuild();
+        }
+        if (edgeCount != tableCount) {
+            logger.info("Follow graph snapshot has {} edges, the table {}; reloading in the background", edgeCount, tableCount);
+            return false;
+        }
+        logger.info("Follow graph restored from snapshot: {} edges in {} ms", edgeCount, System.currentTimeMillis() - start);
+        return true;
+    }
+
+    private Path snapshotFile() {
+        return snapshotDir == null || snapshotDir.isBlank() ? null : Path.of(snapshotDir, SNAPSHOT_FILE);
+    }
+
+    /**
+     * Starts recording changes for a load. A compaction in progress is only copying arrays
+     * in memory, so this waits for it rather than replacing the changes it is recording.
+     * @return false if interrupted while waiting
+     */
+    private boolean beginRebuild() {
+        synchronized (writeLock) {
+            while (pendingChanges != null) {
+                try {
+                    writeLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            pendingChanges = new ArrayList<>();
+            return true;
+        }
+    }
+
+    private void endRebuild() {
+        synchronized (writeLock) {
+            pendingChanges = null;
+            writeLock.notifyAll();
+        }
+    }
+
+    private void install(Graph fresh) {
+        synchronized (writeLock) {
+            graph = withPendingChanges(fresh);
+            endRebuild();
+        }
+    }
+
+    // caller holds writeLock
+    private Graph withPendingChanges(Graph fresh) {
+        // add and remove are idempotent, so replaying changes the load already saw is harmless
+        if (pendingChanges != null) {
+            for (EdgeChange change : pendingChanges) {
+                fresh = fresh.with(change.userId(), change.friendId(), !change.removed());
+            }
+        }
+        return fresh;
+    }
+
+    private EdgeBuffer readEdges(int partitions) {
+        ExecutorService pool = Executors.newFixedThreadPool(partitions, r -> {
+            Thread t = new Thread(r, "follow-graph-load");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<CompletableFuture<EdgeBuffer>> parts = new ArrayList<>(partitions);
+            for (int i = 0; i < partitions; i++) {
+                int partition = i;
+                parts.add(CompletableFuture.supplyAsync(() -> readPartition(partitions, partition), pool));
+            }
+            EdgeBuffer all = new EdgeBuffer();
+            for (CompletableFuture<EdgeBuffer> part : parts) {
+                all.addAll(part.join());
+            }
+            return all;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private EdgeBuffer readPartition(int partitions, int partition) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> {
+            EdgeBuffer buffer = new EdgeBuffer();
+            try (Stream<Object[]> rows = followRepository.streamEdgePartition(partitions, partition)) {
+                rows.forEach(row -> buffer.add(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+            }
+            return buffer;
+        });
+    }
+
+    private Graph requireGraph() {
+        Graph g = graph;
+        if (g == null) {
+            throw new IllegalStateException("Follow graph index is not loaded");
+        }
+        return g;
+    }
+
+    /** Out- and in-edges of one immutable version of the graph. */
+    private record Graph(Adjacency out, Adjacency in) {
+        Graph with(long userId, long friendId, boolean add) {
+            return new Graph(out.with(userId, friendId, add), in.with(friendId, userId, add));
+        }
+
+        Graph compacted() {
+            return new Graph(new Adjacency(out.toCsr()), new Adjacency(in.toCsr()));
+        }
+    }
+
+    /**
+     * One direction of the graph: base arrays plus per-user sorted arrays of edges added
+     * since (never in base) and removed since (always in base). with() copies the maps
+     * and the touched user's array, never the base.
+     */
+    static final class Adjacency {
+        private final Csr base;
+        private final Map<Long, long[]> added;
+        private final Map<Long, long[]> removed;
+        private final int overlaySize;
+
+        Adjacency(Csr base) {
+            this(base, Map.of(), Map.of(), 0);
+        }
+
+        private Adjacency(Csr base, Map<Long, long[]> added, Map<Long, long[]> removed, int overlaySize) {
+            this.base = base;
+            this.added = added;
+            this.removed = removed;
+            this.overlaySize = overlaySize;
+        }
+
+        int overlaySize() {
+            return overlaySize;
+        }
+
+        long edgeCount() {
+            long count = base.edgeCount();
+            for (long[] ids : added.values()) {
+                count += ids.length;
+            }
+            for (long[] ids : removed.values()) {
+                count -= ids.length;
+            }
+            return count;
+        }
+
+        boolean contains(long from, long to) {
+            if (Arrays.binarySearch(added.getOrDefault(from, NO_IDS), to) >= 0) {
+                return true;
+            }
+            if (Arrays.binarySearch(removed.getOrDefault(from, NO_IDS), to) >= 0) {
+                return false;
+            }
+            return base.contains(from, to);
+        }
+
+        int degree(long from) {
+            return base.degree(from) + added.getOrDefault(from, NO_IDS).length - removed.getOrDefault(from, NO_IDS).length;
+        }
+
+        long[] neighbours(long from) {
+            long[] result = new long[degree(from)];
+            int[] n = {0};
+            forEach(from, id -> result[n[0]++] = id);
+            return result;
+        }
+
+        void forEach(long from, LongConsumer action) {
+            long[] plus = added.getOrDefault(from, NO_IDS);
+            long[] minus = removed.getOrDefault(from, NO_IDS);
+            int i = base.indexOf(from);
+            int pos = i < 0 ? 0 : base.offsets[i];
+            int end = i < 0 ? 0 : base.offsets[i + 1];
+            int p = 0;
+            // merge the base range, minus removed ids, with the added ids; both are sorted
+            while (pos < end || p < plus.length) {
+                if (p == plus.length || (pos < end && base.neighbours[pos] < plus[p])) {
+                    long id = base.neighbours[pos++];
+                    if (minus.length == 0 || Arrays.binarySearch(minus, id) < 0) {
+                        action.accept(id);
+                    }
+                } else {
+                    action.accept(plus[p++]);
+                }
+            }
+        }
+
+        Adjacency with(long from, long to, boolean add) {
+            if (contains(from, to) == add) {
+                return this;
+            }
+            int size = overlaySize + (add == base.contains(from, to) ? -1 : 1);
+            if (base.contains(from, to)) {
+                // re-adding a removed base edge drops it from removed; removing one records it
+                return new Adjacency(base, added, update(removed, from, to, !add), size);
+            }
+            return new Adjacency(base, update(added, from, to, add), removed, size);
+        }
+
+        Csr toCsr() {
+            TreeSet<Long> users = new TreeSet<>(added.keySet());
+            for (long user : base.users) {
+                users.add(user);
+            }
+            long edges = edgeCount();
+            long[] userIds = new long[users.size()];
+            int[] offsets = new int[users.size() + 1];
+            long[] neighbours = new long[Math.toIntExact(edges)];
+            int u = 0;
+            int[] n = {0};
+            for (long user : users) {
+                forEach(user, id -> neighbours[n[0]++] = id);
+                if (n[0] > offsets[u]) {
+                    userIds[u] = user;
+                    offsets[++u] = n[0];
+                }
+            }
+            return new Csr(Arrays.copyOf(userIds, u), Arrays.copyOf(offsets, u + 1), neighbours);
+        }
+
+        private static Map<Long, long[]> update(Map<Long, long[]> map, long from, long to, boolean insert) {
+            Map<Long, long[]> copy = new HashMap<>(map);
+            long[] current = copy.getOrDefault(from, NO_IDS);
+            int at = Arrays.binarySearch(current, to);
+            long[] next;
+            if (insert) {
+                int slot = -at - 1;
+                next = new long[current.length + 1];
+                System.arraycopy(current, 0, next, 0, slot);
+                next[slot] = to;
+                System.arraycopy(current, slot, next, slot + 1, current.length - slot);
+            } else {
+                next = new long[current.length - 1];
+                System.arraycopy(current, 0, next, 0, at);
+                System.arraycopy(current, at + 1, next, at, current.length - at - 1);
+            }
+            if (next.length == 0) {
+                copy.remove(from);
+            } else {
+                copy.put(from, next);
+            }
+            return copy;
+        }
+    }
+
+    /** Compressed sparse row adjacency: users[i]'s neighbours are neighbours[offsets[i], offsets[i + 1]). */
+    static final class Csr {
+        final long[] users;
+        final int[] offsets;
+        final long[] neighbours;
+
+        Csr(long[] users, int[] offsets, long[] neighbours) {
+            this.users = users;
+            this.offsets = offsets;
+            this.neighbours = neighbours;
+        }
+
+        /**
+         * Builds the adjacency of the first size pairs (from[i], to[i]). Pairs must be distinct,
+         * which the follow table's primary key guarantees.
+         */
+        static Csr build(long[] from, long[] to, int size) {
+            long[] sorted = Arrays.copyOf(from, size);
+            Arrays.parallelSort(sorted);
+            int userCount = 0;
+            for (int i = 0; i < size; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[userCount++] = sorted[i];
+                }
+            }
+            long[] users = Arrays.copyOf(sorted, userCount);
+
+            int[] offsets = new int[userCount + 1];
+            int[] slots = new int[size];
+            for (int i = 0; i < size; i++) {
+                slots[i] = Arrays.binarySearch(users, from[i]);
+                offsets[slots[i] + 1]++;
+            }
+            for (int i = 0; i < userCount; i++) {
+                offsets[i + 1] += offsets[i];
+            }
+            int[] next = Arrays.copyOf(offsets, userCount);
+            long[] neighbours = new long[size];
+            for (int i = 0; i < size; i++) {
+                neighbours[next[slots[i]]++] = to[i];
+            }
+            for (int i = 0; i < userCount; i++) {
+                Arrays.sort(neighbours, offsets[i], offsets[i + 1]);
+            }
+            return new Csr(users, offsets, neighbours);
+        }
+
+        int indexOf(long user) {
+            return Arrays.binarySearch(users, user);
+        }
+
+        long edgeCount() {
+            return neighbours.length;
+        }
+
+        int degree(long user) {
+            int i = indexOf(user);
+            return i < 0 ? 0 : offsets[i + 1] - offsets[i];
+        }
+
+        boolean contains(long from, long to) {
+            int i = indexOf(from);
+            return i >= 0 && Arrays.binarySearch(neighbours, offsets[i], offsets[i + 1], to) >= 0;
+        }
+    }
+
+    /** Growable pair of primitive arrays, so loading does not box an object per edge. */
+    private static final class EdgeBuffer {
+        long[] src = new long[1024];
+        long[] dst = new long[1024];
+        int size;
+
+        static EdgeBuffer of(Csr csr) {
+            EdgeBuffer buffer = new EdgeBuffer();
+            int edges = csr.neighbours.length;
+            buffer.src = new long[Math.max(1024, edges + edges / 8)];
+            buffer.dst = new long[buffer.src.length];
+            for (int i = 0; i < csr.users.length; i++) {
+                Arrays.fill(buffer.src, csr.offsets[i], csr.offsets[i + 1], csr.users[i]);
+            }
+            System.arraycopy(csr.neighbours, 0, buffer.dst, 0, edges);
+            buffer.size = edges;
+            return buffer;
+        }
+
+        void add(long from, long to) {
+            if (size == src.length) {
+                src = Arrays.copyOf(src, size * 2);
+                dst = Arrays.copyOf(dst, size * 2);
+            }
+            src[size] = from;
+            dst[size] = to;
+            size++;
+        }
+
+        void addAll(EdgeBuffer other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.src[i], other.dst[i]);
+            }
+        }
+    }
+}
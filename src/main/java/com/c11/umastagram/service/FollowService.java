@@ -1,49 +1,344 @@
 package com.c11.umastagram.service;
 
+import com.c11.umastagram.dto.FollowEntry;
+import com.c11.umastagram.dto.FollowPageResponse;
+import com.c11.umastagram.dto.RelationshipStatus;
+import com.c11.umastagram.dto.UserSummary;
 import com.c11.umastagram.model.Follow;
 import com.c11.umastagram.repository.FollowRepository;
+import com.c11.umastagram.repository.FriendRequestRepository;
+import com.c11.umastagram.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import com.c11.umastagram.model.User;
-import com.c11.umastagram.service.UserService;
-import java.util.List;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Optional;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class FollowService {
+    public static final int MAX_BULK_ACCEPT = 500;
+    public static final int MAX_STATUS_TARGETS = 500;
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private FollowRepository followRepository;
 
     @Autowired
-    private UserService userService;
+    private FriendRequestRepository friendRequestRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TimelineService timelineService;
+
+    @Autowired
+    private FollowGraphIndex followGraphIndex;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private DuplicateEdgeFilter duplicateEdgeFilter;
 
+    @Autowired
+    private BlockService blockService;
+
+    /**
+     * Saves a follow. The duplicate check only queries the table when the DuplicateEdgeFilter
+     * says the follow might already exist; otherwise the primary key is the check.
+     * @throws IllegalArgumentException if the follow already exists
+     */
     public Follow saveFollow(Follow follow) {
-        if (follow.getUserId() != null &&
-                follow.getFriendId() != null &&
-                followRepository.getFollow(follow.getUserId(), follow.getFriendId()).isPresent()){
+        Long userId = follow.getUserId();
+        Long friendId = follow.getFriendId();
+        if (userId != null && friendId != null && duplicateEdgeFilter.followMightExist(userId, friendId)) {
+            if (followRepository.getFollow(userId, friendId).isPresent()) {
+                throw new IllegalArgumentException("Unique Follow Record Already Exists");
+            }
+            duplicateEdgeFilter.recordFollowFalsePositive();
+        }
+        Follow saved;
+        try {
+            saved = new TransactionTemplate(transactionManager).execute(status -> {
+                Follow inserted = followRepository.save(follow);
+                userStatsService.adjustFollowCounts(userId, friendId, 1);
+                return inserted;
+            });
+        } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Unique Follow Record Already Exists");
         }
-        return followRepository.save(follow);
+        // the follower's timeline no longer matches who they follow
+        timelineService.invalidate(userId);
+        if (userId != null && friendId != null) {
+            duplicateEdgeFilter.followAdded(userId, friendId);
+            followGraphIndex.addEdge(userId, friendId);
+        }
+        return saved;
     }
 
     public void deleteFollow(Long userId, Long friendId) {
-        followRepository.deleteFollow(userId, friendId);
+        boolean deleted = Boolean.TRUE.equals(new TransactionTemplate(transactionManager).execute(status -> {
+            if (followRepository.deleteFollow(userId, friendId) > 0) {
+                userStatsService.adjustFollowCounts(userId, friendId, -1);
+                return true;
+            }
+            return false;
+        }));
+        timelineService.invalidate(userId);
+        followGraphIndex.removeEdge(userId, friendId);
+        if (deleted) {
+            duplicateEdgeFilter.followRemoved(userId, friendId);
+        }
     }
 
-    public List<String> getUserFollowers(Long userId) {
-        List<Follow> followers = followRepository.findAllFollowersByUserId(userId);
-        List<String> followerNames = new ArrayList<>();
-
-        for (Follow follower : followers) {
-            Long currentId = follower.getUserId();
-            Optional<User> currentUser = userService.findUserById(currentId);
-            if (currentUser.isPresent()) {
-                followerNames.add(currentUser.get().getUsername());
+    /**
+     * Accepts the friend request between userId and friendId: deletes it (in whichever
+     * direction it was sent) and inserts the follow in both directions, in one transaction.
+     * Follows that already exist are left alone, so a retried or
+     * concurrent accept is harmless.
+     * @param userId one side of the request
+     * @param friendId the other side of the request
+     * @throws IllegalArgumentException if an id is missing or there is no request between the users
+     */
+    public void acceptFriendRequest(Long userId, Long friendId) {
+        if (userId == null || friendId == null) {
+            throw new IllegalArgumentException("userId and friendId are required");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        boolean[] removed = new TransactionTemplate(transactionManager).execute(status -> {
+            // one DELETE per direction, so the DuplicateEdgeFilter is only told about rows that existed;
+            // the DELETE locks the request row, so of two concurrent accepts only one gets past here
+            boolean sent = friendRequestRepository.deleteFriendRequest(userId, friendId) > 0;
+            boolean received = friendRequestRepository.deleteFriendRequest(friendId, userId) > 0;
+            if (!sent && !received) {
+                throw new IllegalArgumentException("Friend request not found");
+            }
+            if (followRepository.insertAllIfAbsent(List.of(new Follow(userId, friendId, now), new Follow(friendId, userId, now))) == 2) {
+                userStatsService.adjustFollowCounts(userId, friendId, 1);
+                userStatsService.adjustFollowCounts(friendId, userId, 1);
+            } else {
+                // some follows already existed and we cannot tell which, so count instead
+                userStatsService.recount(List.of(userId, friendId));
+            }
+            return new boolean[]{sent, received};
+        });
+        if (removed[0]) {
+            duplicateEdgeFilter.friendRequestRemoved(userId, friendId);
+        }
+        if (removed[1]) {
+            duplicateEdgeFilter.friendRequestRemoved(friendId, userId);
+        }
+        onFriendshipCreated(userId, friendId);
+    }
+
+    /**
+     * Accepts many pending friend requests sent to userId at once: one SELECT, one DELETE
+     * and one multi-row INSERT per 100 friendships, all in one transaction.
+     * @param userId the user accepting the requests
+     * @param requesterIds the senders to accept, or null/empty to accept every pending request
+     * @return the ids of the senders whose requests were accepted
+     * @throws IllegalArgumentException if userId is missing or more than MAX_BULK_ACCEPT ids are given
+     */
+    public List<Long> acceptFriendRequests(Long userId, Collection<Long> requesterIds) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        if (requesterIds != null && requesterIds.size() > MAX_BULK_ACCEPT) {
+            throw new IllegalArgumentException("at most " + MAX_BULK_ACCEPT + " requests can be accepted at once");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> accepted = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Long> pending = requesterIds == null || requesterIds.isEmpty()
+                    ? friendRequestRepository.findRequesterIdsByUserId(userId)
+                    : friendRequestRepository.findRequesterIdsAmong(userId, new LinkedHashSet<>(requesterIds));
+            if (pending.isEmpty()) {
+                return pending;
+            }
+            friendRequestRepository.deleteFriendRequestsTo(userId, pending);
+            List<Follow> follows = new ArrayList<>(pending.size() * 2);
+            for (Long requesterId : pending) {
+                follows.add(new Follow(userId, requesterId, now));
+                follows.add(new Follow(requesterId, userId, now));
+            }
+            if (followRepository.insertAllIfAbsent(follows) == follows.size()) {
+                for (Long requesterId : pending) {
+                    userStatsService.adjustFollowCounts(userId, requesterId, 1);
+                    userStatsService.adjustFollowCounts(requesterId, userId, 1);
+                }
+            } else {
+                List<Long> affected = new ArrayList<>(pending);
+                affected.add(userId);
+                userStatsService.recount(affected);
+            }
+            return pending;
+        });
+        for (Long requesterId : accepted) {
+            duplicateEdgeFilter.friendRequestRemoved(requesterId, userId);
+            onFriendshipCreated(userId, requesterId);
+        }
+        return accepted;
+    }
+
+    // runs after commit, so caches never see a friendship that was rolled back
+    private void onFriendshipCreated(Long userId, Long friendId) {
+        timelineService.invalidate(userId);
+        timelineService.invalidate(friendId);
+        duplicateEdgeFilter.followAdded(userId, friendId);
+        duplicateEdgeFilter.followAdded(friendId, userId);
+        followGraphIndex.addEdge(userId, friendId);
+        followGraphIndex.addEdge(friendId, userId);
+    }
+
+    /**
+     * Returns how viewerId relates to each of the target users. Follows come from the
+     * FollowGraphIndex when it is loaded, otherwise from one IN-list query; pending friend
+     * requests always take one more.
+     * @param viewerId the user looking at the list
+     * @param targetIds the users on the list, at most MAX_STATUS_TARGETS
+     * @return status per target id, in the order given
+     * @throws IllegalArgumentException if viewerId is missing or there are too many targets
+     */
+    public Map<Long, RelationshipStatus> getRelationshipStatuses(Long viewerId, Collection<Long> targetIds) {
+        if (viewerId == null) {
+            throw new IllegalArgumentException("viewerId is required");
+        }
+        Map<Long, RelationshipStatus> statuses = new LinkedHashMap<>();
+        if (targetIds == null || targetIds.isEmpty()) {
+            return statuses;
+        }
+        if (targetIds.size() > MAX_STATUS_TARGETS) {
+            throw new IllegalArgumentException("at most " + MAX_STATUS_TARGETS + " targetIds are allowed");
+        }
+        for (Long targetId : targetIds) {
+            if (targetId != null) {
+                statuses.put(targetId, new RelationshipStatus());
+            }
+        }
+        if (statuses.isEmpty()) {
+            return statuses;
+        }
+
+        if (followGraphIndex.isReady()) {
+            for (Map.Entry<Long, RelationshipStatus> entry : statuses.entrySet()) {
+                entry.getValue().setFollowing(followGraphIndex.follows(viewerId, entry.getKey()));
+                entry.getValue().setFollowedBy(followGraphIndex.follows(entry.getKey(), viewerId));
+            }
+        } else {
+            for (Object[] follow : followRepository.findFollowsBetween(viewerId, statuses.keySet())) {
+                if (viewerId.equals(follow[0])) {
+                    statuses.get((Long) follow[1]).setFollowing(true);
+                } else {
+                    statuses.get((Long) follow[0]).setFollowedBy(true);
+                }
+            }
+        }
+        for (Object[] request : friendRequestRepository.findFriendRequestsBetween(viewerId, statuses.keySet())) {
+            if (viewerId.equals(request[0])) {
+                statuses.get((Long) request[1]).setRequestSent(true);
             } else {
-                throw new IllegalArgumentException("User Not Found, getUserFollowers FAIL");
+                statuses.get((Long) request[0]).setRequestReceived(true);
             }
         }
-        return followerNames;
+        return statuses;
+    }
+
+    /**
+     * Returns the usernames of userId's followers in a single join query.
+     * Follows whose follower account no longer exists are left out.
+     */
+    public List<String> getUserFollowers(Long userId) {
+        return getUserFollowers(userId, null);
+    }
+
+    /**
+     * Returns the usernames of userId's followers as seen by viewerId: followers blocked
+     * by or blocking either user are left out, checked in memory against BlockService.
+     * @param viewerId the user looking at the list, or null
+     */
+    public List<String> getUserFollowers(Long userId, Long viewerId) {
+        List<UserSummary> followers = followRepository.findFollowerSummariesByUserId(userId);
+        List<String> usernames = new ArrayList<>(followers.size());
+        for (UserSummary follower : followers) {
+            if (!blockService.isBlocked(userId, follower.getUserId()) && !blockService.isBlocked(viewerId, follower.getUserId())) {
+                usernames.add(follower.getUsername());
+            }
+        }
+        return usernames;
+    }
+
+    /**
+     * Blocks targetId for userId (see BlockService.block) and removes the follows between
+     * them in both directions.
+     * @throws IllegalArgumentException if an id is missing or the users are the same
+     */
+    public void blockUser(Long userId, Long targetId) {
+        if (blockService.block(userId, targetId)) {
+            deleteFollow(userId, targetId);
+            deleteFollow(targetId, userId);
+        }
+    }
+
+    /**
+     * Returns one page of userId's followers, most recent follow first, ordered by
+     * (requestTime DESC, follower id DESC) and addressed by an opaque keyset cursor.
+     * @param userId the user whose followers are listed
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit the requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @return the page of followers and the cursor for the next page (null if this is the last page)
+     * @throws IllegalArgumentException if userId is null or the cursor is malformed
+     */
+    public FollowPageResponse getFollowersPage(Long userId, String cursor, int limit) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<FollowEntry> users = after == null
+                ? followRepository.findFollowersFirstPage(userId, page)
+                : followRepository.findFollowersPageAfter(userId, after.getTimestamp(), after.getId(), page);
+        return toPage(users, pageSize);
+    }
+
+    /**
+     * Returns one page of the users userId follows, most recent follow first, ordered by
+     * (requestTime DESC, followed user id DESC) and addressed by an opaque keyset cursor.
+     * @param userId the user whose follows are listed
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param limit the requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @return the page of followed users and the cursor for the next page (null if this is the last page)
+     * @throws IllegalArgumentException if userId is null or the cursor is malformed
+     */
+    public FollowPageResponse getFollowingPage(Long userId, String cursor, int limit) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+        PageRequest page = PageRequest.of(0, pageSize);
+        List<FollowEntry> users = after == null
+                ? followRepository.findFollowingFirstPage(userId, page)
+                : followRepository.findFollowingPageAfter(userId, after.getTimestamp(), after.getId(), page);
+        return toPage(users, pageSize);
+    }
+
+    private static FollowPageResponse toPage(List<FollowEntry> users, int pageSize) {
+        String nextCursor = null;
+        if (users.size() == pageSize) {
+            FollowEntry last = users.get(users.size() - 1);
+            nextCursor = new KeysetCursor(last.getFollowedAt(), last.getUserId()).encode();
+        }
+        return new FollowPageResponse(users, nextCursor);
     }
-}
\ No newline at end of file
+}
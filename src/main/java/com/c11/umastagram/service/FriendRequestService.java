@@ -1,17 +1,14 @@
 package com.c11.umastagram.service;
 
-import com.c11.umastagram.model.Follow;
 import com.c11.umastagram.model.FriendRequest;
-import com.c11.umastagram.model.User;
 import com.c11.umastagram.repository.FriendRequestRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 @Service
 public class FriendRequestService {
@@ -21,7 +18,10 @@ public class FriendRequestService {
     private FriendRequestRepository friendRequestRepository;
 
     @Autowired
-    private UserService userService;
+    private DuplicateEdgeFilter duplicateEdgeFilter;
+
+    @Autowired
+    private BlockService blockService;
 
     public FriendRequest saveFriendRequest(FriendRequest fr) {
         // no data formatting is really necessary here,
@@ -29,33 +29,46 @@ public class FriendRequestService {
         // and the ids in the composite key can be duplicates
         // only the combination has to be unique
 
-        if (fr.getUserRequestId() != null &&
-                fr.getUserTargetId() != null &&
-                friendRequestRepository.getFriendRequest(fr.getUserRequestId(), fr.getUserTargetId()).isPresent()){
+        // the existence query only runs when the filter says the request might exist;
+        // otherwise the primary key rejects the rare duplicate the filter missed
+        Long userRequestId = fr.getUserRequestId();
+        Long userTargetId = fr.getUserTargetId();
+        if (blockService.isBlocked(userRequestId, userTargetId)) {
+            throw new IllegalArgumentException("Cannot send a friend request to this user");
+        }
+        boolean checked = userRequestId != null && userTargetId != null;
+        if (checked && duplicateEdgeFilter.friendRequestMightExist(userRequestId, userTargetId)) {
+            if (friendRequestRepository.getFriendRequest(userRequestId, userTargetId).isPresent()) {
+                throw new IllegalArgumentException("Unique Friend Request Already Exists");
+            }
+            duplicateEdgeFilter.recordFriendRequestFalsePositive();
+        }
+        FriendRequest saved;
+        try {
+            saved = friendRequestRepository.save(fr);
+        } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Unique Friend Request Already Exists");
         }
-        return friendRequestRepository.save(fr);
+        if (checked) {
+            duplicateEdgeFilter.friendRequestAdded(userRequestId, userTargetId);
+        }
+        return saved;
     }
 
     public void deleteFriendRequest(Long userRequestId, Long userTargetId) {
-        friendRequestRepository.deleteFriendRequest(userRequestId, userTargetId);
+        if (friendRequestRepository.deleteFriendRequest(userRequestId, userTargetId) > 0
+                && userRequestId != null && userTargetId != null) {
+            duplicateEdgeFilter.friendRequestRemoved(userRequestId, userTargetId);
+        }
         logger.info("Deleted Friend Request from user {} to user {}", userRequestId, userTargetId);
     }
 
+    /**
+     * Returns the usernames of the users who sent userId a friend request, in a single
+     * join query. Requests from accounts that no longer exist are left out.
+     */
     public List<String> getUserFriendRequests(Long userId) {
-        List<FriendRequest> friendRequests = friendRequestRepository.findAllFriendRequestsByUserId(userId);
-        List<String> friendRequestNames = new ArrayList<>();
-
-        for (FriendRequest friendRequest : friendRequests) {
-            Long currentId = friendRequest.getUserRequestId();
-            Optional<User> currentUser = userService.findUserById(currentId);
-            if (currentUser.isPresent()) {
-                friendRequestNames.add(currentUser.get().getUsername());
-            } else {
-                throw new IllegalArgumentException("User Not Found, getUserFriendRequest FAIL");
-            }
-        }
-        return friendRequestNames;
+        return friendRequestRepository.findRequesterUsernamesByUserId(userId);
     }
 
 }
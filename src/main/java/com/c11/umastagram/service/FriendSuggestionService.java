@@ -0,0 +1,237 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.dto.FriendSuggestion;
+import com.c11.umastagram.dto.UserSummary;
+import com.c11.umastagram.repository.FollowRepository;
+import com.c11.umastagram.util.LongHashSet;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mutual follows and friend-of-friend suggestions, computed in memory from the follow graph
+ * instead of self-joins on the follow table: mutual follows as a compressed 64-bit bitmap
+ * intersection, suggestions by counting 2-hop candidates.
+ *
+ * A user's suggestions are every user followed by someone they follow, ranked by how many
+ * of the people they follow also follow the candidate. They are computed from the
+ * FollowGraphIndex by the scheduled refresher only: a user's first read queues them and
+ * gets an empty list, later reads are served from the cache, which the refresher keeps
+ * recomputing while the user keeps reading and evicts after app.suggestions.ttl-ms without
+ * a read. No request pays for the computation. Only users who follow someone in the graph
+ * are queued, and both the queue and the cache are bounded, so reads for arbitrary ids cannot
+ * grow them or the refresher's work without limit.
+ */
+@Service
+public class FriendSuggestionService {
+    private static final Logger logger = LoggerFactory.getLogger(FriendSuggestionService.class);
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+    public static final int MAX_MUTUAL_LIMIT = 100;
+    // follow lists expanded per user, so following thousands of accounts keeps the job bounded
+    static final int MAX_EXPANDED_FOLLOWS = 1000;
+    // users waiting for their first computation; reads beyond this are queued on a later read
+    static final int MAX_QUEUED_USERS = 10_000;
+    // cached users, least valuable evicted first, so the refresher's work per run is bounded
+    static final int MAX_CACHED_USERS = 100_000;
+
+    @Value("${app.suggestions.ttl-ms:600000}")
+    private long ttlMs;
+
+    @Value("${app.suggestions.refresh-after-ms:300000}")
+    private long refreshAfterMs;
+
+    @Autowired
+    private FollowGraphIndex followGraphIndex;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private UserService userService;
+
+    private final Cache<Long, CachedSuggestions> cache = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_USERS)
+            .build();
+
+    // users who asked for suggestions that are not cached yet, computed on the next refresh
+    private final Set<Long> requested = ConcurrentHashMap.newKeySet();
+
+    private static final class CachedSuggestions {
+        final List<FriendSuggestion> suggestions;
+        final long computedAt;
+        volatile long lastReadAt;
+
+        CachedSuggestions(List<FriendSuggestion> suggestions, long computedAt) {
+            this.suggestions = suggestions;
+            this.computedAt = computedAt;
+            this.lastReadAt = computedAt;
+        }
+    }
+
+    /**
+     * Returns the users followed by both userId and otherId.
+     * @param limit the maximum number of users, clamped to [1, MAX_MUTUAL_LIMIT]
+     * @return the mutual follows in ascending id order
+     * @throws IllegalArgumentException if an id is missing
+     */
+    public List<UserSummary> getMutual(Long userId, Long otherId, int limit) {
+        if (userId == null || otherId == null) {
+            throw new IllegalArgumentException("userId and otherId are required");
+        }
+        Roaring64NavigableMap mutual = followingBitmap(userId);
+        mutual.and(followingBitmap(otherId));
+        int max = Math.max(1, Math.min(limit, MAX_MUTUAL_LIMIT));
+        List<Long> ids = new ArrayList<>((int) Math.min(max, mutual.getLongCardinality()));
+        LongIterator it = mutual.getLongIterator();
+        while (it.hasNext() && ids.size() < max) {
+            ids.add(it.next());
+        }
+        Map<Long, String> usernames = userService.findUsernamesByIds(ids);
+        List<UserSummary> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            String username = usernames.get(id);
+            if (username != null) {
+                result.add(new UserSummary(id, username));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns follow suggestions for userId, most mutual connections first, from the cache.
+     * When none are cached yet the user is queued for the next refresh and the list is empty,
+     * so the request never waits on the computation. A user who follows nobody (or is not a
+     * user at all) has nothing to suggest and is not queued.
+     * @param limit the maximum number of suggestions, clamped to [1, MAX_LIMIT]
+     * @throws IllegalArgumentException if userId is missing
+     */
+    public List<FriendSuggestion> getSuggestions(Long userId, int limit) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        long now = System.currentTimeMillis();
+        CachedSuggestions cached = cache.getIfPresent(userId);
+        if (cached == null) {
+            if (followGraphIndex.isReady() && followGraphIndex.followingCount(userId) > 0
+                    && requested.size() < MAX_QUEUED_USERS) {
+                requested.add(userId);
+            }
+            return List.of();
+        }
+        // an old entry is still served; the read keeps it on the refresher's list
+        cached.lastReadAt = now;
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return cached.suggestions.subList(0, Math.min(max, cached.suggestions.size()));
+    }
+
+    /**
+     * Computes suggestions for users queued by getSuggestions, recomputes cached suggestions
+     * that are getting old for users still reading them, and evicts those nobody has read
+     * within the TTL.
+     */
+    @Scheduled(fixedDelayString = "${app.suggestions.refresh-interval-ms:60000}")
+    public void refreshSuggestions() {
+        if (!followGraphIndex.isReady()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int refreshed = 0;
+        for (Iterator<Long> it = requested.iterator(); it.hasNext(); ) {
+            Long userId = it.next();
+            it.remove();
+            cache.asMap().putIfAbsent(userId, new CachedSuggestions(computeSuggestions(userId), now));
+            refreshed++;
+        }
+        Map<Long, CachedSuggestions> entries = cache.asMap();
+        for (Map.Entry<Long, CachedSuggestions> entry : entries.entrySet()) {
+            CachedSuggestions cached = entry.getValue();
+            if (now - cached.lastReadAt >= ttlMs) {
+                entries.remove(entry.getKey(), cached);
+            } else if (now - cached.computedAt >= refreshAfterMs) {
+                CachedSuggestions fresh = new CachedSuggestions(computeSuggestions(entry.getKey()), now);
+                fresh.lastReadAt = cached.lastReadAt;
+                entries.replace(entry.getKey(), cached, fresh);
+                refreshed++;
+            }
+        }
+        if (refreshed > 0) {
+            logger.debug("Refreshed suggestions for {} users, {} cached", refreshed, cache.estimatedSize());
+        }
+    }
+
+    public int getCachedUserCount() {
+        return (int) cache.estimatedSize();
+    }
+
+    List<FriendSuggestion> computeSuggestions(long userId) {
+        long[] following = followGraphIndex.following(userId);
+        LongHashSet followed = new LongHashSet(following.length);
+        for (long id : following) {
+            followed.add(id);
+        }
+
+        // walk each followee's follow list once: how often a 2-hop candidate turns up is the
+        // number of people userId follows who follow it, so the cost is the followees' out-degrees
+        Map<Long, int[]> mutualCounts = new HashMap<>();
+        int expanded = 0;
+        for (long followee : following) {
+            if (expanded++ == MAX_EXPANDED_FOLLOWS) {
+                break;
+            }
+            for (long candidate : followGraphIndex.following(followee)) {
+                if (candidate != userId && !followed.contains(candidate)) {
+                    mutualCounts.computeIfAbsent(candidate, k -> new int[1])[0]++;
+                }
+            }
+        }
+
+        // min-heap on (mutual count, -id) holding the best MAX_LIMIT candidates
+        PriorityQueue<long[]> top = new PriorityQueue<>(MAX_LIMIT + 1,
+                (a, b) -> a[1] != b[1] ? Long.compare(a[1], b[1]) : Long.compare(b[0], a[0]));
+        for (Map.Entry<Long, int[]> entry : mutualCounts.entrySet()) {
+            top.offer(new long[]{entry.getKey(), entry.getValue()[0]});
+            if (top.size() > MAX_LIMIT) {
+                top.poll();
+            }
+        }
+
+        List<long[]> ranked = new ArrayList<>(top);
+        ranked.sort((a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]));
+        List<Long> ids = new ArrayList<>(ranked.size());
+        for (long[] entry : ranked) {
+            ids.add(entry[0]);
+        }
+        Map<Long, String> usernames = userService.findUsernamesByIds(ids);
+        List<FriendSuggestion> suggestions = new ArrayList<>(ranked.size());
+        for (long[] entry : ranked) {
+            String username = usernames.get(entry[0]);
+            if (username != null) {
+                suggestions.add(new FriendSuggestion(entry[0], username, (int) entry[1]));
+            }
+        }
+        return suggestions;
+    }
+
+    private Roaring64NavigableMap followingBitmap(long userId) {
+        if (followGraphIndex.isReady()) {
+            return Roaring64NavigableMap.bitmapOf(followGraphIndex.following(userId));
+        }
+        Roaring64NavigableMap bitmap = new Roaring64NavigableMap();
+        for (Long id : followRepository.findFollowingIdsByUserId(userId)) {
+            bitmap.addLong(id);
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,177 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.repository.PostLikeRepository;
+import com.c11.umastagram.repository.PostsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Likes are recorded as post_like rows immediately, but Posts.likes is updated
+ * write-behind: each like/unlike only bumps an in-memory LongAdder for the post, and
+ * flushPendingLikes() applies all accumulated deltas in one JDBC batch per interval.
+ * A hot post therefore costs one row update per interval instead of one per like,
+ * and concurrent likes never read-modify-write the posts row. flushOnShutdown() writes
+ * whatever is still pending when the application stops; only a crash loses the deltas
+ * of the last interval.
+ */
+@Service
+public class LikeService {
+    private static final Logger logger = LoggerFactory.getLogger(LikeService.class);
+
+    // identifiers are quoted so this matches the tables Hibernate creates with or without
+    // hibernate.globally_quoted_identifiers (Postgres folds unquoted names to lower case)
+    static final String FLUSH_SQL = "UPDATE \"posts\" SET \"likes\" = \"likes\" + ? WHERE \"id\" = ?";
+
+    @Autowired
+    private PostLikeRepository postLikeRepository;
+
+    @Autowired
+    private PostsRepository postsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    private final Map<Long, LongAdder> pendingDeltas = new ConcurrentHashMap<>();
+
+    /**
+     * Records that userId likes postId. Liking twice is a no-op.
+     * @param userId the ID of the user
+     * @param postId the ID of the post
+     * @return true if the like was new, false if the user already liked the post
+     * @throws IllegalArgumentException if either id is missing or the post does not exist
+     */
+    public boolean like(Long userId, Long postId) {
+        if (userId == null || postId == null) {
+            throw new IllegalArgumentException("userId and postId are required");
+        }
+        if (!postsRepository.existsById(postId)) {
+            throw new IllegalArgumentException("Post not found");
+        }
+        boolean inserted = postLikeRepository.insertIfAbsent(userId, postId, LocalDateTime.now()) > 0;
+        if (inserted) {
+            addDelta(postId, 1);
+            trendingService.recordLike(postId, 1);
+        }
+        return inserted;
+    }
+
+    /**
+     * Removes userId's like from postId. Unliking a post that is not liked is a no-op.
+     * @param userId the ID of the user
+     * @param postId the ID of the post
+     * @return true if a like was removed
+     */
+    public boolean unlike(Long userId, Long postId) {
+        if (userId == null || postId == null) {
+            throw new IllegalArgumentException("userId and postId are required");
+        }
+        boolean deleted = postLikeRepository.deleteLike(userId, postId) > 0;
+        if (deleted) {
+            addDelta(postId, -1);
+            trendingService.recordLike(postId, -1);
+        }
+        return deleted;
+    }
+
+    /**
+     * Returns the like count change for a post that has not been flushed yet, so callers
+     * can show posts.likes + pendingDelta as the current count.
+     * @param postId the ID of the post
+     * @return the unflushed delta (may be negative)
+     */
+    public long getPendingDelta(Long postId) {
+        LongAdder adder = pendingDeltas.get(postId);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Drops everything attached to a deleted post: its post_like rows and any unflushed delta.
+     * @param postId the ID of the deleted post
+     */
+    public void onPostDeleted(Long postId) {
+        pendingDeltas.remove(postId);
+        postLikeRepository.deleteAllByPostId(postId);
+    }
+
+    private void addDelta(Long postId, long delta) {
+        LongAdder adder = pendingDeltas.computeIfAbsent(postId, id -> new LongAdder());
+        adder.add(delta);
+        // flush may have evicted this adder concurrently; move whatever we left on the
+        // orphaned adder into the live one so it is not lost
+        if (pendingDeltas.get(postId) != adder) {
+            long orphaned = adder.sumThenReset();
+            if (orphaned != 0) {
+                addDelta(postId, orphaned);
+            }
+        }
+    }
+
+    /**
+     * Applies all pending like deltas to posts.likes in a single batched UPDATE. The batch
+     * runs in one transaction, so a failure applies none of it and the re-queued deltas
+     * are not counted twice.
+     */
+    @Scheduled(fixedDelayString = "${app.likes.flush-interval-ms:1000}")
+    public void flushPendingLikes() {
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pendingDeltas.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            if (delta == 0 && pendingDeltas.remove(entry.getKey(), adder)) {
+                // idle post: evict it, then pick up anything added between the reset and the removal
+                delta = adder.sumThenReset();
+            }
+            if (delta != 0) {
+                batch.add(new Object[]{delta, entry.getKey()});
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(
+                    status -> jdbcTemplate.batchUpdate(FLUSH_SQL, batch));
+        } catch (Exception e) {
+            // put the deltas back so the next flush retries them
+            for (Object[] row : batch) {
+                addDelta((Long) row[1], (Long) row[0]);
+            }
+            logger.warn("Failed to flush like counters for {} posts: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes the deltas still pending at shutdown. Spring cancels the scheduled flush and
+     * the web server stops taking requests before beans are destroyed, so nothing is added
+     * after this runs.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushPendingLikes();
+        long unflushed = pendingDeltas.values().stream().filter(adder -> adder.sum() != 0).count();
+        if (unflushed > 0) {
+            logger.error("Shutting down with unflushed like counters for {} posts", unflushed);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.dto.MediaUploadResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed local image store. An upload is streamed to a temp file while its
+ * SHA-256 is computed, then moved to {hash}.{ext}; identical uploads therefore share
+ * one file, and a stored file never changes, so it can be cached forever.
+ * Thumbnails ({hash}_thumb.{ext}) are rendered afterwards on the thumbnail executor.
+ *
+ * The stored type comes from the file's magic bytes, not the client's Content-Type, and
+ * images with more than app.media.max-pixels pixels are rejected from their header alone,
+ * since a small compressed file can decode to gigabytes. Thumbnails are decoded subsampled,
+ * so rendering one never holds the full-resolution image in memory.
+ */
+@Service
+public class MediaService {
+    private static final Logger logger = LoggerFactory.getLogger(MediaService.class);
+
+    public static final int THUMBNAIL_SIZE = 320;
+    static final String THUMBNAIL_SUFFIX = "_thumb";
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            MediaType.IMAGE_JPEG_VALUE, "jpg",
+            MediaType.IMAGE_PNG_VALUE, "png",
+            MediaType.IMAGE_GIF_VALUE, "gif",
+            "image/webp", "webp");
+
+    // only names this class generates are resolvable, which also rules out path traversal
+    private static final Pattern NAME = Pattern.compile("[0-9a-f]{64}(" + THUMBNAIL_SUFFIX + ")?\\.(jpg|png|gif|webp)");
+
+    @Value("${app.media.dir:media}")
+    private String mediaDir;
+
+    @Value("${app.media.max-pixels:50000000}")
+    private long maxPixels;
+
+    @Autowired
+    @Qualifier("thumbnailExecutor")
+    private Executor thumbnailExecutor;
+
+    /**
+     * Stores an uploaded image and schedules its thumbnail.
+     * @param file the uploaded file; only JPEG, PNG, GIF and WebP are accepted
+     * @return the stored name plus the URLs it is served under
+     * @throws IllegalArgumentException if the file is empty, not a supported image type or
+     *         has more than app.media.max-pixels pixels
+     * @throws IOException if writing to the store fails
+     */
+    public MediaUploadResponse store(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("file is required");
+        }
+
+        Path root = Paths.get(mediaDir);
+        Files.createDirectories(root);
+        Path temp = Files.createTempFile(root, "upload-", ".tmp");
+        String hash;
+        String extension;
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            hash = HexFormat.of().formatHex(digest.digest());
+
+            extension = sniffExtension(temp);
+            if (extension == null) {
+                throw new IllegalArgumentException("Unsupported image type: " + file.getContentType());
+            }
+            if (pixels(temp) > maxPixels) {
+                throw new IllegalArgumentException("Image must have at most " + maxPixels + " pixels");
+            }
+
+            Path target = resolve(hash + "." + extension);
+            Files.createDirectories(target.getParent());
+            if (Files.exists(target)) {
+                // same content was uploaded before
+                Files.delete(temp);
+            } else {
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        String name = hash + "." + extension;
+        String thumbnailName = hash + THUMBNAIL_SUFFIX + "." + extension;
+        scheduleThumbnail(name, thumbnailName);
+        return new MediaUploadResponse(name, "/api/media/" + name, "/api/media/" + thumbnailName, file.getSize());
+    }
+
+    /**
+     * Looks up a stored file by name. A thumbnail that has not been rendered (yet)
+     * resolves to its original image.
+     * @param name a name returned by store()
+     * @return the file, or null if the name is invalid or nothing is stored under it
+     */
+    public Path find(String name) {
+        if (name == null || !NAME.matcher(name).matches()) {
+            return null;
+        }
+        Path path = resolve(name);
+        if (!Files.isRegularFile(path) && name.contains(THUMBNAIL_SUFFIX)) {
+            path = resolve(name.replace(THUMBNAIL_SUFFIX, ""));
+        }
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    /**
+     * Returns the content type for a stored file name.
+     */
+    public MediaType contentType(String name) {
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        for (Map.Entry<String, String> entry : EXTENSIONS.entrySet()) {
+            if (entry.getValue().equals(extension)) {
+                return MediaType.parseMediaType(entry.getKey());
+            }
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    // files are spread over 256 subdirectories by the first byte of the hash
+    private Path resolve(String name) {
+        return Paths.get(mediaDir, name.substring(0, 2), name);
+    }
+
+    private void scheduleThumbnail(String name, String thumbnailName) {
+        if (Files.exists(resolve(thumbnailName))) {
+            return;
+        }
+        try {
+            thumbnailExecutor.execute(() -> writeThumbnail(name, thumbnailName));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Thumbnail queue full, skipping thumbnail for {}", name);
+        }
+    }
+
+    void writeThumbnail(String name, String thumbnailName) {
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        try {
+            BufferedImage source = readSubsampled(resolve(name));
+            if (source == null) {
+                // no ImageIO reader for this format (e.g. WebP), or too large; the original is served instead
+                return;
+            }
+            double scale = Math.min(1.0, (double) THUMBNAIL_SIZE / Math.max(source.getWidth(), source.getHeight()));
+            int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+            int type = "png".equals(extension) || "gif".equals(extension)
+                    ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+            BufferedImage thumbnail = new BufferedImage(width, height, type);
+            Graphics2D g = thumbnail.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(source, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+
+            Path target = resolve(thumbnailName);
+            Path temp = Files.createTempFile(target.getParent(), "thumb-", ".tmp");
+            try {
+                String format = "jpg".equals(extension) ? "jpeg" : extension;
+                if (!ImageIO.write(thumbnail, format, temp.toFile())) {
+                    return;
+                }
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to render thumbnail for {}: {}", name, e.getMessage());
+        }
+    }
+
+    // the first bytes of each supported format; WebP is RIFF....WEBP
+    private static String sniffExtension(Path file) throws IOException {
+        byte[] head = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        if (read >= 3 && (head[0] & 0xff) == 0xff && (head[1] & 0xff) == 0xd8 && (head[2] & 0xff) == 0xff) {
+            return "jpg";
+        }
+        if (read >= 8 && Arrays.equals(head, 0, 8, new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'}, 0, 8)) {
+            return "png";
+        }
+        if (read >= 6 && (startsWith(head, "GIF87a") || startsWith(head, "GIF89a"))) {
+            return "gif";
+        }
+        if (read >= 12 && startsWith(head, "RIFF") && Arrays.equals(head, 8, 12, "WEBP".getBytes(), 0, 4)) {
+            return "webp";
+        }
+        return null;
+    }
+
+    private static boolean startsWith(byte[] head, String magic) {
+        return Arrays.equals(head, 0, magic.length(), magic.getBytes(), 0, magic.length());
+    }
+
+    /**
+     * @return width times height from the image header, or 0 if ImageIO cannot read the format
+     */
+    private static long pixels(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = reader(in);
+            if (reader == null) {
+                return 0;
+            }
+            try {
+                return (long) reader.getWidth(0) * reader.getHeight(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Decodes an image keeping only every n-th pixel in each direction, with n chosen so the
+     * longer side stays at least THUMBNAIL_SIZE.
+     * @return the decoded image, or null if ImageIO cannot read the format or it has more
+     *         than app.media.max-pixels pixels
+     */
+    private BufferedImage readSubsampled(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = reader(in);
+            if (reader == null) {
+                return null;
+            }
+            try {
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    logger.warn("Not rendering a thumbnail for {}: {}x{} pixels", file.getFileName(), width, height);
+                    return null;
+                }
+                int step = Math.max(1, Math.max(width, height) / THUMBNAIL_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader reader(ImageInputStream in) {
+        if (in == null) {
+            return null;
+        }
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+        if (!readers.hasNext()) {
+            return null;
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(in, true, true);
+        return reader;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.c11.umastagram.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt password hashing on the passwordHashExecutor pool. A hash at the default cost takes
+ * tens of milliseconds of CPU, so callers get a CompletableFuture instead of spending a
+ * request thread on it; when the pool's queue is full the future fails at once with a
+ * RejectedExecutionException.
+ *
+ * The cost is app.password.bcrypt-cost. Stored hashes made at another cost, and passwords
+ * stored before hashing was added (plaintext), still verify; needsRehash() tells the caller
+ * to replace them with a fresh hash after a successful login.
+ */
+@Service
+public class PasswordHasher {
+    // $2a$10$..., $2b$..., $2y$...: the version and the two-digit cost
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$[./A-Za-z0-9]{53}$");
+
+    private final Executor executor;
+    private final int cost;
+    private final BCryptPasswordEncoder encoder;
+
+    @Autowired
+    public PasswordHasher(@Qualifier("passwordHashExecutor") Executor executor,
+                          @Value("${app.password.bcrypt-cost:10}") int cost) {
+        this.executor = executor;
+        this.cost = cost;
+        this.encoder = new BCryptPasswordEncoder(cost);
+    }
+
+    /**
+     * @return a future of the BCrypt hash of raw at the configured cost
+     */
+    public CompletableFuture<String> hash(String raw) {
+        return submit(() -> encoder.encode(raw));
+    }
+
+    /**
+     * Checks raw against a stored password, which may be a BCrypt hash at any cost or a
+     * legacy plaintext password.
+     * @return a future of true if they match; false if either is null
+     */
+    public CompletableFuture<Boolean> matches(String raw, String stored) {
+        if (raw == null || stored == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!isHash(stored)) {
+            // compared in constant time, like the hash check
+            return CompletableFuture.completedFuture(MessageDigest.isEqual(
+                    raw.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8)));
+        }
+        return submit(() -> encoder.matches(raw, stored));
+    }
+
+    /**
+     * @return true if stored is plaintext or a hash made at a cost other than the configured one
+     */
+    public boolean needsRehash(String stored) {
+        if (stored == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT.matcher(stored);
+        return !matcher.matches() || Integer.parseInt(matcher.group(1)) != cost;
+    }
+
+    /**
+     * @return true if value looks like a BCrypt hash rather than a plaintext password
+     */
+    public boolean isHash(String value) {
+        return value != null && BCRYPT.matcher(value).matches();
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.repository.PostsRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over Posts.text.
+ *
+ * The default backend ("memory") is an in-process inverted index: each term maps to a
+ * sorted long[] of post ids, and a query is answered by intersecting those arrays,
+ * smallest first. The index is rebuilt from the posts table at startup and kept up to
+ * date by index()/remove() as posts are created and deleted.
+ *
+ * With app.search.backend=postgres the index is not built; queries go to a
+ * to_tsvector/plainto_tsquery match backed by a GIN expression index instead.
+ */
+@Service
+public class PostSearchService {
+    private static final Logger logger = LoggerFactory.getLogger(PostSearchService.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    static final int MAX_TERM_LENGTH = 64;
+
+    @Value("${app.search.backend:memory}")
+    private String backend;
+
+    @Autowired
+    private PostsRepository postsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, PostingList> index = new HashMap<>();
+
+    // changes made while a rebuild is streaming the table, replayed onto the new index
+    private List<Change> pendingChanges;
+
+    private record Change(long postId, String text, boolean removed) {}
+
+    /**
+     * Searches posts whose text contains every term of the query.
+     * @param query free text; split into terms the same way post text is
+     * @param limit the maximum number of results, clamped to [1, MAX_LIMIT]
+     * @return matching posts, newest (highest id) first
+     * @throws IllegalArgumentException if the query contains no terms
+     */
+    public List<Posts> search(String query, int limit) {
+        Set<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("q is required");
+        }
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        if (isPostgres()) {
+            return postsRepository.searchFullText(String.join(" ", terms), max);
+        }
+
+        long[] ids = findIds(terms, max);
+        if (ids.length == 0) {
+            return List.of();
+        }
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            idList.add(id);
+        }
+        List<Posts> posts = new ArrayList<>(postsRepository.findAllById(idList));
+        posts.sort(Comparator.comparing(Posts::getId).reversed());
+        return posts;
+    }
+
+    /**
+     * Returns the ids of the newest posts containing all the terms.
+     */
+    long[] findIds(Collection<String> terms, int limit) {
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = index.get(term);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            long[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = intersect(result, lists.get(i).ids, lists.get(i).size);
+            }
+            // ids are ascending; the newest posts are at the end
+            int count = Math.min(limit, result.length);
+            long[] newest = new long[count];
+            for (int i = 0; i < count; i++) {
+                newest[i] = result[result.length - 1 - i];
+            }
+            return newest;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a post to the index.
+     * @param post a saved post (with id)
+     */
+    public void index(Posts post) {
+        if (isPostgres() || post == null || post.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            addToIndex(index, post.getId(), post.getText());
+            if (pendingChanges != null) {
+                pendingChanges.add(new Change(post.getId(), post.getText(), false));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a post from the index. Call after the post row is deleted, with the post
+     * as loaded before the delete, since its text is needed to find its terms.
+     * @param post the deleted post
+     */
+    public void remove(Posts post) {
+        if (isPostgres() || post == null || post.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeFromIndex(index, post.getId(), post.getText());
+            if (pendingChanges != null) {
+                pendingChanges.add(new Change(post.getId(), post.getText(), true));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Builds the index from the posts table (or, for the postgres backend, makes sure
+     * the GIN index exists).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (isPostgres()) {
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_posts_text_fts ON posts USING GIN (to_tsvector('simple', text))");
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        Map<String, PostingList> fresh = new HashMap<>();
+        try {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            tx.executeWithoutResult(status -> {
+                try (Stream<Posts> posts = postsRepository.streamAllPosts()) {
+                    posts.forEach(post -> {
+                        addToIndex(fresh, post.getId(), post.getText());
+                        entityManager.detach(post);
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Search index rebuild failed, keeping incremental index: {}", e.getMessage());
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // adds and removes are idempotent, so replaying changes the stream already saw is harmless
+            for (Change change : pendingChanges) {
+                if (change.removed()) {
+                    removeFromIndex(fresh, change.postId(), change.text());
+                } else {
+                    addToIndex(fresh, change.postId(), change.text());
+                }
+            }
+            pendingChanges = null;
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Search index rebuilt: {} terms in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    private boolean isPostgres() {
+        return "postgres".equalsIgnoreCase(backend);
+    }
+
+    private static void addToIndex(Map<String, PostingList> target, long postId, String text) {
+        for (String term : tokenize(text)) {
+            target.computeIfAbsent(term, t -> new PostingList()).add(postId);
+        }
+    }
+
+    private static void removeFromIndex(Map<String, PostingList> target, long postId, String text) {
+        for (String term : tokenize(text)) {
+            PostingList list = target.get(term);
+            if (list != null && list.remove(postId) && list.size == 0) {
+                target.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Splits text into lower-case terms of letters and digits.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Intersects a sorted array with the first bSize entries of another. Each element of
+     * the (smaller) first array is located in the second with an exponential search from
+     * the previous match, so the cost grows with the smaller list.
+     */
+    static long[] intersect(long[] a, long[] b, int bSize) {
+        long[] out = new long[Math.min(a.length, bSize)];
+        int n = 0;
+        int from = 0;
+        for (long value : a) {
+            int bound = 1;
+            while (from + bound < bSize && b[from + bound] < value) {
+                bound <<= 1;
+            }
+            int pos = Arrays.binarySearch(b, from, Math.min(from + bound + 1, bSize), value);
+            if (pos >= 0) {
+                out[n++] = value;
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+            if (from >= bSize) {
+                break;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Sorted, growable array of post ids. New posts have the highest ids, so adds are
+     * almost always appends.
+     */
+    static final class PostingList {
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) {
+                    return;
+                }
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        boolean remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+
+        private void insertAt(int pos, long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+    }
+}
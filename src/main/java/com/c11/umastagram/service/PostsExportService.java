@@ -0,0 +1,78 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.repository.PostsRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the posts table to an output stream one row at a time, so memory use stays
+ * constant regardless of how many posts there are.
+ */
+@Service
+public class PostsExportService {
+    private static final int FLUSH_EVERY = 500;
+
+    @Autowired
+    private PostsRepository postsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Streams all posts to out, either as a single JSON array or as NDJSON
+     * (one JSON object per line).
+     * @param out the stream to write to; it is flushed but not closed
+     * @param ndjson true for NDJSON, false for a JSON array
+     * @throws IOException if writing to out fails
+     */
+    @Transactional(readOnly = true)
+    public void writePosts(OutputStream out, boolean ndjson) throws IOException {
+        // flushing is done in batches below rather than after every row
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        if (ndjson) {
+            writer = writer.withRootValueSeparator("\n");
+        }
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        if (!ndjson) {
+            generator.writeStartArray();
+        }
+
+        int written = 0;
+        try (Stream<Posts> posts = postsRepository.streamAllPosts()) {
+            Iterator<Posts> iterator = posts.iterator();
+            while (iterator.hasNext()) {
+                Posts post = iterator.next();
+                writer.writeValue(generator, post);
+                // keep the persistence context from growing with the table
+                entityManager.detach(post);
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+
+        if (!ndjson) {
+            generator.writeEndArray();
+        } else if (written > 0) {
+            generator.writeRaw('\n');
+        }
+        generator.close();
+        out.flush();
+    }
+}
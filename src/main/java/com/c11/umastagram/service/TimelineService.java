@@ -0,0 +1,307 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.model.Timeline;
+import com.c11.umastagram.repository.FollowRepository;
+import com.c11.umastagram.repository.PostsRepository;
+import com.c11.umastagram.repository.TimelineRepository;
+import com.c11.umastagram.util.KeysetCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Fan-out-on-write home timelines.
+ * When a post is created its id is pushed (asynchronously) into a bounded ring of recent
+ * post ids for every follower of the author, and persisted to the timeline table so the
+ * rings can be rebuilt after a restart. Authors with more than fanoutThreshold followers
+ * are not pushed; readers pull their posts at read time instead (fan-out-on-read).
+ *
+ * A ring is rebuilt from the follow/posts join unless the table holds a full ring's worth
+ * of entries, since fan-out and invalidate() leave partial tables behind. A ring rebuilt
+ * with room to spare holds every post of the users followed, so a feed page that runs
+ * past its end is the end of the feed; every other ring only vouches for what it holds.
+ */
+@Service
+public class TimelineService {
+    private static final Logger logger = LoggerFactory.getLogger(TimelineService.class);
+
+    @Autowired
+    private TimelineRepository timelineRepository;
+
+    @Autowired
+    private FollowRepository followRepository;
+
+    @Autowired
+    private PostsRepository postsRepository;
+
+    @Autowired
+    @Qualifier("timelineExecutor")
+    private Executor timelineExecutor;
+
+    @Value("${app.timeline.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.timeline.capacity:100}")
+    private int capacity;
+
+    @Value("${app.timeline.fanout-threshold:10000}")
+    private long fanoutThreshold;
+
+    @Value("${app.timeline.max-resident-users:20000}")
+    private int maxResidentUsers;
+
+    @Value("${app.timeline.retention-days:30}")
+    private int retentionDays;
+
+    private final Map<Long, TimelineRing> rings = new ConcurrentHashMap<>();
+
+    // authors whose posts are pulled at read time: too many followers, or their fan-out was rejected
+    private final Set<Long> readFanoutAuthors = ConcurrentHashMap.newKeySet();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHighFollowerAuthors() {
+        if (!enabled) {
+            return;
+        }
+        readFanoutAuthors.addAll(followRepository.findUserIdsWithMoreFollowersThan(fanoutThreshold));
+        logger.info("Timeline fan-out: {} authors above the {} follower threshold", readFanoutAuthors.size(), fanoutThreshold);
+    }
+
+    /**
+     * Schedules pushing a newly created post into its author's followers' timelines.
+     * Never blocks the caller: if the executor queue is full the author is switched to
+     * fan-out-on-read instead.
+     * @param post the saved post
+     */
+    public void fanOut(Posts post) {
+        if (!enabled || post == null || post.getId() == null || post.getUserId() == null) {
+            return;
+        }
+        try {
+            timelineExecutor.execute(() -> pushToFollowers(post));
+        } catch (RejectedExecutionException e) {
+            readFanoutAuthors.add(post.getUserId());
+            logger.warn("Timeline fan-out queue full, post {} by user {} will be read via fan-out-on-read",
+                    post.getId(), post.getUserId());
+        }
+    }
+
+    void pushToFollowers(Posts post) {
+        Long authorId = post.getUserId();
+        if (readFanoutAuthors.contains(authorId)) {
+            return;
+        }
+        if (followRepository.countFollowersByUserId(authorId) > fanoutThreshold) {
+            readFanoutAuthors.add(authorId);
+            return;
+        }
+
+        List<Long> followerIds = followRepository.findFollowerIdsByUserId(authorId);
+        List<Timeline> entries = new ArrayList<>(followerIds.size());
+        for (Long followerId : followerIds) {
+            entries.add(new Timeline(followerId, post.getId(), post.getDatePosted()));
+        }
+        try {
+            timelineRepository.saveAll(entries);
+        } catch (Exception e) {
+            logger.warn("Failed to persist timeline entries for post {}: {}", post.getId(), e.getMessage());
+        }
+        // push after persisting so a ring loaded from the table in between still ends up with the post
+        for (Long followerId : followerIds) {
+            TimelineRing ring = rings.get(followerId);
+            if (ring != null) {
+                ring.push(post.getId(), post.getDatePosted());
+            }
+        }
+    }
+
+    /**
+     * One page of post ids from a user's timeline.
+     * @param postIds up to limit post ids after the cursor, in feed order (datePosted DESC, id DESC)
+     * @param more true if the timeline holds more ids past these
+     * @param complete true if the timeline holds every pushed post of the users followed, so
+     *                 there is nothing past its oldest entry
+     * @param oldest the oldest entry of the timeline, or null if it is empty
+     */
+    public record TimelinePage(List<Long> postIds, boolean more, boolean complete, KeysetCursor oldest) {}
+
+    /**
+     * Returns the post ids on a user's timeline that come after a cursor. Loads the ring on
+     * first access, from the timeline table if it holds a full ring and from the follow graph
+     * otherwise.
+     * @param userId the ID of the timeline owner
+     * @param after the cursor to read after, or null for the newest posts
+     * @param limit the maximum number of ids to return
+     * @return the page, which never holds more than capacity ids
+     */
+    public TimelinePage getTimelinePage(Long userId, KeysetCursor after, int limit) {
+        TimelineRing ring = rings.get(userId);
+        if (ring == null) {
+            ring = loadRing(userId);
+            if (rings.size() < maxResidentUsers) {
+                TimelineRing existing = rings.putIfAbsent(userId, ring);
+                if (existing != null) {
+                    ring = existing;
+                }
+            }
+        }
+        return ring.page(after, limit);
+    }
+
+    private TimelineRing loadRing(Long userId) {
+        List<Timeline> stored = timelineRepository.findRecentEntries(userId, PageRequest.of(0, capacity));
+        if (stored.size() >= capacity) {
+            // full, so whatever the table lacks is older than anything the ring will vouch for
+            TimelineRing ring = new TimelineRing(capacity, false);
+            for (Timeline entry : stored) {
+                ring.push(entry.getPostId(), entry.getDatePosted());
+            }
+            return ring;
+        }
+
+        // a partial table only holds what was pushed since the last backfill, so rebuild
+        List<Posts> recent = postsRepository.findFeedFirstPage(userId, PageRequest.of(0, capacity));
+        Set<Long> storedIds = new HashSet<>(stored.size() * 2);
+        for (Timeline entry : stored) {
+            storedIds.add(entry.getPostId());
+        }
+        TimelineRing ring = new TimelineRing(capacity, recent.size() < capacity);
+        List<Timeline> missing = new ArrayList<>(recent.size());
+        for (Posts post : recent) {
+            ring.push(post.getId(), post.getDatePosted());
+            if (!storedIds.contains(post.getId())) {
+                missing.add(new Timeline(userId, post.getId(), post.getDatePosted()));
+            }
+        }
+        if (!missing.isEmpty()) {
+            try {
+                timelineRepository.saveAll(missing);
+            } catch (Exception e) {
+                logger.warn("Failed to persist backfilled timeline for user {}: {}", userId, e.getMessage());
+            }
+        }
+        return ring;
+    }
+
+    /**
+     * Returns the authors followed by userId whose posts are not pushed to timelines and
+     * must be read with fan-out-on-read.
+     * @param userId the ID of the timeline owner
+     * @return list of author ids (usually empty)
+     */
+    public List<Long> getReadFanoutAuthors(Long userId) {
+        if (readFanoutAuthors.isEmpty()) {
+            return List.of();
+        }
+        return followRepository.findFollowedAmong(userId, new ArrayList<>(readFanoutAuthors));
+    }
+
+    /**
+     * Drops a user's timeline so it is rebuilt from the follow graph on the next read.
+     * Called whenever the set of users they follow changes.
+     * @param userId the ID of the timeline owner
+     */
+    public void invalidate(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        rings.remove(userId);
+        timelineRepository.deleteByUserId(userId);
+    }
+
+    @Scheduled(cron = "${app.timeline.trim-cron:0 0 4 * * *}")
+    public void trimOldEntries() {
+        int deleted = timelineRepository.deleteOlderThan(LocalDateTime.now().minusDays(retentionDays));
+        logger.info("Trimmed {} timeline entries older than {} days", deleted, retentionDays);
+    }
+
+    /**
+     * Bounded list of post ids in feed order (datePosted DESC, id DESC). Pushing onto a full
+     * ring drops its oldest id. complete stays true only until the ring drops an id.
+     */
+    static final class TimelineRing {
+        private final long[] ids;
+        private final LocalDateTime[] dates;
+        private int size;
+        private boolean complete;
+
+        TimelineRing(int capacity, boolean complete) {
+            this.ids = new long[Math.max(1, capacity)];
+            this.dates = new LocalDateTime[ids.length];
+            this.complete = complete;
+        }
+
+        synchronized void push(long postId, LocalDateTime datePosted) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == postId) {
+                    return;
+                }
+            }
+            // fan-out runs asynchronously, so posts do not always arrive newest last
+            int pos = 0;
+            while (pos < size && isNewer(dates[pos], ids[pos], datePosted, postId)) {
+                pos++;
+            }
+            if (size == ids.length) {
+                complete = false;
+                if (pos == size) {
+                    return;
+                }
+                size--;
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            System.arraycopy(dates, pos, dates, pos + 1, size - pos);
+            ids[pos] = postId;
+            dates[pos] = datePosted;
+            size++;
+        }
+
+        synchronized TimelinePage page(KeysetCursor after, int limit) {
+            int from = 0;
+            if (after != null) {
+                while (from < size && !isNewer(after.getTimestamp(), after.getId(), dates[from], ids[from])) {
+                    from++;
+                }
+            }
+            int to = Math.min(size, from + Math.max(0, limit));
+            List<Long> postIds = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                postIds.add(ids[i]);
+            }
+            KeysetCursor oldest = size == 0 ? null : new KeysetCursor(dates[size - 1], ids[size - 1]);
+            return new TimelinePage(postIds, to < size, complete, oldest);
+        }
+
+        // true if (date, id) comes before (otherDate, otherId) in feed order
+        private static boolean isNewer(LocalDateTime date, long id, LocalDateTime otherDate, long otherId) {
+            int byDate = date.compareTo(otherDate);
+            return byDate > 0 || (byDate == 0 && id > otherId);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.repository.PostsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trending posts.
+ * Likes and comments are counted per post in a ring of time buckets covering the last
+ * bucketCount * bucketSeconds. Every refresh, each bucket's counts are decayed by its
+ * age (halving every halfLifeSeconds) and added to a base score from the posts' likes
+ * column, and a bounded min-heap keeps the best size posts. The result is published as
+ * an immutable snapshot, so reads never touch the database or sort anything.
+ */
+@Service
+public class TrendingService {
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    @Autowired
+    private PostsRepository postsRepository;
+
+    @Value("${app.trending.size:50}")
+    private int size;
+
+    @Value("${app.trending.bucket-seconds:60}")
+    private int bucketSeconds;
+
+    @Value("${app.trending.bucket-count:60}")
+    private int bucketCount;
+
+    @Value("${app.trending.half-life-seconds:1800}")
+    private long halfLifeSeconds;
+
+    @Value("${app.trending.comment-weight:2}")
+    private int commentWeight;
+
+    private volatile Bucket[] buckets;
+
+    private volatile List<Posts> snapshot = List.of();
+
+    /**
+     * Counts a like (delta 1) or unlike (delta -1) towards a post's trending score.
+     */
+    public void recordLike(Long postId, int delta) {
+        record(postId, delta, System.currentTimeMillis());
+    }
+
+    /**
+     * Counts a new comment towards a post's trending score.
+     */
+    public void recordComment(Long postId) {
+        record(postId, commentWeight, System.currentTimeMillis());
+    }
+
+    /**
+     * Returns the current trending posts, best first.
+     * @param limit the maximum number of posts to return
+     * @return an unmodifiable view of the latest snapshot
+     */
+    public List<Posts> getTrending(int limit) {
+        List<Posts> current = snapshot;
+        return current.subList(0, Math.max(0, Math.min(limit, current.size())));
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    void record(Long postId, long weight, long nowMillis) {
+        if (postId == null) {
+            return;
+        }
+        long slot = nowMillis / (bucketSeconds * 1000L);
+        Bucket bucket = buckets()[(int) (slot % bucketCount)];
+        if (bucket.slot != slot) {
+            synchronized (bucket) {
+                if (bucket.slot != slot) {
+                    // the ring has wrapped around: this bucket's counts are older than the window
+                    bucket.counts.clear();
+                    bucket.slot = slot;
+                }
+            }
+        }
+        bucket.counts.computeIfAbsent(postId, id -> new LongAdder()).add(weight);
+    }
+
+    /**
+     * Recomputes scores and publishes a new snapshot.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.refresh-ms:5000}",
+               initialDelayString = "${app.trending.refresh-ms:5000}")
+    public void refresh() {
+        try {
+            refresh(System.currentTimeMillis());
+        } catch (Exception e) {
+            logger.warn("Failed to refresh trending posts: {}", e.getMessage());
+        }
+    }
+
+    void refresh(long nowMillis) {
+        long currentSlot = nowMillis / (bucketSeconds * 1000L);
+        Map<Long, Double> scores = new HashMap<>();
+        for (Bucket bucket : buckets()) {
+            long age = currentSlot - bucket.slot;
+            if (bucket.slot < 0 || age < 0 || age >= bucketCount) {
+                continue;
+            }
+            double factor = decay(age * bucketSeconds);
+            for (Map.Entry<Long, LongAdder> entry : bucket.counts.entrySet()) {
+                scores.merge(entry.getKey(), entry.getValue().sum() * factor, Double::sum);
+            }
+        }
+
+        // base score from the likes column, so posts keep ranking across restarts
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = now.minusSeconds((long) bucketSeconds * bucketCount);
+        Map<Long, Posts> loaded = new HashMap<>();
+        for (Posts post : postsRepository.findMostLikedSince(since, PageRequest.of(0, size))) {
+            loaded.put(post.getId(), post);
+            double age = Math.max(0, Duration.between(post.getDatePosted(), now).getSeconds());
+            scores.merge(post.getId(), post.getLikes() * decay(age), Double::sum);
+        }
+
+        // keep the best `size` posts: the heap's head is the weakest one kept so far
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(size + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (entry.getValue() <= 0) {
+                continue;
+            }
+            if (heap.size() < size) {
+                heap.offer(entry);
+            } else if (entry.getValue() > heap.peek().getValue()) {
+                heap.poll();
+                heap.offer(entry);
+            }
+        }
+
+        long[] ranked = new long[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap.poll().getKey();
+        }
+
+        List<Long> missing = new ArrayList<>();
+        for (long id : ranked) {
+            if (!loaded.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Posts post : postsRepository.findAllById(missing)) {
+                loaded.put(post.getId(), post);
+            }
+        }
+
+        List<Posts> next = new ArrayList<>(ranked.length);
+        for (long id : ranked) {
+            Posts post = loaded.get(id);
+            // deleted posts drop out here
+            if (post != null) {
+                next.add(post);
+            }
+        }
+        snapshot = Collections.unmodifiableList(next);
+    }
+
+    private double decay(double ageSeconds) {
+        return Math.pow(0.5, ageSeconds / halfLifeSeconds);
+    }
+
+    private Bucket[] buckets() {
+        Bucket[] current = buckets;
+        if (current == null) {
+            synchronized (this) {
+                if (buckets == null) {
+                    Bucket[] created = new Bucket[bucketCount];
+                    for (int i = 0; i < created.length; i++) {
+                        created[i] = new Bucket();
+                    }
+                    buckets = created;
+                }
+                current = buckets;
+            }
+        }
+        return current;
+    }
+
+    private static final class Bucket {
+        volatile long slot = -1;
+        final Map<Long, LongAdder> counts = new ConcurrentHashMap<>();
+    }
+}
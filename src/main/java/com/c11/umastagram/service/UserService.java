@@ -7,31 +7,125 @@
  */
 package com.c11.umastagram.service;
 
+import com.c11.umastagram.config.CacheConfig;
+import com.c11.umastagram.dto.UserConflicts;
+import com.c11.umastagram.dto.UserProfile;
+import com.c11.umastagram.dto.UserSummary;
 import com.c11.umastagram.model.User;
 import com.c11.umastagram.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class UserService {
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    // ids per IN list in findUsernamesByIds, to stay well inside database parameter limits
+    static final int ID_BATCH_SIZE = 500;
+
+    // users per findProfiles call, so one request stays one IN list per kind of key
+    public static final int MAX_BATCH_USERS = 200;
+
+    private static final Pattern VIOLATED_COLUMN = Pattern.compile("(?i)(?:key \\(|uma_user\"?\\()\"?(\\w+)");
+
+    // google_username has no unique constraint (Google display names are not unique), so
+    // it is neither checked by findConflicts nor mapped here
+    private static final Map<String, String> COLUMN_MESSAGES = Map.of(
+            "user_id", "User ID already exists",
+            "email", "Email already exists",
+            "username", "Username already exists",
+            "github_id", "GitHub ID already exists",
+            "github_username", "GitHub Username already exists",
+            "google_id", "Google ID already exists");
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UsernameIndex usernameIndex;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     /**
      * Saves a user to the repository after validating the input. Ensures
-     * that required fields are present and unique constraints are met.
+     * that required fields are present and unique constraints are met; all
+     * unique fields are checked by one query, and a constraint violation on
+     * insert is reported with the same field message.
      * Trims whitespace from string fields and converts email to lowercase.
+     * The password is stored as a BCrypt hash (see PasswordHasher).
+     * Waits for the hash; request handlers should use saveUserAsync instead.
      * @param user The user to be saved
      * @return The saved user
      * @throws IllegalArgumentException if required fields are missing or invalid
+     * @throws RejectedExecutionException if the password hashing pool is saturated
      */
     public User saveUser(User user) {
-        
+        CompletableFuture<String> hashed = validateNewUser(user);
+        try {
+            String hash = hashed.join();
+            if (hash != null) {
+                user.setPassword(hash);
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return insertUser(user);
+    }
+
+    /**
+     * Validates a user like saveUser, then hashes the password on the password hashing pool
+     * and saves the user once it is done, without holding the calling thread meanwhile.
+     * @param user The user to be saved
+     * @return A future of the saved user; it fails with IllegalArgumentException if another
+     *         signup took a unique value first, or RejectedExecutionException if the password
+     *         hashing pool is saturated
+     * @throws IllegalArgumentException if required fields are missing, invalid or taken
+     */
+    public CompletableFuture<User> saveUserAsync(User user) {
+        return validateNewUser(user).thenApply(hash -> {
+            if (hash != null) {
+                user.setPassword(hash);
+            }
+            return insertUser(user);
+        });
+    }
+
+    /**
+     * Validates and normalizes the fields of a new user and checks them for conflicts.
+     * @return A future of the password hash, or of null if the user has no password
+     * @throws IllegalArgumentException if required fields are missing, invalid or taken
+     */
+    private CompletableFuture<String> validateNewUser(User user) {
         // check for invalid user field entries (MUST HAVE EMAIL, USERNAME, PASSWORD)
         String email = user.getEmail() == null || user.getEmail().isEmpty() ? null : user.getEmail().trim().toLowerCase();
         String username = user.getUsername() == null|| user.getUsername().isEmpty() ? null : user.getUsername().trim();
@@ -63,35 +157,94 @@ public class UserService {
             throw new IllegalArgumentException("Password cannot be null or empty");
         }
 
-        // Add validation, e.g., check if email is unique
-        if (user.getUserId() != null && userRepository.getUserByUserId(user.getUserId()).isPresent()) {
-            throw new IllegalArgumentException("User ID already exists");
+        // provider ids only have to be unique for the provider the user signs up with
+        boolean github = "github".equals(provider);
+        boolean google = "google".equals(provider);
+        UserConflicts conflicts = userRepository.findConflicts(user.getUserId(), email, username,
+                github ? githubId : null, github ? githubUsername : null,
+                google ? googleId : null);
+        String conflict = conflictMessage(conflicts);
+        if (conflict != null) {
+            throw new IllegalArgumentException(conflict);
+        }
+
+        // hashed only after the cheap validation above, so rejected signups cost no hash
+        return password == null
+                ? CompletableFuture.completedFuture(null)
+                : passwordHasher.hash(password);
+    }
+
+    private User insertUser(User user) {
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // another signup took a value between the check and the insert
+            throw new IllegalArgumentException(constraintMessage(e), e);
         }
-        if (userRepository.getUserByEmail(email) != null && userRepository.getUserByEmail(email).isPresent()) {
-            throw new IllegalArgumentException("Email already exists");
+        usernameIndex.put(saved.getUserId(), saved.getUsername());
+        evictCached(saved.getUserId(), saved.getUsername());
+        return saved;
+    }
+
+    /**
+     * @return the message for the first taken field, in the order saveUser reports them, or null
+     */
+    private static String conflictMessage(UserConflicts conflicts) {
+        if (conflicts == null) {
+            return null;
         }
-        if (userRepository.getUserByUsername(username) != null && userRepository.getUserByUsername(username).isPresent()) {
-            throw new IllegalArgumentException("Username already exists");
+        if (conflicts.isUserId()) {
+            return "User ID already exists";
         }
-        if(provider != null && provider.equals("github")) {
-            if (githubId != null && !githubId.isEmpty() && userRepository.getUserByGitHubId(githubId).isPresent()) {
-                throw new IllegalArgumentException("GitHub ID already exists");
-            }
-            if (githubUsername != null && !githubUsername.isEmpty() && userRepository.getUserByGitHubUsername(githubUsername).isPresent()) {
-                throw new IllegalArgumentException("GitHub Username already exists");
-            }
-        } else if(provider != null && provider.equals("google")) {
-            if (googleId != null && !googleId.isEmpty() && userRepository.getUserByGoogleId(googleId).isPresent()) {
-                throw new IllegalArgumentException("Google ID already exists");
-            }
-            if (googleUsername != null && !googleUsername.isEmpty() && userRepository.getUserByGoogleUsername(googleUsername).isPresent()) {
-                throw new IllegalArgumentException("Google Username already exists");
-            }
+        if (conflicts.isEmail()) {
+            return "Email already exists";
+        }
+        if (conflicts.isUsername()) {
+            return "Username already exists";
         }
+        if (conflicts.isGithubId()) {
+            return "GitHub ID already exists";
+        }
+        if (conflicts.isGithubUsername()) {
+            return "GitHub Username already exists";
+        }
+        if (conflicts.isGoogleId()) {
+            return "Google ID already exists";
+        }
+        return null;
+    }
 
-        // Hash password if needed (use BCrypt)
-        
-        return userRepository.save(user);
+    /**
+     * Maps a unique-constraint violation on uma_user to the message saveUser would have given,
+     * from the column the database names: "Key (email)=..." on PostgreSQL, "UMA_USER(EMAIL ..." on H2.
+     */
+    static String constraintMessage(DataIntegrityViolationException e) {
+        Throwable cause = e.getMostSpecificCause();
+        Matcher column = VIOLATED_COLUMN.matcher(cause.getMessage() == null ? "" : cause.getMessage());
+        String message = column.find() ? COLUMN_MESSAGES.get(column.group(1).toLowerCase()) : null;
+        return message != null ? message : "User already exists";
+    }
+
+    /**
+     * Replaces a user's stored password with a hash at the current cost, after they have
+     * logged in with it. Runs on the password hashing pool; the login does not wait for it,
+     * and if the pool is busy the upgrade is left for a later login.
+     * @param user The user who logged in
+     * @param rawPassword The password they logged in with
+     */
+    public void rehashPassword(User user, String rawPassword) {
+        Long userId = user.getUserId();
+        String username = user.getUsername();
+        passwordHasher.hash(rawPassword)
+                .thenAccept(hash -> {
+                    userRepository.setPasswordByUserId(hash, userId);
+                    evictCached(userId, username);
+                })
+                .exceptionally(e -> {
+                    logger.debug("Password rehash for user {} skipped: {}", userId, e.getMessage());
+                    return null;
+                });
     }
 
     /**
@@ -99,10 +252,116 @@ public class UserService {
      * @param id The userId of the user
      * @return An Optional containing the user if found, or empty if not
      */
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_ID, unless = "#result == null")
     public Optional<User> findUserById(Long id) {
         return userRepository.getUserByUserId(id);
     }
 
+    /**
+     * Looks up the usernames of many users at once, one query per ID_BATCH_SIZE ids.
+     * @param ids The userIds to look up; duplicates and nulls are ignored
+     * @return A map from userId to username, without entries for ids that do not exist
+     */
+    public Map<Long, String> findUsernamesByIds(Collection<Long> ids) {
+        Map<Long, String> usernames = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return usernames;
+        }
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        distinct.remove(null);
+        for (int from = 0; from < distinct.size(); from += ID_BATCH_SIZE) {
+            List<Long> batch = distinct.subList(from, Math.min(from + ID_BATCH_SIZE, distinct.size()));
+            for (UserSummary summary : userRepository.findSummariesByUserIds(batch)) {
+                usernames.put(summary.getUserId(), summary.getUsername());
+            }
+        }
+        return usernames;
+    }
+
+    /**
+     * Looks up the profiles of many users at once. Users in the findUserById and
+     * findUserByUsername caches are answered from there; the rest take one IN-list query
+     * for the ids and one for the usernames.
+     * @param userIds The userIds to look up; may be null
+     * @param usernames The usernames to look up; may be null
+     * @return The profiles of the users that exist, each once, in the order requested:
+     *         ids first, then usernames
+     * @throws IllegalArgumentException if more than MAX_BATCH_USERS ids and usernames are given
+     */
+    public List<UserProfile> findProfiles(Collection<Long> userIds, Collection<String> usernames) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (userIds != null) {
+            for (Long id : userIds) {
+                if (id != null) {
+                    ids.add(id);
+                }
+            }
+        }
+        Set<String> names = new LinkedHashSet<>();
+        if (usernames != null) {
+            for (String username : usernames) {
+                if (username != null && !username.trim().isEmpty()) {
+                    names.add(username.trim());
+                }
+            }
+        }
+        if (ids.size() + names.size() > MAX_BATCH_USERS) {
+            throw new IllegalArgumentException("at most " + MAX_BATCH_USERS + " users are allowed");
+        }
+
+        Map<Long, UserProfile> byId = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        Cache idCache = cacheManager.getCache(CacheConfig.USERS_BY_ID);
+        for (Long id : ids) {
+            User cached = idCache == null ? null : idCache.get(id, User.class);
+            if (cached != null) {
+                byId.put(id, toProfile(cached));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        Map<String, UserProfile> byUsername = new HashMap<>();
+        List<String> missingNames = new ArrayList<>();
+        Cache usernameCache = cacheManager.getCache(CacheConfig.USERS_BY_USERNAME);
+        for (String name : names) {
+            User cached = usernameCache == null ? null : usernameCache.get(name, User.class);
+            if (cached != null) {
+                byUsername.put(name, toProfile(cached));
+            } else {
+                missingNames.add(name);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            for (UserProfile profile : userRepository.findProfilesByUserIds(missingIds)) {
+                byId.put(profile.getUserId(), profile);
+            }
+        }
+        if (!missingNames.isEmpty()) {
+            for (UserProfile profile : userRepository.findProfilesByUsernames(missingNames)) {
+                byUsername.put(profile.getUsername(), profile);
+            }
+        }
+
+        Map<Long, UserProfile> profiles = new LinkedHashMap<>();
+        for (Long id : ids) {
+            UserProfile profile = byId.get(id);
+            if (profile != null) {
+                profiles.putIfAbsent(profile.getUserId(), profile);
+            }
+        }
+        for (String name : names) {
+            UserProfile profile = byUsername.get(name);
+            if (profile != null) {
+                profiles.putIfAbsent(profile.getUserId(), profile);
+            }
+        }
+        return new ArrayList<>(profiles.values());
+    }
+
+    private static UserProfile toProfile(User user) {
+        return new UserProfile(user.getUserId(), user.getUsername(), user.getGithubUsername(), user.getEmail());
+    }
+
     /**
      * Retrieves all users.
      * @return An Optional containing a list of all users, or Optional.empty() if none found
@@ -127,6 +386,7 @@ public class UserService {
      * @param username The username of the user
      * @return An Optional containing the user if found, or empty if not
      */
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#username.trim()", unless = "#result == null")
     public Optional<User> findUserByUsername(String username) {
         return userRepository.getUserByUsername(username.trim())
                 .filter(user -> user != null && !user.getUsername().isEmpty());
@@ -141,6 +401,8 @@ public class UserService {
         if (userOpt.isPresent() && userOpt.get().getUserId() != null) {
             String username = userOpt.get().getUsername();
             userRepository.deleteUserByUserId(user.getUserId());
+            usernameIndex.remove(user.getUserId());
+            evictCached(user.getUserId(), username);
             return "User " + username + " deleted successfully";
         }
         return "User not found or could not be deleted";
@@ -178,8 +440,11 @@ public class UserService {
             );
             user.setLastLogin(java.time.LocalDateTime.now());
         }
-        
-        return userRepository.save(user);
+
+        User saved = userRepository.save(user);
+        usernameIndex.put(saved.getUserId(), saved.getUsername());
+        evictCached(saved.getUserId(), saved.getUsername());
+        return saved;
     }
     
     /**
@@ -201,8 +466,61 @@ public class UserService {
         if(userRepository.getUserByUsername(newUsername).isPresent()) {
             throw new IllegalArgumentException("Username already exists");
         }
+        String oldUsername = user.getUsername();
         user.setUsername(newUsername);
-        userRepository.save(user);
+        try {
+            userRepository.save(user);
+        } finally {
+            // the cached User may be this instance, already renamed even if the save failed
+            evictCached(user.getUserId(), oldUsername, newUsername);
+        }
+        usernameIndex.put(user.getUserId(), newUsername);
+    }
+
+    /**
+     * Removes a user from the findUserById and findUserByUsername caches after a write.
+     */
+    private void evictCached(Long userId, String... usernames) {
+        Cache byId = cacheManager.getCache(CacheConfig.USERS_BY_ID);
+        if (byId != null && userId != null) {
+            byId.evict(userId);
+        }
+        Cache byUsername = cacheManager.getCache(CacheConfig.USERS_BY_USERNAME);
+        if (byUsername != null) {
+            for (String username : usernames) {
+                if (username != null) {
+                    byUsername.evict(username);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds users whose username starts with or contains the query, ignoring case: prefix
+     * matches first, then by follower count. Served from the UsernameIndex without a query
+     * once it is loaded; until then from one bounded LIKE query, ordered by username.
+     * @param query The text typed so far
+     * @param limit The maximum number of users to return, at most UsernameIndex.MAX_LIMIT
+     * @param include Users for whom this returns false are left out
+     * @return The matching users' ids and usernames
+     */
+    public List<UserSummary> searchUsers(String query, int limit, LongPredicate include) {
+        List<UserSummary> results = usernameIndex.search(query, limit, include);
+        if (results != null) {
+            return results;
+        }
+        String q = query == null ? "" : query.trim();
+        if (q.isEmpty()) {
+            return List.of();
+        }
+        int max = Math.min(Math.max(limit, 1), UsernameIndex.MAX_LIMIT);
+        List<UserSummary> matches = new ArrayList<>();
+        for (UserSummary summary : userRepository.findSummariesByUsernameContaining(q, PageRequest.of(0, max))) {
+            if (include.test(summary.getUserId())) {
+                matches.add(summary);
+            }
+        }
+        return matches;
     }
 
     public List<User> findSimilarUsersByUsername(String baseUsername) {
@@ -0,0 +1,196 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.model.UserStats;
+import com.c11.umastagram.repository.PostsRepository;
+import com.c11.umastagram.repository.UserRepository;
+import com.c11.umastagram.repository.UserStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Follower, following and post counts per user, stored in user_stats so a profile
+ * header is one primary-key lookup instead of three COUNT(*) queries.
+ *
+ * The adjust methods join the caller's transaction, so a counter moves exactly when the
+ * follow or post row it counts commits. A user without a row gets one with freshly counted
+ * values the first time it is needed. reconcile() recounts every user in chunks and repairs
+ * any row that has drifted.
+ */
+@Service
+public class UserStatsService {
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsService.class);
+
+    @Value("${app.user-stats.reconcile-chunk-size:500}")
+    private int reconcileChunkSize;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostsRepository postsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Returns a user's counters.
+     * @param userId the ID of the user
+     * @return the user's stats; all zero for a user with no follows or posts
+     * @throws IllegalArgumentException if userId is missing
+     */
+    public UserStats getStats(Long userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required");
+        }
+        Optional<UserStats> stats = userStatsRepository.findById(userId);
+        if (stats.isPresent()) {
+            return stats.get();
+        }
+        UserStats counted = new TransactionTemplate(transactionManager).execute(status -> {
+            UserStats fresh = count(List.of(userId)).get(userId);
+            userStatsRepository.insertIfAbsent(fresh);
+            return fresh;
+        });
+        return counted;
+    }
+
+    /**
+     * Records that followerId started (delta 1) or stopped (delta -1) following followedId.
+     */
+    @Transactional
+    public void adjustFollowCounts(Long followerId, Long followedId, int delta) {
+        adjust(followedId, delta, 0, 0);
+        adjust(followerId, 0, delta, 0);
+    }
+
+    /**
+     * Records that userId created (positive delta) or deleted (negative delta) posts.
+     */
+    @Transactional
+    public void adjustPostCount(Long userId, int delta) {
+        adjust(userId, 0, 0, delta);
+    }
+
+    /**
+     * Decrements the post count of a post's author. Call before deleting the post,
+     * in the same transaction.
+     * @param postId the ID of the post about to be deleted
+     */
+    @Transactional
+    public void onPostDeleted(Long postId) {
+        postsRepository.findUserIdById(postId).ifPresent(userId -> adjust(userId, 0, 0, -1));
+    }
+
+    /**
+     * Recounts the given users' stats from the follow and posts tables, in the caller's
+     * transaction, and overwrites rows that differ. Used when a change affected rows
+     * without reporting which ones (e.g. an insert that skipped existing follows).
+     * @param userIds the users to recount
+     * @return the number of rows created or repaired
+     */
+    @Transactional
+    public int recount(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        // lock first: adjustments still in flight commit before we count, later ones wait for us
+        Map<Long, UserStats> current = new HashMap<>();
+        for (UserStats stats : userStatsRepository.findAllForUpdate(userIds)) {
+            current.put(stats.getUserId(), stats);
+        }
+        Map<Long, UserStats> counted = count(userIds);
+
+        int repaired = 0;
+        for (UserStats fresh : counted.values()) {
+            UserStats stats = current.get(fresh.getUserId());
+            if (stats == null) {
+                repaired += userStatsRepository.insertIfAbsent(fresh);
+            } else if (!stats.equals(fresh)) {
+                // managed entity, written on commit
+                stats.setFollowerCount(fresh.getFollowerCount());
+                stats.setFollowingCount(fresh.getFollowingCount());
+                stats.setPostCount(fresh.getPostCount());
+                repaired++;
+            }
+        }
+        return repaired;
+    }
+
+    /**
+     * Recounts every user's stats, reconcileChunkSize users per transaction.
+     */
+    @Scheduled(fixedDelayString = "${app.user-stats.reconcile-interval-ms:3600000}",
+               initialDelayString = "${app.user-stats.reconcile-initial-delay-ms:300000}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int chunkSize = Math.max(1, reconcileChunkSize);
+        long afterId = 0;
+        int users = 0;
+        int repaired = 0;
+        try {
+            while (true) {
+                List<Long> userIds = userRepository.findUserIdsAfter(afterId, PageRequest.of(0, chunkSize));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                Integer chunkRepaired = tx.execute(status -> recount(userIds));
+                repaired += chunkRepaired == null ? 0 : chunkRepaired;
+                users += userIds.size();
+                afterId = userIds.get(userIds.size() - 1);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("User stats reconciliation stopped after {} users: {}", users, e.getMessage());
+            return;
+        }
+        if (repaired > 0) {
+            logger.warn("User stats reconciliation repaired {} of {} users in {} ms", repaired, users, System.currentTimeMillis() - start);
+        } else {
+            logger.info("User stats reconciliation checked {} users in {} ms", users, System.currentTimeMillis() - start);
+        }
+    }
+
+    private void adjust(Long userId, long followers, long following, long posts) {
+        if (userId == null) {
+            return;
+        }
+        if (userStatsRepository.adjust(userId, followers, following, posts) > 0) {
+            return;
+        }
+        // no row yet: count from scratch; the counts already include this transaction's change
+        if (userStatsRepository.insertIfAbsent(count(List.of(userId)).get(userId)) == 0) {
+            // another transaction created the row meanwhile, without our change
+            userStatsRepository.adjust(userId, followers, following, posts);
+        }
+    }
+
+    private Map<Long, UserStats> count(Collection<Long> userIds) {
+        Map<Long, UserStats> counted = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            counted.put(userId, new UserStats(userId, 0, 0, 0));
+        }
+        for (Object[] row : userStatsRepository.countFollowersByUserIds(userIds)) {
+            counted.get((Long) row[0]).setFollowerCount(((Number) row[1]).longValue());
+        }
+        for (Object[] row : userStatsRepository.countFollowingByUserIds(userIds)) {
+            counted.get((Long) row[0]).setFollowingCount(((Number) row[1]).longValue());
+        }
+        for (Object[] row : userStatsRepository.countPostsByUserIds(userIds)) {
+            counted.get((Long) row[0]).setPostCount(((Number) row[1]).longValue());
+        }
+        return counted;
+    }
+}
@@ -0,0 +1,319 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.dto.UserSummary;
+import com.c11.umastagram.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory username index for search-as-you-type, so a keystroke costs no query.
+ *
+ * Usernames are held lowercased in a ConcurrentSkipListMap, whose sorted keys serve prefix
+ * matches as one range scan (the role a trie would play), and in a trigram index from every
+ * three-character substring to the ids containing it, which serves infix matches: the query's
+ * rarest trigram gives the candidates and each is checked with contains(). Queries shorter
+ * than three characters only match prefixes. Matching ignores case.
+ *
+ * Results are ranked prefix matches first, then by follower count from FollowGraphIndex
+ * (0 while it is loading), then shorter usernames, and at most app.username-index.max-candidates
+ * usernames are looked at per query, so a one-letter query stays cheap on a large table.
+ *
+ * UserService keeps the index current through put() and remove(). It is loaded at startup;
+ * until then search() returns null and callers should query UserRepository instead.
+ */
+@Component
+public class UsernameIndex {
+    private static final Logger logger = LoggerFactory.getLogger(UsernameIndex.class);
+
+    static final int MAX_LIMIT = 50;
+
+    // separates the lowercased username from the original in prefix keys; sorts before any character
+    private static final char KEY_SEPARATOR = '\0';
+
+    private static final Comparator<Match> RANKING = Comparator
+            .comparing(Match::prefix).reversed()
+            .thenComparing(Comparator.comparingInt(Match::followers).reversed())
+            .thenComparingInt(match -> match.username().length())
+            .thenComparing(Match::username);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FollowGraphIndex followGraphIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.username-index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.username-index.max-candidates:2000}")
+    private int maxCandidates;
+
+    // null until loaded
+    private volatile Entries entries;
+
+    private final Object writeLock = new Object();
+
+    // changes made while the index is loading, replayed onto it; guarded by writeLock
+    private List<UsernameChange> pendingChanges;
+
+    // username null means the user was deleted
+    private record UsernameChange(long userId, String username) {}
+
+    private record Match(long userId, String username, boolean prefix, int followers) {}
+
+    public boolean isReady() {
+        return entries != null;
+    }
+
+    /**
+     * Finds users whose username starts with or contains the query, best matches first.
+     * @param query the text typed so far
+     * @param limit the maximum number of users to return, capped at MAX_LIMIT
+     * @param include users for whom this returns false are skipped, e.g. blocked users
+     * @return the matching users, or null if the index is not loaded
+     */
+    public List<UserSummary> search(String query, int limit, LongPredicate include) {
+        Entries current = entries;
+        if (current == null) {
+            return null;
+        }
+        String q = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        int max = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        if (q.isEmpty()) {
+            return List.of();
+        }
+
+        // worst match at the head, so the queue keeps the best max matches
+        PriorityQueue<Match> best = new PriorityQueue<>(max + 1, RANKING.reversed());
+        int examined = 0;
+        for (Map.Entry<String, Long> entry : current.prefixes.subMap(q, true, q + Character.MAX_VALUE, true).entrySet()) {
+            if (examined++ >= maxCandidates) {
+                break;
+            }
+            long userId = entry.getValue();
+            if (include.test(userId)) {
+                offer(best, max, new Match(userId, originalName(entry.getKey()), true, followers(userId)));
+            }
+        }
+
+        Set<Long> candidates = q.length() < 3 ? null : current.rarestTrigramPosting(q);
+        if (candidates != null) {
+            examined = 0;
+            for (Long userId : candidates) {
+                if (examined++ >= maxCandidates) {
+                    break;
+                }
+                String username = current.usernames.get(userId);
+                if (username == null) {
+                    continue;
+                }
+                String lower = username.toLowerCase(Locale.ROOT);
+                // prefix matches were collected above
+                if (!lower.startsWith(q) && lower.contains(q) && include.test(userId)) {
+                    offer(best, max, new Match(userId, username, false, followers(userId)));
+                }
+            }
+        }
+
+        List<Match> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<UserSummary> results = new ArrayList<>(ranked.size());
+        for (Match match : ranked) {
+            results.add(new UserSummary(match.userId(), match.username()));
+        }
+        return results;
+    }
+
+    /**
+     * Records a new user or a username change. Call after the row has been saved.
+     */
+    public void put(Long userId, String username) {
+        if (userId != null && username != null) {
+            apply(new UsernameChange(userId, username));
+        }
+    }
+
+    /**
+     * Records that a user was deleted. Call after the row has been deleted.
+     */
+    public void remove(Long userId) {
+        if (userId != null) {
+            apply(new UsernameChange(userId, null));
+        }
+    }
+
+    /**
+     * Loads every username from the uma_user table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (writeLock) {
+            pendingChanges = new ArrayList<>();
+        }
+        long start = System.currentTimeMillis();
+        Entries fresh;
+        try {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            fresh = tx.execute(status -> {
+                Entries loaded = new Entries();
+                try (Stream<Object[]> rows = userRepository.streamAllUsernames()) {
+                    rows.forEach(row -> loaded.put(((Number) row[0]).longValue(), (String) row[1]));
+                }
+                return loaded;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("Loading the username index failed, user search will query the database: {}", e.getMessage());
+            synchronized (writeLock) {
+                pendingChanges = null;
+            }
+            return;
+        }
+
+        synchronized (writeLock) {
+            // put and remove are idempotent, so replaying changes the load already saw is harmless
+            for (UsernameChange change : pendingChanges) {
+                fresh.apply(change);
+            }
+            pendingChanges = null;
+            entries = fresh;
+        }
+        logger.info("Loaded {} usernames in {} ms", fresh.usernames.size(), System.currentTimeMillis() - start);
+    }
+
+    private void apply(UsernameChange change) {
+        synchronized (writeLock) {
+            Entries current = entries;
+            if (current != null) {
+                current.apply(change);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        }
+    }
+
+    private int followers(long userId) {
+        return followGraphIndex.isReady() ? followGraphIndex.followerCount(userId) : 0;
+    }
+
+    private static void offer(PriorityQueue<Match> best, int max, Match match) {
+        best.add(match);
+        if (best.size() > max) {
+            best.poll();
+        }
+    }
+
+    private static String prefixKey(String username) {
+        return username.toLowerCase(Locale.ROOT) + KEY_SEPARATOR + username;
+    }
+
+    private static String originalName(String prefixKey) {
+        return prefixKey.substring(prefixKey.indexOf(KEY_SEPARATOR) + 1);
+    }
+
+    /**
+     * The index itself. Readers use the concurrent maps without locking; writers hold
+     * writeLock, so a reader may briefly see a renamed user under both names but never
+     * a torn map.
+     */
+    private static final class Entries {
+        // lowercased username + KEY_SEPARATOR + username -> userId
+        final ConcurrentSkipListMap<String, Long> prefixes = new ConcurrentSkipListMap<>();
+        final Map<Long, String> usernames = new ConcurrentHashMap<>();
+        final Map<String, Set<Long>> trigrams = new ConcurrentHashMap<>();
+
+        void apply(UsernameChange change) {
+            if (change.username() == null) {
+                remove(change.userId());
+            } else {
+                put(change.userId(), change.username());
+            }
+        }
+
+        void put(long userId, String username) {
+            String previous = usernames.put(userId, username);
+            if (username.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                unindex(userId, previous);
+            }
+            prefixes.put(prefixKey(username), userId);
+            for (String trigram : trigrams(username.toLowerCase(Locale.ROOT))) {
+                trigrams.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(userId);
+            }
+        }
+
+        void remove(long userId) {
+            String previous = usernames.remove(userId);
+            if (previous != null) {
+                unindex(userId, previous);
+            }
+        }
+
+        private void unindex(long userId, String username) {
+            prefixes.remove(prefixKey(username), userId);
+            for (String trigram : trigrams(username.toLowerCase(Locale.ROOT))) {
+                Set<Long> ids = trigrams.get(trigram);
+                if (ids != null) {
+                    ids.remove(userId);
+                    if (ids.isEmpty()) {
+                        trigrams.remove(trigram, ids);
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the smallest posting list among the query's trigrams, or null if one of
+         *         them occurs in no username, in which case nothing contains the query
+         */
+        Set<Long> rarestTrigramPosting(String lowerQuery) {
+            Set<Long> rarest = null;
+            for (String trigram : trigrams(lowerQuery)) {
+                Set<Long> ids = trigrams.get(trigram);
+                if (ids == null) {
+                    return null;
+                }
+                if (rarest == null || ids.size() < rarest.size()) {
+                    rarest = ids;
+                }
+            }
+            return rarest;
+        }
+
+        private static List<String> trigrams(String text) {
+            List<String> grams = new ArrayList<>(Math.max(0, text.length() - 2));
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                grams.add(text.substring(i, i + 3));
+            }
+            return grams;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.c11.umastagram.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counting Bloom filter over (long, long) pairs. Each slot is a 4-bit counter, sixteen to
+ * a long, so unlike a plain Bloom filter pairs can be removed again. Answers are "definitely
+ * absent" or "maybe present"; a removed pair never causes a false "absent" for another pair,
+ * except when a counter has saturated at 15, which then simply stays set.
+ *
+ * Lock-free: counters are updated with compare-and-set on the containing word.
+ */
+public final class CountingBloomFilter {
+    private static final int MAX_COUNT = 15;
+
+    private final AtomicLongArray words;
+    private final int slots;
+    private final int hashes;
+    private final long capacity;
+    private final AtomicLong size = new AtomicLong();
+
+    private CountingBloomFilter(int slots, int hashes, long capacity) {
+        this.words = new AtomicLongArray((slots + 15) / 16);
+        this.slots = slots;
+        this.hashes = hashes;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a filter sized so that holding expectedInsertions pairs gives roughly the
+     * requested false-positive probability.
+     * @param expectedInsertions the number of pairs the filter is sized for
+     * @param fpp the target false-positive probability, in (0, 1)
+     * @return an empty filter
+     */
+    public static CountingBloomFilter create(long expectedInsertions, double fpp) {
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp must be between 0 and 1");
+        }
+        long n = Math.max(1, expectedInsertions);
+        double bits = -n * Math.log(fpp) / (Math.log(2) * Math.log(2));
+        int slots = (int) Math.min(Integer.MAX_VALUE - 16, Math.max(64, Math.ceil(bits)));
+        int hashes = Math.max(1, (int) Math.round(bits / n * Math.log(2)));
+        return new CountingBloomFilter(slots, hashes, n);
+    }
+
+    public void add(long a, long b) {
+        long h1 = hash1(a, b);
+        long h2 = hash2(h1);
+        for (int i = 0; i < hashes; i++) {
+            increment(slot(h1, h2, i));
+        }
+        size.incrementAndGet();
+    }
+
+    /**
+     * Removes a pair. Only call this for pairs that were added: removing a pair that was
+     * never added can make the filter report other pairs as absent.
+     * @return false if the filter already reported the pair as absent, in which case nothing changes
+     */
+    public boolean remove(long a, long b) {
+        if (!mightContain(a, b)) {
+            return false;
+        }
+        long h1 = hash1(a, b);
+        long h2 = hash2(h1);
+        for (int i = 0; i < hashes; i++) {
+            decrement(slot(h1, h2, i));
+        }
+        size.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return false if the pair is definitely absent, true if it may be present
+     */
+    public boolean mightContain(long a, long b) {
+        long h1 = hash1(a, b);
+        long h2 = hash2(h1);
+        for (int i = 0; i < hashes; i++) {
+            if (count(slot(h1, h2, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of pairs added and not removed
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * @return the number of pairs the filter was sized for
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the false-positive probability the filter should have at its current size
+     */
+    public double expectedFpp() {
+        return Math.pow(1 - Math.exp(-(double) hashes * Math.max(0, size.get()) / slots), hashes);
+    }
+
+    private int slot(long h1, long h2, int i) {
+        return (int) Math.floorMod(h1 + i * h2, (long) slots);
+    }
+
+    private int count(int slot) {
+        return (int) (words.get(slot >>> 4) >>> ((slot & 15) << 2)) & MAX_COUNT;
+    }
+
+    private void increment(int slot) {
+        int word = slot >>> 4;
+        int shift = (slot & 15) << 2;
+        while (true) {
+            long current = words.get(word);
+            if (((current >>> shift) & MAX_COUNT) == MAX_COUNT) {
+                return;
+            }
+            if (words.compareAndSet(word, current, current + (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(int slot) {
+        int word = slot >>> 4;
+        int shift = (slot & 15) << 2;
+        while (true) {
+            long current = words.get(word);
+            long count = (current >>> shift) & MAX_COUNT;
+            // a saturated counter may stand for more additions than it can count, so it stays
+            if (count == 0 || count == MAX_COUNT) {
+                return;
+            }
+            if (words.compareAndSet(word, current, current - (1L << shift))) {
+                return;
+            }
+        }
+    }
+
+    private static long hash1(long a, long b) {
+        return mix(a * 0x9E3779B97F4A7C15L + mix(b));
+    }
+
+    private static long hash2(long h1) {
+        // odd, so successive probes never repeat a slot early
+        return mix(h1 ^ 0xC2B2AE3D27D4EB4FL) | 1;
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB2F9B4A9F3C5L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,64 @@
+package com.c11.umastagram.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque (timestamp, id) cursor used for keyset pagination.
+ * Clients get it back from a page response and pass it unchanged to fetch the next page,
+ * so the encoding can change without breaking them.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime timestamp;
+    private final Long id;
+
+    public KeysetCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Encodes the cursor as a URL-safe string.
+     * @return base64url encoded cursor
+     */
+    public String encode() {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     * @param cursor the encoded cursor
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            if (split <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(
+                LocalDateTime.parse(raw.substring(0, split)),
+                Long.parseLong(raw.substring(split + 1))
+            );
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
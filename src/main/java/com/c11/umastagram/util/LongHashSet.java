@@ -0,0 +1,171 @@
+package com.c11.umastagram.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive longs: one long[] with linear probing, no boxing
+ * and no per-entry objects, so a set of a few ids costs a few dozen bytes instead of a
+ * HashSet<Long>'s hundreds.
+ *
+ * Not thread-safe. Callers that share sets publish a modified copy() instead of mutating.
+ */
+public final class LongHashSet {
+    // 0 marks an empty slot; the value 0 itself is tracked by containsZero
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] slots;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        this.slots = new long[tableSize(expectedSize)];
+    }
+
+    private LongHashSet(LongHashSet other) {
+        this.slots = other.slots.clone();
+        this.size = other.size;
+        this.containsZero = other.containsZero;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        long[] table = slots;
+        int mask = table.length - 1;
+        for (int i = index(value, mask); ; i = (i + 1) & mask) {
+            long current = table[i];
+            if (current == value) {
+                return true;
+            }
+            if (current == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return true if the value was not already in the set
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            if (added) {
+                size++;
+            }
+            return added;
+        }
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        while (slots[i] != 0) {
+            if (slots[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        slots[i] = value;
+        size++;
+        // keep the load factor at or below 1/2 so probe runs stay short
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the value was in the set
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            boolean removed = containsZero;
+            containsZero = false;
+            if (removed) {
+                size--;
+            }
+            return removed;
+        }
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        while (slots[i] != value) {
+            if (slots[i] == 0) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        // backward-shift the rest of the probe run instead of leaving a tombstone
+        int gap = i;
+        for (int j = (i + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+            int home = index(slots[j], mask);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                slots[gap] = slots[j];
+                gap = j;
+            }
+        }
+        slots[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public LongHashSet copy() {
+        return new LongHashSet(this);
+    }
+
+    /**
+     * @return the values in ascending order
+     */
+    public long[] toArray() {
+        long[] values = new long[size];
+        int n = 0;
+        if (containsZero) {
+            values[n++] = 0;
+        }
+        for (long value : slots) {
+            if (value != 0) {
+                values[n++] = value;
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int i = index(value, mask);
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = value;
+            }
+        }
+    }
+
+    private static int tableSize(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Fibonacci hashing, so sequential ids spread over the table
+    private static int index(long value, int mask) {
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,16 @@
+package com.c11.umastagram.util;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Hibernate calls this for every SQL statement it prepares; registered through
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter.increment();
+        return sql;
+    }
+}
@@ -0,0 +1,68 @@
+package com.c11.umastagram.util;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ * Counting is off until start() is called, so statements run by background jobs
+ * are not counted; QueryCountFilter starts it for every HTTP request and the test
+ * QueryCountExtension for every test method. Counts nest: a request made inside a
+ * counted test is counted by both.
+ */
+public final class QueryCounter {
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static final class Scope {
+        final Scope parent;
+        int count;
+
+        Scope(Scope parent) {
+            this.parent = parent;
+        }
+    }
+
+    private QueryCounter() {}
+
+    /**
+     * Starts a new count at zero on the current thread.
+     */
+    public static void start() {
+        CURRENT.set(new Scope(CURRENT.get()));
+    }
+
+    /**
+     * Ends the count started by the matching start() and resumes the enclosing one, if any.
+     * @return the number of statements counted since that start(), or 0 if counting was off
+     */
+    public static int stop() {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return 0;
+        }
+        if (scope.parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope.parent);
+        }
+        return scope.count;
+    }
+
+    /**
+     * @return the number of statements counted since the latest start(), or 0 if counting is off
+     */
+    public static int get() {
+        Scope scope = CURRENT.get();
+        return scope == null ? 0 : scope.count;
+    }
+
+    /**
+     * @return true if counting is on for the current thread
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void increment() {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.count++;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.c11.umastagram.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshot of named primitive arrays, written to a local file so in-memory
+ * structures can be restored at boot without scanning their tables.
+ *
+ * Layout, little-endian:
+ * <pre>
+ *   int magic "UMSN", int version, long watermark, int sectionCount
+ *   per section: short nameLength, name (UTF-8), byte type, int length, padding to 8 bytes, values
+ *   long CRC32 of everything before it
+ * </pre>
+ * The watermark is the caller's change timestamp (epoch millis) up to which the snapshot is
+ * complete; rows changed after it have to be read from the database.
+ *
+ * Files are written to a temporary name and moved into place, so a crash mid-write leaves
+ * the previous snapshot intact. Reading maps the file with a FileChannel and bulk-copies
+ * each section out of the mapping, after checking the CRC. Files are limited to 2 GB.
+ */
+public final class SnapshotFile {
+    private static final int MAGIC = 0x4E534D55; // "UMSN" little-endian
+    private static final int VERSION = 1;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_BYTE = 3;
+
+    private final long watermark;
+    private final Map<String, Object> sections;
+
+    private SnapshotFile(long watermark, Map<String, Object> sections) {
+        this.watermark = watermark;
+        this.sections = sections;
+    }
+
+    public long getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @throws IOException if the snapshot has no int section with that name
+     */
+    public int[] getInts(String name) throws IOException {
+        return section(name, int[].class);
+    }
+
+    /**
+     * @throws IOException if the snapshot has no long section with that name
+     */
+    public long[] getLongs(String name) throws IOException {
+        return section(name, long[].class);
+    }
+
+    /**
+     * @throws IOException if the snapshot has no byte section with that name
+     */
+    public byte[] getBytes(String name) throws IOException {
+        return section(name, byte[].class);
+    }
+
+    private <T> T section(String name, Class<T> type) throws IOException {
+        Object values = sections.get(name);
+        if (!type.isInstance(values)) {
+            throw new IOException("Snapshot has no " + type.getSimpleName() + " section " + name);
+        }
+        return type.cast(values);
+    }
+
+    public static Writer writer(long watermark) {
+        return new Writer(watermark);
+    }
+
+    /**
+     * Reads and verifies a snapshot.
+     * @throws IOException if the file cannot be read, is not a snapshot, or is corrupt
+     */
+    public static SnapshotFile read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE || size < 28) {
+                throw new IOException("Snapshot " + file + " has invalid size " + size);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            CRC32 crc = new CRC32();
+            crc.update(mapped.slice(0, (int) size - 8));
+            if (crc.getValue() != mapped.getLong((int) size - 8)) {
+                throw new IOException("Snapshot " + file + " failed its checksum");
+            }
+            if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION) {
+                throw new IOException("Snapshot " + file + " has an unknown format");
+            }
+            long watermark = mapped.getLong();
+            int sectionCount = mapped.getInt();
+
+            Map<String, Object> sections = new LinkedHashMap<>();
+            for (int s = 0; s < sectionCount; s++) {
+                byte[] name = new byte[mapped.getShort()];
+                mapped.get(name);
+                byte type = mapped.get();
+                int length = mapped.getInt();
+                mapped.position(align(mapped.position()));
+                ByteBuffer values = mapped.slice(mapped.position(), mapped.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+                Object array;
+                int bytes;
+                switch (type) {
+                    case TYPE_INT -> {
+                        int[] ints = new int[length];
+                        values.asIntBuffer().get(ints);
+                        array = ints;
+                        bytes = length * Integer.BYTES;
+                    }
+                    case TYPE_LONG -> {
+                        long[] longs = new long[length];
+                        values.asLongBuffer().get(longs);
+                        array = longs;
+                        bytes = length * Long.BYTES;
+                    }
+                    case TYPE_BYTE -> {
+                        byte[] raw = new byte[length];
+                        values.get(raw);
+                        array = raw;
+                        bytes = length;
+                    }
+                    default -> throw new IOException("Snapshot " + file + " has an unknown section type " + type);
+                }
+                mapped.position(mapped.position() + bytes);
+                sections.put(new String(name, StandardCharsets.UTF_8), array);
+            }
+            return new SnapshotFile(watermark, sections);
+        } catch (IndexOutOfBoundsException | java.nio.BufferUnderflowException e) {
+            throw new IOException("Snapshot " + file + " is truncated", e);
+        }
+    }
+
+    private static int align(int position) {
+        return (position + 7) & ~7;
+    }
+
+    /** Collects sections in memory order and writes them in one pass. */
+    public static final class Writer {
+        private final long watermark;
+        private final Map<String, Object> sections = new LinkedHashMap<>();
+
+        private Writer(long watermark) {
+            this.watermark = watermark;
+        }
+
+        public Writer putInts(String name, int[] values) {
+            sections.put(name, values);
+            return this;
+        }
+
+        public Writer putLongs(String name, long[] values) {
+            sections.put(name, values);
+            return this;
+        }
+
+        public Writer putBytes(String name, byte[] values) {
+            sections.put(name, values);
+            return this;
+        }
+
+        /**
+         * Writes the snapshot to file, replacing any previous one atomically.
+         */
+        public void writeTo(Path file) throws IOException {
+            Path dir = file.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    Output out = new Output(channel);
+                    out.buffer.putInt(MAGIC).putInt(VERSION).putLong(watermark).putInt(sections.size());
+                    for (Map.Entry<String, Object> section : sections.entrySet()) {
+                        out.writeSection(section.getKey(), section.getValue());
+                    }
+                    out.finish();
+                    channel.force(true);
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    /** Buffered channel output that checksums everything it writes. */
+    private static final class Output {
+        final FileChannel channel;
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        final CRC32 crc = new CRC32();
+        long written;
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void writeSection(String name, Object values) throws IOException {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            ensure(nameBytes.length + 16);
+            buffer.putShort((short) nameBytes.length).put(nameBytes);
+            if (values instanceof int[] ints) {
+                buffer.put(TYPE_INT).putInt(ints.length);
+                pad();
+                for (int offset = 0; offset < ints.length; ) {
+                    ensure(Integer.BYTES);
+                    int n = Math.min(buffer.remaining() / Integer.BYTES, ints.length - offset);
+                    buffer.asIntBuffer().put(ints, offset, n);
+                    buffer.position(buffer.position() + n * Integer.BYTES);
+                    offset += n;
+                }
+            } else if (values instanceof long[] longs) {
+                buffer.put(TYPE_LONG).putInt(longs.length);
+                pad();
+                for (int offset = 0; offset < longs.length; ) {
+                    ensure(Long.BYTES);
+                    int n = Math.min(buffer.remaining() / Long.BYTES, longs.length - offset);
+                    buffer.asLongBuffer().put(longs, offset, n);
+                    buffer.position(buffer.position() + n * Long.BYTES);
+                    offset += n;
+                }
+            } else {
+                byte[] raw = (byte[]) values;
+                buffer.put(TYPE_BYTE).putInt(raw.length);
+                pad();
+                for (int offset = 0; offset < raw.length; ) {
+                    ensure(1);
+                    int n = Math.min(buffer.remaining(), raw.length - offset);
+                    buffer.put(raw, offset, n);
+                    offset += n;
+                }
+            }
+        }
+
+        void finish() throws IOException {
+            flush();
+            ByteBuffer footer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            footer.putLong(crc.getValue()).flip();
+            while (footer.hasRemaining()) {
+                channel.write(footer);
+            }
+        }
+
+        private void pad() throws IOException {
+            long position = written + buffer.position();
+            int padding = (int) (align((int) (position & 7)) - (position & 7));
+            ensure(padding);
+            for (int i = 0; i < padding; i++) {
+                buffer.put((byte) 0);
+            }
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            written += buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
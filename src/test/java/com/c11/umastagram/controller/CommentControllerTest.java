@@ -0,0 +1,91 @@
+package com.c11.umastagram.controller;
+
+import com.c11.umastagram.dto.CommentPageResponse;
+import com.c11.umastagram.dto.CreateCommentRequest;
+import com.c11.umastagram.model.Comment;
+import com.c11.umastagram.service.CommentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CommentController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+public class CommentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private CommentService commentService;
+
+    @Test
+    public void testGetComments() throws Exception {
+        Comment comment = new Comment("first", 5, 1);
+        comment.setCommentId(7);
+        when(commentService.getComments(1L, null, 20)).thenReturn(new CommentPageResponse(List.of(comment), 7));
+
+        mockMvc.perform(get("/api/posts/1/comments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments", hasSize(1)))
+                .andExpect(jsonPath("$.comments[0].commentText", is("first")))
+                .andExpect(jsonPath("$.nextCursor", is(7)));
+    }
+
+    @Test
+    public void testAddComment() throws Exception {
+        Comment comment = new Comment("nice", 5, 1);
+        comment.setCommentId(8);
+        when(commentService.addComment(1L, 5L, "nice")).thenReturn(comment);
+
+        mockMvc.perform(post("/api/posts/1/comments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CreateCommentRequest(5L, "nice"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.commentId", is(8)));
+    }
+
+    @Test
+    public void testAddCommentPostNotFound() throws Exception {
+        when(commentService.addComment(eq(999L), anyLong(), anyString()))
+                .thenThrow(new IllegalArgumentException("Post not found"));
+
+        mockMvc.perform(post("/api/posts/999/comments")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CreateCommentRequest(5L, "nice"))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testDeleteComment() throws Exception {
+        when(commentService.deleteComment(1L, 8)).thenReturn(true);
+
+        mockMvc.perform(delete("/api/posts/1/comments/8"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void testDeleteCommentNotFound() throws Exception {
+        when(commentService.deleteComment(1L, 9)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/posts/1/comments/9"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,54 @@
+package com.c11.umastagram.controller;
+
+import com.c11.umastagram.dto.FeedResponse;
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.service.FeedService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(FeedController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+public class FeedControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private FeedService feedService;
+
+    @Test
+    public void testGetFeed() throws Exception {
+        Posts post = new Posts(2L, "followed user's post", null, LocalDateTime.now());
+        post.setId(5L);
+        when(feedService.getFeed(1L, null, 20)).thenReturn(new FeedResponse(List.of(post), "next"));
+
+        mockMvc.perform(get("/api/feed").param("userId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.posts", hasSize(1)))
+                .andExpect(jsonPath("$.posts[0].id", is(5)))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
+    }
+
+    @Test
+    public void testGetFeedBadCursor() throws Exception {
+        when(feedService.getFeed(eq(1L), eq("bad"), anyInt())).thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/api/feed").param("userId", "1").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+}
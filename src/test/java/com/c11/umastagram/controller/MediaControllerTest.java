@@ -0,0 +1,95 @@
+package com.c11.umastagram.controller;
+
+import com.c11.umastagram.dto.MediaUploadResponse;
+import com.c11.umastagram.service.MediaService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(MediaController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("test")
+public class MediaControllerTest {
+
+    private static final String NAME = "a".repeat(64) + ".png";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private MediaService mediaService;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testUpload() throws Exception {
+        when(mediaService.store(any())).thenReturn(
+                new MediaUploadResponse(NAME, "/api/media/" + NAME, "/api/media/thumb", 3L));
+
+        mockMvc.perform(multipart("/api/media")
+                .file(new MockMultipartFile("file", "a.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1, 2, 3})))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.url", is("/api/media/" + NAME)));
+    }
+
+    @Test
+    public void testUploadUnsupportedType() throws Exception {
+        when(mediaService.store(any())).thenThrow(new IllegalArgumentException("Unsupported image type: text/plain"));
+
+        mockMvc.perform(multipart("/api/media")
+                .file(new MockMultipartFile("file", "a.txt", MediaType.TEXT_PLAIN_VALUE, new byte[]{1})))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testDownload() throws Exception {
+        Path file = Files.writeString(tempDir.resolve(NAME), "0123456789");
+        when(mediaService.find(NAME)).thenReturn(file);
+        when(mediaService.contentType(NAME)).thenReturn(MediaType.IMAGE_PNG);
+
+        mockMvc.perform(get("/api/media/" + NAME))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    public void testDownloadRange() throws Exception {
+        Path file = Files.writeString(tempDir.resolve(NAME), "0123456789", StandardCharsets.US_ASCII);
+        when(mediaService.find(NAME)).thenReturn(file);
+        when(mediaService.contentType(NAME)).thenReturn(MediaType.IMAGE_PNG);
+
+        mockMvc.perform(get("/api/media/" + NAME).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    public void testDownloadNotFound() throws Exception {
+        when(mediaService.find(anyString())).thenReturn(null);
+
+        mockMvc.perform(get("/api/media/missing.png"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -3,6 +3,7 @@ package com.c11.umastagram.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -10,11 +11,25 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.c11.umastagram.repository.PostsRepository;
 import com.c11.umastagram.model.Posts;
 import com.c11.umastagram.model.CreatePostRequest;
+import com.c11.umastagram.service.BlockService;
+import com.c11.umastagram.service.CommentService;
+import com.c11.umastagram.service.LikeService;
+import com.c11.umastagram.service.PostSearchService;
+import com.c11.umastagram.service.PostsExportService;
+import com.c11.umastagram.service.TimelineService;
+import com.c11.umastagram.service.TrendingService;
+import com.c11.umastagram.service.UserStatsService;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
@@ -34,6 +49,33 @@ public class PostsControllerTest {
     @MockBean
     private PostsRepository postsRepository;
 
+    @MockBean
+    private TimelineService timelineService;
+
+    @MockBean
+    private PostsExportService postsExportService;
+
+    @MockBean
+    private LikeService likeService;
+
+    @MockBean
+    private CommentService commentService;
+
+    @MockBean
+    private PostSearchService postSearchService;
+
+    @MockBean
+    private TrendingService trendingService;
+
+    @MockBean
+    private UserStatsService userStatsService;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private BlockService blockService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -70,6 +112,8 @@ public class PostsControllerTest {
                 .andExpect(jsonPath("$.likes", is(0)));
 
         verify(postsRepository, times(1)).save(any());
+        verify(postSearchService, times(1)).index(testPost);
+        verify(userStatsService, times(1)).adjustPostCount(123L, 1);
     }
 
     @Test
@@ -104,6 +148,57 @@ public class PostsControllerTest {
         verify(postsRepository, never()).save(any());
     }
 
+    @Test
+    public void testCreatePostsBatch() throws Exception {
+        Posts post2 = new Posts(456L, "Another post", null, LocalDateTime.now());
+        post2.setId(2L);
+        when(postsRepository.saveAll(anyList())).thenReturn(Arrays.asList(testPost, post2));
+
+        List<CreatePostRequest> requests = Arrays.asList(
+            createPostRequest,
+            new CreatePostRequest(456L, "Another post", null)
+        );
+
+        mockMvc.perform(post("/api/posts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].userId", is(456)));
+
+        verify(postsRepository, times(1)).saveAll(anyList());
+        verify(postsRepository, never()).save(any());
+        verify(timelineService, times(2)).fanOut(any());
+    }
+
+    @Test
+    public void testCreatePostsBatchInvalidEntry() throws Exception {
+        List<CreatePostRequest> requests = Arrays.asList(
+            createPostRequest,
+            new CreatePostRequest(456L, "", null)
+        );
+
+        mockMvc.perform(post("/api/posts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("text is required (post 1)"));
+
+        verify(postsRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    public void testCreatePostsBatchTooLarge() throws Exception {
+        List<CreatePostRequest> requests = Collections.nCopies(PostsController.MAX_BATCH_SIZE + 1, createPostRequest);
+
+        mockMvc.perform(post("/api/posts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isBadRequest());
+
+        verify(postsRepository, never()).saveAll(anyList());
+    }
+
     @Test
     public void testGetAllPosts() throws Exception {
         Posts post2 = new Posts(
@@ -126,6 +221,72 @@ public class PostsControllerTest {
         verify(postsRepository, times(1)).findAll();
     }
 
+    @Test
+    public void testStreamAllPostsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(postsExportService).writePosts(any(), eq(true));
+
+        MvcResult result = mockMvc.perform(get("/api/posts").param("stream", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+
+        verify(postsRepository, never()).findAll();
+    }
+
+    @Test
+    public void testStreamAllPostsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/posts").param("stream", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testSearchPosts() throws Exception {
+        when(postSearchService.search("test post", 20)).thenReturn(Arrays.asList(testPost));
+
+        mockMvc.perform(get("/api/posts/search").param("q", "test post"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
+    @Test
+    public void testSearchPostsHidesBlockedAuthors() throws Exception {
+        when(postSearchService.search("test post", 20)).thenReturn(Arrays.asList(testPost));
+        when(blockService.isBlocked(9L, testPost.getUserId())).thenReturn(true);
+
+        mockMvc.perform(get("/api/posts/search").param("q", "test post").param("viewerId", "9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    public void testSearchPostsEmptyQuery() throws Exception {
+        when(postSearchService.search(eq("  "), anyInt())).thenThrow(new IllegalArgumentException("q is required"));
+
+        mockMvc.perform(get("/api/posts/search").param("q", "  "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testGetTrendingPosts() throws Exception {
+        when(trendingService.getTrending(5)).thenReturn(Arrays.asList(testPost));
+
+        mockMvc.perform(get("/api/posts/trending").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1)));
+
+        verify(postsRepository, never()).findAll();
+    }
+
     @Test
     public void testGetPostsByUser() throws Exception {
         when(postsRepository.findByUserId(123L)).thenReturn(Arrays.asList(testPost));
@@ -165,18 +326,24 @@ public class PostsControllerTest {
 
     @Test
     public void testDeletePost() throws Exception {
-        when(postsRepository.existsById(1L)).thenReturn(true);
+        when(postsRepository.findById(1L)).thenReturn(Optional.of(testPost));
 
         mockMvc.perform(delete("/api/posts/1")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
 
         verify(postsRepository, times(1)).deleteById(1L);
+        verify(likeService, times(1)).onPostDeleted(1L);
+        verify(commentService, times(1)).onPostDeleted(1L);
+        InOrder order = inOrder(postsRepository, postSearchService);
+        order.verify(postsRepository).deleteById(1L);
+        order.verify(postSearchService).remove(testPost);
+        verify(userStatsService, times(1)).onPostDeleted(1L);
     }
 
     @Test
     public void testDeletePostNotFound() throws Exception {
-        when(postsRepository.existsById(999L)).thenReturn(false);
+        when(postsRepository.findById(999L)).thenReturn(Optional.empty());
 
         mockMvc.perform(delete("/api/posts/999")
                 .contentType(MediaType.APPLICATION_JSON))
@@ -184,4 +351,35 @@ public class PostsControllerTest {
 
         verify(postsRepository, never()).deleteById(anyLong());
     }
+
+    @Test
+    public void testLikePost() throws Exception {
+        when(likeService.like(5L, 1L)).thenReturn(true);
+
+        mockMvc.perform(post("/api/posts/1/like").param("userId", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.liked", is(true)))
+                .andExpect(jsonPath("$.changed", is(true)));
+
+        verify(likeService, times(1)).like(5L, 1L);
+    }
+
+    @Test
+    public void testLikePostNotFound() throws Exception {
+        when(likeService.like(5L, 999L)).thenThrow(new IllegalArgumentException("Post not found"));
+
+        mockMvc.perform(post("/api/posts/999/like").param("userId", "5"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().string("Post not found"));
+    }
+
+    @Test
+    public void testUnlikePost() throws Exception {
+        when(likeService.unlike(5L, 1L)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/posts/1/like").param("userId", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.liked", is(false)))
+                .andExpect(jsonPath("$.changed", is(false)));
+    }
 }
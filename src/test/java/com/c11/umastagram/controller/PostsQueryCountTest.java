@@ -0,0 +1,65 @@
+package com.c11.umastagram.controller;
+
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.repository.PostsRepository;
+import com.c11.umastagram.support.MaxQueries;
+import com.c11.umastagram.support.QueryCount;
+import com.c11.umastagram.support.QueryCountExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@ExtendWith(QueryCountExtension.class)
+public class PostsQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PostsRepository postsRepository;
+
+    @AfterEach
+    public void tearDown() {
+        postsRepository.deleteAll();
+    }
+
+    @Test
+    @MaxQueries(1)
+    public void getPostsByUser_isOneQueryAndReportsHeader() throws Exception {
+        mockMvc.perform(get("/api/posts/user/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Query-Count", "1"));
+    }
+
+    @Test
+    public void getAllPosts_queryCountDoesNotGrowWithRows(QueryCount queries) throws Exception {
+        List<Posts> posts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            posts.add(new Posts(1L, "post " + i, null, LocalDateTime.now()));
+        }
+        postsRepository.saveAll(posts);
+        queries.reset();
+
+        mockMvc.perform(get("/api/posts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)));
+
+        queries.assertAtMost(1);
+    }
+}
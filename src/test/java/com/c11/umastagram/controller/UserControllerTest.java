@@ -11,18 +11,32 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import com.c11.umastagram.service.UserService;
+import com.c11.umastagram.service.BlockService;
+import com.c11.umastagram.service.PasswordHasher;
+import com.c11.umastagram.service.UserStatsService;
 import com.c11.umastagram.util.JwtUtil;
 import com.c11.umastagram.dto.SignupRequest;
 import com.c11.umastagram.dto.LoginRequest;
+import com.c11.umastagram.dto.UserBatchRequest;
+import com.c11.umastagram.dto.UserProfile;
+import com.c11.umastagram.dto.UserSummary;
 import com.c11.umastagram.model.User;
+import com.c11.umastagram.model.UserStats;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,6 +55,15 @@ public class UserControllerTest {
     @MockBean
     private JwtUtil jwtUtil;
 
+    @MockBean
+    private UserStatsService userStatsService;
+
+    @MockBean
+    private BlockService blockService;
+
+    @MockBean
+    private PasswordHasher passwordHasher;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -60,11 +83,27 @@ public class UserControllerTest {
     public void tearDown() {
         testUser = null;
     }
+
+    private MvcResult signup(String requestJson) throws Exception {
+        return mockMvc.perform(post("/user/signup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    private MvcResult login(String requestJson) throws Exception {
+        return mockMvc.perform(post("/user/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
     
     @Test
     public void testSignup_Success() throws Exception {
         // Mock UserService to return saved user
-        when(userService.saveUser(any(User.class))).thenReturn(testUser);
+        when(userService.saveUserAsync(any(User.class))).thenReturn(CompletableFuture.completedFuture(testUser));
 
         // Create SignupRequest DTO
         SignupRequest signupRequest = new SignupRequest();
@@ -74,21 +113,19 @@ public class UserControllerTest {
 
         String requestJson = objectMapper.writeValueAsString(signupRequest);
 
-        mockMvc.perform(post("/user/signup")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(requestJson))
+        mockMvc.perform(asyncDispatch(signup(requestJson)))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.userId", is(testUser.getUserId().intValue())))
                 .andExpect(jsonPath("$.username", is(testUser.getUsername())))
                 .andExpect(jsonPath("$.email", is(testUser.getEmail())));
 
-        verify(userService, times(1)).saveUser(any(User.class));
+        verify(userService, times(1)).saveUserAsync(any(User.class));
     }
 
     @Test
     public void testSignup_MissingEmail() throws Exception {
         // Mock service to throw exception for missing email
-        when(userService.saveUser(any(User.class)))
+        when(userService.saveUserAsync(any(User.class)))
                 .thenThrow(new IllegalArgumentException("Email cannot be null or empty"));
 
         // Create SignupRequest DTO with missing email
@@ -98,18 +135,32 @@ public class UserControllerTest {
 
         String requestJson = objectMapper.writeValueAsString(signupRequest);
 
-        mockMvc.perform(post("/user/signup")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(requestJson))
+        mockMvc.perform(asyncDispatch(signup(requestJson)))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Email cannot be null or empty"));
     }
 
+    @Test
+    public void testSignup_HashPoolSaturated() throws Exception {
+        when(userService.saveUserAsync(any(User.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("queue full")));
+
+        SignupRequest signupRequest = new SignupRequest();
+        signupRequest.setUsername("testuser");
+        signupRequest.setEmail("testuser@example.com");
+        signupRequest.setPassword("password123");
+
+        mockMvc.perform(asyncDispatch(signup(objectMapper.writeValueAsString(signupRequest))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
     @Test
     public void testLogin_Success() throws Exception {
         // Mock service to return user
         when(userService.findUserByUsername("testuser")).thenReturn(Optional.of(testUser));
         when(jwtUtil.generateToken(anyLong(), anyString())).thenReturn("mocked-jwt-token");
+        when(passwordHasher.matches("password123", "password123")).thenReturn(CompletableFuture.completedFuture(true));
 
         // Create LoginRequest
         LoginRequest loginRequest = new LoginRequest();
@@ -118,9 +169,7 @@ public class UserControllerTest {
 
         String requestJson = objectMapper.writeValueAsString(loginRequest);
 
-        mockMvc.perform(post("/user/login")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(requestJson))
+        mockMvc.perform(asyncDispatch(login(requestJson)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("mocked-jwt-token"))
                 .andExpect(jsonPath("$.userId").value(1))
@@ -140,9 +189,7 @@ public class UserControllerTest {
 
         String requestJson = objectMapper.writeValueAsString(loginRequest);
 
-        mockMvc.perform(post("/user/login")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(requestJson))
+        mockMvc.perform(asyncDispatch(login(requestJson)))
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.error").value("An error occurred during login"));
     }
@@ -151,6 +198,7 @@ public class UserControllerTest {
     public void testLogin_InvalidPassword() throws Exception {
         // Mock service to return user
         when(userService.findUserByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("wrongpassword", "password123")).thenReturn(CompletableFuture.completedFuture(false));
 
         LoginRequest loginRequest = new LoginRequest();
         loginRequest.setUsername("testuser");
@@ -158,9 +206,7 @@ public class UserControllerTest {
 
         String requestJson = objectMapper.writeValueAsString(loginRequest);
 
-        mockMvc.perform(post("/user/login")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(requestJson))
+        mockMvc.perform(asyncDispatch(login(requestJson)))
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.error").value("Invalid username or password"));
     }
@@ -174,10 +220,100 @@ public class UserControllerTest {
 
         String requestJson = objectMapper.writeValueAsString(loginRequest);
 
-        mockMvc.perform(post("/user/login")
-                .contentType(MediaType.APPLICATION_JSON)
-                .content(requestJson))
+        mockMvc.perform(asyncDispatch(login(requestJson)))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Username and password are required"));
     }
+
+    @Test
+    public void testGetUserStats() throws Exception {
+        when(userStatsService.getStats(1L)).thenReturn(new UserStats(1L, 10L, 5L, 3L));
+
+        mockMvc.perform(get("/user/1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(1))
+                .andExpect(jsonPath("$.followerCount").value(10))
+                .andExpect(jsonPath("$.followingCount").value(5))
+                .andExpect(jsonPath("$.postCount").value(3));
+    }
+
+    @Test
+    public void testUserSearch_PassesLimitAndHidesBlockedUsers() throws Exception {
+        when(blockService.isBlocked(1L, 3L)).thenReturn(true);
+        when(userService.searchUsers(eq("ab"), eq(5), any())).thenAnswer(invocation -> {
+            LongPredicate include = invocation.getArgument(2);
+            return Stream.of(new UserSummary(2L, "abby"), new UserSummary(3L, "abe"))
+                    .filter(summary -> include.test(summary.getUserId()))
+                    .toList();
+        });
+
+        mockMvc.perform(get("/user/userSearch/ab").param("viewerId", "1").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0]").value("abby"));
+    }
+
+    @Test
+    public void testLogin_UpgradesPlaintextPassword() throws Exception {
+        when(userService.findUserByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(jwtUtil.generateToken(anyLong(), anyString())).thenReturn("mocked-jwt-token");
+        when(passwordHasher.matches("password123", "password123")).thenReturn(CompletableFuture.completedFuture(true));
+        when(passwordHasher.needsRehash("password123")).thenReturn(true);
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("testuser");
+        loginRequest.setPassword("password123");
+
+        mockMvc.perform(asyncDispatch(login(objectMapper.writeValueAsString(loginRequest))))
+                .andExpect(status().isOk());
+
+        verify(userService, times(1)).rehashPassword(testUser, "password123");
+    }
+
+    @Test
+    public void testLogin_HashPoolSaturated() throws Exception {
+        when(userService.findUserByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(passwordHasher.matches("password123", "password123"))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("queue full")));
+
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsername("testuser");
+        loginRequest.setPassword("password123");
+
+        mockMvc.perform(asyncDispatch(login(objectMapper.writeValueAsString(loginRequest))))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Too many login attempts, please try again shortly"));
+        verify(userService, never()).rehashPassword(any(User.class), anyString());
+    }
+
+    @Test
+    public void testGetUsersBatch_HidesBlockedUsers() throws Exception {
+        when(userService.findProfiles(List.of(1L, 2L), List.of("abby"))).thenReturn(List.of(
+                new UserProfile(1L, "testuser", null, "testuser@example.com"),
+                new UserProfile(2L, "blocked", null, "blocked@example.com"),
+                new UserProfile(3L, "abby", "abbyGitHub", "abby@example.com")));
+        when(blockService.isBlocked(9L, 2L)).thenReturn(true);
+
+        UserBatchRequest request = new UserBatchRequest(List.of(1L, 2L), List.of("abby"), 9L);
+
+        mockMvc.perform(post("/user/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].username").value("testuser"))
+                .andExpect(jsonPath("$[1].userId").value(3))
+                .andExpect(jsonPath("$[1].githubUsername").value("abbyGitHub"));
+    }
+
+    @Test
+    public void testGetUsersBatch_TooManyUsers() throws Exception {
+        when(userService.findProfiles(any(), any())).thenThrow(new IllegalArgumentException("at most 200 users are allowed"));
+
+        mockMvc.perform(post("/user/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"userIds\":[1,2,3]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("at most 200 users are allowed"));
+    }
 }
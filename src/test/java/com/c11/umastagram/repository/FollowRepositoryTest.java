@@ -1,11 +1,14 @@
 package com.c11.umastagram.repository;
 
+import com.c11.umastagram.dto.FollowEntry;
 import com.c11.umastagram.model.Follow;
+import com.c11.umastagram.model.User;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -74,4 +77,73 @@ public class FollowRepositoryTest {
         assertTrue(followers.stream().anyMatch(f -> f.getUserId().equals(1L)));
         assertTrue(followers.stream().anyMatch(f -> f.getUserId().equals(2L)));
     }
+
+    @Test
+    public void findFollowerUsernamesByUserId_joinsUsersAndSkipsMissing() {
+        LocalDateTime now = LocalDateTime.now();
+        User alice = entityManager.persist(new User("alice", "alice@example.com", "pw"));
+        User bob = entityManager.persist(new User("bob", "bob@example.com", "pw"));
+        User target = entityManager.persist(new User("target", "target@example.com", "pw"));
+        entityManager.persist(new Follow(alice.getUserId(), target.getUserId(), now));
+        entityManager.persist(new Follow(bob.getUserId(), target.getUserId(), now));
+        // follower account that no longer exists
+        entityManager.persist(new Follow(999_999L, target.getUserId(), now));
+        entityManager.flush();
+
+        List<String> usernames = followRepository.findFollowerUsernamesByUserId(target.getUserId());
+
+        assertEquals(2, usernames.size());
+        assertTrue(usernames.containsAll(List.of("alice", "bob")));
+    }
+
+    @Test
+    public void insertAllIfAbsent_skipsExistingFollows() {
+        LocalDateTime now = LocalDateTime.now();
+        entityManager.persistAndFlush(new Follow(50L, 60L, now));
+
+        int inserted = followRepository.insertAllIfAbsent(List.of(new Follow(50L, 60L, now), new Follow(60L, 50L, now)));
+        entityManager.clear();
+
+        assertEquals(1, inserted);
+        assertTrue(followRepository.getFollow(50L, 60L).isPresent());
+        assertTrue(followRepository.getFollow(60L, 50L).isPresent());
+    }
+
+    @Test
+    public void findFollowersPages_walkNewestFirstWithoutOverlap() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        User target = entityManager.persist(new User("target", "target@example.com", "pw"));
+        User a = entityManager.persist(new User("a", "a@example.com", "pw"));
+        User b = entityManager.persist(new User("b", "b@example.com", "pw"));
+        User c = entityManager.persist(new User("c", "c@example.com", "pw"));
+        for (User follower : List.of(a, b, c)) {
+            Follow f = new Follow(follower.getUserId(), target.getUserId(), null);
+            // b and c followed at the same instant, so the id breaks the tie
+            f.setRequestTime(follower == a ? base : base.plusMinutes(1));
+            entityManager.persist(f);
+        }
+        entityManager.flush();
+
+        List<FollowEntry> first = followRepository.findFollowersFirstPage(target.getUserId(), PageRequest.of(0, 2));
+        FollowEntry last = first.get(1);
+        List<FollowEntry> second = followRepository.findFollowersPageAfter(
+                target.getUserId(), last.getFollowedAt(), last.getUserId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of("c", "b"), first.stream().map(FollowEntry::getUsername).toList());
+        assertEquals(List.of("a"), second.stream().map(FollowEntry::getUsername).toList());
+    }
+
+    @Test
+    public void findFollowingFirstPage_listsFollowedUsers() {
+        User reader = entityManager.persist(new User("reader", "reader@example.com", "pw"));
+        User author = entityManager.persist(new User("author", "author@example.com", "pw"));
+        entityManager.persist(new Follow(reader.getUserId(), author.getUserId(), LocalDateTime.now()));
+        entityManager.flush();
+
+        List<FollowEntry> following = followRepository.findFollowingFirstPage(reader.getUserId(), PageRequest.of(0, 10));
+
+        assertEquals(1, following.size());
+        assertEquals(author.getUserId(), following.get(0).getUserId());
+        assertEquals("author", following.get(0).getUsername());
+    }
 }
@@ -0,0 +1,42 @@
+package com.c11.umastagram.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+public class UserBlockRepositoryTest {
+
+    @Autowired
+    private UserBlockRepository userBlockRepository;
+
+    @Test
+    public void insertIfAbsent_skipsExistingBlock() {
+        assertEquals(1, userBlockRepository.insertIfAbsent(10L, 20L));
+        assertEquals(0, userBlockRepository.insertIfAbsent(10L, 20L));
+    }
+
+    @Test
+    public void existsBlockBetween_matchesEitherDirection() {
+        userBlockRepository.insertIfAbsent(10L, 20L);
+
+        assertTrue(userBlockRepository.existsBlockBetween(10L, 20L));
+        assertTrue(userBlockRepository.existsBlockBetween(20L, 10L));
+        assertFalse(userBlockRepository.existsBlockBetween(10L, 30L));
+    }
+
+    @Test
+    public void deleteBlock_removesOneDirectionOnly() {
+        userBlockRepository.insertIfAbsent(10L, 20L);
+        userBlockRepository.insertIfAbsent(20L, 10L);
+
+        assertEquals(1, userBlockRepository.deleteBlock(10L, 20L));
+        assertTrue(userBlockRepository.existsBlockBetween(10L, 20L));
+        assertEquals(1, userBlockRepository.deleteBlock(20L, 10L));
+        assertFalse(userBlockRepository.existsBlockBetween(10L, 20L));
+    }
+}
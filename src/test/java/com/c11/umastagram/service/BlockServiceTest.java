@@ -0,0 +1,119 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.repository.FriendRequestRepository;
+import com.c11.umastagram.repository.UserBlockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BlockServiceTest {
+
+    @Mock
+    private UserBlockRepository userBlockRepository;
+
+    @Mock
+    private FriendRequestRepository friendRequestRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private DuplicateEdgeFilter duplicateEdgeFilter;
+
+    @InjectMocks
+    private BlockService blockService;
+
+    private void givenBlocks(long[]... blocks) {
+        when(userBlockRepository.streamAllPairs()).thenReturn(Stream.of(blocks).map(b -> new Object[]{b[0], b[1]}));
+        blockService.load();
+    }
+
+    @Test
+    public void isBlocked_queriesDatabaseBeforeLoad() {
+        when(userBlockRepository.existsBlockBetween(1L, 2L)).thenReturn(true);
+
+        assertTrue(blockService.isBlocked(1L, 2L));
+        assertFalse(blockService.isReady());
+    }
+
+    @Test
+    public void isBlocked_checksBothDirectionsInMemory() {
+        givenBlocks(new long[]{1, 2}, new long[]{1, 3});
+
+        assertTrue(blockService.isBlocked(1L, 2L));
+        assertTrue(blockService.isBlocked(3L, 1L));
+        assertFalse(blockService.isBlocked(2L, 3L));
+        assertFalse(blockService.isBlocked(null, 2L));
+        assertArrayEquals(new long[]{2, 3}, blockService.getBlockedIds(1L));
+        verify(userBlockRepository, never()).existsBlockBetween(anyLong(), anyLong());
+    }
+
+    @Test
+    public void block_isVisibleImmediatelyAndDeletesRequests() {
+        givenBlocks();
+        when(userBlockRepository.insertIfAbsent(1L, 2L)).thenReturn(1);
+        when(friendRequestRepository.deleteFriendRequest(1L, 2L)).thenReturn(0);
+        when(friendRequestRepository.deleteFriendRequest(2L, 1L)).thenReturn(1);
+
+        assertTrue(blockService.block(1L, 2L));
+
+        assertTrue(blockService.isBlocked(2L, 1L));
+        verify(friendRequestRepository, times(1)).deleteFriendRequest(1L, 2L);
+        verify(friendRequestRepository, times(1)).deleteFriendRequest(2L, 1L);
+        // only the request that existed leaves the filter
+        verify(duplicateEdgeFilter, times(1)).friendRequestRemoved(2L, 1L);
+        verify(duplicateEdgeFilter, never()).friendRequestRemoved(1L, 2L);
+    }
+
+    @Test
+    public void block_existingBlockIsNoOp() {
+        when(userBlockRepository.insertIfAbsent(1L, 2L)).thenReturn(0);
+
+        assertFalse(blockService.block(1L, 2L));
+        verify(friendRequestRepository, never()).deleteFriendRequest(anyLong(), anyLong());
+        verifyNoInteractions(duplicateEdgeFilter);
+    }
+
+    @Test
+    public void block_rejectsSelf() {
+        assertThrows(IllegalArgumentException.class, () -> blockService.block(1L, 1L));
+    }
+
+    @Test
+    public void unblock_keepsReverseBlock() {
+        givenBlocks(new long[]{1, 2}, new long[]{2, 1});
+        when(userBlockRepository.deleteBlock(1L, 2L)).thenReturn(1);
+
+        blockService.unblock(1L, 2L);
+
+        assertTrue(blockService.isBlocked(1L, 2L));
+        assertArrayEquals(new long[0], blockService.getBlockedIds(1L));
+    }
+
+    @Test
+    public void blockedSetsHandleManyIdsAndRemovals() {
+        givenBlocks();
+        when(userBlockRepository.insertIfAbsent(eq(1L), anyLong())).thenReturn(1);
+        when(userBlockRepository.deleteBlock(eq(1L), anyLong())).thenReturn(1);
+        for (long id = 2; id <= 100; id++) {
+            blockService.block(1L, id);
+        }
+        for (long id = 2; id <= 100; id += 2) {
+            blockService.unblock(1L, id);
+        }
+
+        for (long id = 2; id <= 100; id++) {
+            assertEquals(id % 2 == 1, blockService.isBlocked(1L, id), "id " + id);
+        }
+        assertEquals(49, blockService.getBlockedIds(1L).length);
+    }
+}
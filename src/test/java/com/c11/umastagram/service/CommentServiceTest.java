@@ -0,0 +1,154 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.dto.CommentPageResponse;
+import com.c11.umastagram.model.Comment;
+import com.c11.umastagram.repository.CommentRepository;
+import com.c11.umastagram.repository.PostsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CommentServiceTest {
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private PostsRepository postsRepository;
+
+    @Mock
+    private TrendingService trendingService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CommentService commentService;
+
+    private Comment comment(int id, int postId) {
+        Comment c = new Comment("comment " + id, 5, postId);
+        c.setCommentId(id);
+        return c;
+    }
+
+    @Test
+    public void addComment_savesAndIncrementsCount() {
+        when(postsRepository.adjustCommentCount(1L, 1)).thenReturn(1);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Comment saved = commentService.addComment(1L, 5L, "nice");
+
+        assertEquals(1, saved.getPostId());
+        assertEquals(5, saved.getUserId());
+        assertEquals("nice", saved.getCommentText());
+        verify(postsRepository, times(1)).adjustCommentCount(1L, 1);
+        verify(trendingService, times(1)).recordComment(1L);
+    }
+
+    @Test
+    public void addComment_recordsTrendingOnlyAfterCommit() {
+        when(postsRepository.adjustCommentCount(1L, 1)).thenReturn(1);
+        when(commentRepository.save(any(Comment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            commentService.addComment(1L, 5L, "nice");
+            verify(trendingService, never()).recordComment(anyLong());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(trendingService, times(1)).recordComment(1L);
+    }
+
+    @Test
+    public void addComment_missingPostThrows() {
+        when(postsRepository.adjustCommentCount(1L, 1)).thenReturn(0);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> commentService.addComment(1L, 5L, "nice"));
+        assertEquals("Post not found", ex.getMessage());
+        verify(commentRepository, never()).save(any());
+    }
+
+    @Test
+    public void addComment_rejectsBlankAndOverlongText() {
+        assertThrows(IllegalArgumentException.class, () -> commentService.addComment(1L, 5L, " "));
+        assertThrows(IllegalArgumentException.class,
+                () -> commentService.addComment(1L, 5L, "x".repeat(CommentService.MAX_COMMENT_LENGTH + 1)));
+        verifyNoInteractions(postsRepository, commentRepository);
+    }
+
+    @Test
+    public void deleteComment_decrementsCount() {
+        Comment existing = comment(3, 1);
+        when(commentRepository.findById(3)).thenReturn(Optional.of(existing));
+
+        assertTrue(commentService.deleteComment(1L, 3));
+        verify(commentRepository, times(1)).delete(existing);
+        verify(postsRepository, times(1)).adjustCommentCount(1L, -1);
+    }
+
+    @Test
+    public void deleteComment_wrongPostIsNotFound() {
+        when(commentRepository.findById(3)).thenReturn(Optional.of(comment(3, 2)));
+
+        assertFalse(commentService.deleteComment(1L, 3));
+        verify(commentRepository, never()).delete(any());
+        verify(postsRepository, never()).adjustCommentCount(anyLong(), anyInt());
+    }
+
+    @Test
+    public void getComments_fullPageReturnsCursor() {
+        when(commentRepository.findPageAfter(eq(1), eq(10), any())).thenReturn(List.of(comment(11, 1), comment(12, 1)));
+
+        CommentPageResponse page = commentService.getComments(1L, 10, 2);
+
+        assertEquals(2, page.getComments().size());
+        assertEquals(12, page.getNextCursor());
+    }
+
+    @Test
+    public void getComments_shortPageHasNoCursor() {
+        when(commentRepository.findFirstPage(eq(1), any())).thenReturn(List.of(comment(1, 1)));
+
+        CommentPageResponse page = commentService.getComments(1L, null, 20);
+
+        assertEquals(1, page.getComments().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void reconcileCommentCounts_repairsDriftedCountsInChunks() {
+        ReflectionTestUtils.setField(commentService, "reconcileChunkSize", 2);
+        when(postsRepository.findCommentCountsAfter(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(new Object[]{1L, 0, 3L}, new Object[]{2L, 2, 2L}));
+        when(postsRepository.findCommentCountsAfter(eq(2L), any(Pageable.class)))
+                .thenReturn(List.<Object[]>of(new Object[]{5L, -1, 0L}));
+        when(postsRepository.findCommentCountsAfter(eq(5L), any(Pageable.class))).thenReturn(List.of());
+        when(postsRepository.repairCommentCount(1L, 0, 3)).thenReturn(1);
+        when(postsRepository.repairCommentCount(5L, -1, 0)).thenReturn(1);
+
+        commentService.reconcileCommentCounts();
+
+        verify(postsRepository, never()).repairCommentCount(eq(2L), anyInt(), anyInt());
+        verify(postsRepository, times(1)).repairCommentCount(1L, 0, 3);
+        verify(postsRepository, times(1)).repairCommentCount(5L, -1, 0);
+    }
+}
@@ -0,0 +1,144 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.repository.FollowRepository;
+import com.c11.umastagram.repository.FriendRequestRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DuplicateEdgeFilterTest {
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private FriendRequestRepository friendRequestRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @InjectMocks
+    private DuplicateEdgeFilter duplicateEdgeFilter;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(duplicateEdgeFilter, "enabled", true);
+        ReflectionTestUtils.setField(duplicateEdgeFilter, "fpp", 0.01);
+        ReflectionTestUtils.setField(duplicateEdgeFilter, "minCapacity", 1000L);
+        lenient().when(meterRegistry.getIfAvailable()).thenReturn(registry);
+    }
+
+    private void givenTables() {
+        when(followRepository.count()).thenReturn(2L);
+        when(followRepository.streamEdgePartition(1, 0)).thenReturn(Stream.of(new Object[]{1L, 2L}, new Object[]{2L, 3L}));
+        when(friendRequestRepository.count()).thenReturn(1L);
+        when(friendRequestRepository.streamAllPairs()).thenReturn(Stream.<Object[]>of(new Object[]{5L, 6L}));
+    }
+
+    @Test
+    public void everythingMightExistBeforeLoad() {
+        assertTrue(duplicateEdgeFilter.followMightExist(1L, 2L));
+        assertTrue(duplicateEdgeFilter.friendRequestMightExist(5L, 6L));
+    }
+
+    @Test
+    public void load_holdsExistingPairsOnly() {
+        givenTables();
+
+        duplicateEdgeFilter.load();
+
+        assertTrue(duplicateEdgeFilter.followMightExist(1L, 2L));
+        assertTrue(duplicateEdgeFilter.followMightExist(2L, 3L));
+        assertFalse(duplicateEdgeFilter.followMightExist(2L, 1L));
+        assertTrue(duplicateEdgeFilter.friendRequestMightExist(5L, 6L));
+        assertFalse(duplicateEdgeFilter.friendRequestMightExist(6L, 5L));
+    }
+
+    @Test
+    public void addAndRemoveKeepFilterCurrent() {
+        givenTables();
+        duplicateEdgeFilter.load();
+
+        duplicateEdgeFilter.followAdded(7L, 8L);
+        assertTrue(duplicateEdgeFilter.followMightExist(7L, 8L));
+
+        duplicateEdgeFilter.followRemoved(1L, 2L);
+        assertFalse(duplicateEdgeFilter.followMightExist(1L, 2L));
+        assertTrue(duplicateEdgeFilter.followMightExist(2L, 3L));
+    }
+
+    @Test
+    public void removingAPairAddedElsewhereCanHideAHeldPair() {
+        // one slot per pair, so any other pair the filter reports as present shares (1, 2)'s slot
+        ReflectionTestUtils.setField(duplicateEdgeFilter, "fpp", 0.5);
+        ReflectionTestUtils.setField(duplicateEdgeFilter, "minCapacity", 1L);
+        when(followRepository.count()).thenReturn(1L);
+        when(followRepository.streamEdgePartition(1, 0)).thenReturn(Stream.<Object[]>of(new Object[]{1L, 2L}));
+        when(friendRequestRepository.count()).thenReturn(0L);
+        when(friendRequestRepository.streamAllPairs()).thenReturn(Stream.empty());
+        duplicateEdgeFilter.load();
+        long friendId = 1;
+        while (!duplicateEdgeFilter.followMightExist(100L, friendId)) {
+            friendId++;
+        }
+
+        // (100, friendId) was followed through another instance and is unfollowed through this one
+        duplicateEdgeFilter.followRemoved(100L, friendId);
+
+        // the filter now misses (1, 2), so inserting it again skips the SELECT and relies on
+        // the primary key, see FollowServiceTest.saveFollow_primaryKeyViolationIsDuplicate
+        assertFalse(duplicateEdgeFilter.followMightExist(1L, 2L));
+    }
+
+    @Test
+    public void load_failureLeavesEveryPairPossible() {
+        when(followRepository.count()).thenThrow(new RuntimeException("db down"));
+        when(friendRequestRepository.count()).thenReturn(0L);
+        when(friendRequestRepository.streamAllPairs()).thenReturn(Stream.empty());
+
+        duplicateEdgeFilter.load();
+
+        assertTrue(duplicateEdgeFilter.followMightExist(9L, 9L));
+        assertFalse(duplicateEdgeFilter.friendRequestMightExist(9L, 9L));
+
+        // a filter that is not built is not wrong, so its misses are not false positives
+        duplicateEdgeFilter.recordFollowFalsePositive();
+        assertEquals(0.0, registry.get("edge.filter.false.positive.rate").tag("filter", "follow").gauge().value(), 1e-9);
+    }
+
+    @Test
+    public void falsePositiveRateIsPublished() {
+        givenTables();
+        duplicateEdgeFilter.load();
+
+        // three absent pairs answered without a query, one after a query that found nothing
+        for (long id = 100; id < 103; id++) {
+            assertFalse(duplicateEdgeFilter.followMightExist(id, id + 1));
+        }
+        duplicateEdgeFilter.recordFollowFalsePositive();
+
+        assertEquals(0.25, registry.get("edge.filter.false.positive.rate").tag("filter", "follow").gauge().value(), 1e-9);
+        assertEquals(3.0, registry.get("edge.filter.skipped.queries").tag("filter", "follow").functionCounter().count(), 1e-9);
+        assertEquals(2.0, registry.get("edge.filter.size").tag("filter", "follow").gauge().value(), 1e-9);
+        assertEquals(0.0, registry.get("edge.filter.false.positive.rate").tag("filter", "friend_request").gauge().value(), 1e-9);
+    }
+}
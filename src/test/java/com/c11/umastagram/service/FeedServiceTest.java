@@ -0,0 +1,207 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.dto.FeedResponse;
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.repository.PostsRepository;
+import com.c11.umastagram.util.KeysetCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FeedServiceTest {
+
+    @Mock
+    private PostsRepository postsRepository;
+
+    @Mock
+    private TimelineService timelineService;
+
+    @Mock
+    private BlockService blockService;
+
+    @InjectMocks
+    private FeedService feedService;
+
+    private Posts post(long id, LocalDateTime datePosted) {
+        Posts p = new Posts(2L, "post " + id, null, datePosted);
+        p.setId(id);
+        return p;
+    }
+
+    @Test
+    public void getFeed_firstPageReturnsCursorWhenPageIsFull() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Posts> page = Arrays.asList(post(3L, now), post(2L, now.minusMinutes(1)));
+        when(postsRepository.findFeedFirstPage(1L, PageRequest.of(0, 2))).thenReturn(page);
+
+        FeedResponse feed = feedService.getFeed(1L, null, 2);
+
+        assertEquals(2, feed.getPosts().size());
+        assertNotNull(feed.getNextCursor());
+        KeysetCursor cursor = KeysetCursor.decode(feed.getNextCursor());
+        assertEquals(2L, cursor.getId());
+        assertEquals(now.minusMinutes(1), cursor.getTimestamp());
+    }
+
+    @Test
+    public void getFeed_lastPageHasNoCursor() {
+        LocalDateTime now = LocalDateTime.now();
+        when(postsRepository.findFeedFirstPage(1L, PageRequest.of(0, 20))).thenReturn(List.of(post(1L, now)));
+
+        FeedResponse feed = feedService.getFeed(1L, null, 20);
+
+        assertEquals(1, feed.getPosts().size());
+        assertNull(feed.getNextCursor());
+    }
+
+    @Test
+    public void getFeed_usesCursorForNextPage() {
+        LocalDateTime then = LocalDateTime.of(2025, 12, 1, 10, 30);
+        String cursor = new KeysetCursor(then, 7L).encode();
+        when(postsRepository.findFeedPageBefore(eq(1L), eq(then), eq(7L), any())).thenReturn(List.of());
+
+        FeedResponse feed = feedService.getFeed(1L, cursor, 20);
+
+        assertTrue(feed.getPosts().isEmpty());
+        verify(postsRepository, never()).findFeedFirstPage(any(), any());
+    }
+
+    @Test
+    public void getFeed_clampsPageSize() {
+        when(postsRepository.findFeedFirstPage(1L, PageRequest.of(0, FeedService.MAX_PAGE_SIZE))).thenReturn(List.of());
+
+        feedService.getFeed(1L, null, 10_000);
+
+        verify(postsRepository, times(1)).findFeedFirstPage(1L, PageRequest.of(0, FeedService.MAX_PAGE_SIZE));
+    }
+
+    private static TimelineService.TimelinePage timelinePage(List<Long> postIds, boolean more, boolean complete, KeysetCursor oldest) {
+        return new TimelineService.TimelinePage(postIds, more, complete, oldest);
+    }
+
+    @Test
+    public void getFeed_servesFullPageFromTimeline() {
+        LocalDateTime now = LocalDateTime.now();
+        when(timelineService.isEnabled()).thenReturn(true);
+        when(timelineService.getTimelinePage(1L, null, 2)).thenReturn(
+            timelinePage(List.of(3L, 2L), true, false, new KeysetCursor(now.minusMinutes(2), 1L)));
+        when(timelineService.getReadFanoutAuthors(1L)).thenReturn(List.of());
+        when(postsRepository.findAllById(List.of(3L, 2L))).thenReturn(Arrays.asList(
+            post(2L, now.minusMinutes(1)), post(3L, now)));
+
+        FeedResponse feed = feedService.getFeed(1L, null, 2);
+
+        assertEquals(2, feed.getPosts().size());
+        assertEquals(3L, feed.getPosts().get(0).getId());
+        assertEquals(2L, feed.getPosts().get(1).getId());
+        assertNotNull(feed.getNextCursor());
+        verify(postsRepository, never()).findFeedFirstPage(any(), any());
+    }
+
+    @Test
+    public void getFeed_readsOnlyThePageSliceOfTheTimeline() {
+        LocalDateTime then = LocalDateTime.now().minusHours(1);
+        KeysetCursor cursor = new KeysetCursor(then, 7L);
+        when(timelineService.isEnabled()).thenReturn(true);
+        when(timelineService.getTimelinePage(eq(1L), any(KeysetCursor.class), eq(1))).thenReturn(
+            timelinePage(List.of(6L), true, false, new KeysetCursor(then.minusDays(1), 1L)));
+        when(timelineService.getReadFanoutAuthors(1L)).thenReturn(List.of());
+        when(postsRepository.findAllById(List.of(6L))).thenReturn(List.of(post(6L, then.minusMinutes(1))));
+
+        FeedResponse feed = feedService.getFeed(1L, cursor.encode(), 1);
+
+        assertEquals(6L, feed.getPosts().get(0).getId());
+        verify(postsRepository, times(1)).findAllById(List.of(6L));
+        verify(postsRepository, never()).findFeedPageBefore(any(), any(), any(), any());
+    }
+
+    @Test
+    public void getFeed_mergesHighFollowerAuthorsIntoTimelinePage() {
+        LocalDateTime now = LocalDateTime.now();
+        Posts celebrityPost = new Posts(99L, "celebrity post", null, now.minusSeconds(30));
+        celebrityPost.setId(50L);
+        Posts olderThanRing = new Posts(99L, "old celebrity post", null, now.minusHours(1));
+        olderThanRing.setId(40L);
+        when(timelineService.isEnabled()).thenReturn(true);
+        when(timelineService.getTimelinePage(1L, null, 3)).thenReturn(
+            timelinePage(List.of(3L, 2L, 1L), true, false, new KeysetCursor(now.minusMinutes(5), 1L)));
+        when(timelineService.getReadFanoutAuthors(1L)).thenReturn(List.of(99L));
+        when(postsRepository.findAllById(List.of(3L, 2L, 1L))).thenReturn(Arrays.asList(
+            post(3L, now), post(2L, now.minusMinutes(1)), post(1L, now.minusMinutes(5))));
+        when(postsRepository.findAuthorsFirstPage(eq(List.of(99L)), any())).thenReturn(List.of(celebrityPost, olderThanRing));
+
+        FeedResponse feed = feedService.getFeed(1L, null, 3);
+
+        assertEquals(List.of(3L, 50L, 2L), feed.getPosts().stream().map(Posts::getId).toList());
+    }
+
+    @Test
+    public void getFeed_servesShortPageFromCompleteTimeline() {
+        LocalDateTime now = LocalDateTime.now();
+        Posts celebrityPost = new Posts(99L, "celebrity post", null, now.minusHours(1));
+        celebrityPost.setId(50L);
+        when(timelineService.isEnabled()).thenReturn(true);
+        when(timelineService.getTimelinePage(1L, null, 5)).thenReturn(
+            timelinePage(List.of(3L), false, true, new KeysetCursor(now, 3L)));
+        when(timelineService.getReadFanoutAuthors(1L)).thenReturn(List.of(99L));
+        when(postsRepository.findAllById(List.of(3L))).thenReturn(List.of(post(3L, now)));
+        when(postsRepository.findAuthorsFirstPage(eq(List.of(99L)), any())).thenReturn(List.of(celebrityPost));
+
+        FeedResponse feed = feedService.getFeed(1L, null, 5);
+
+        // a complete timeline has nothing older, so pulled posts past its end still count
+        assertEquals(List.of(3L, 50L), feed.getPosts().stream().map(Posts::getId).toList());
+        assertNull(feed.getNextCursor());
+        verify(postsRepository, never()).findFeedFirstPage(any(), any());
+    }
+
+    @Test
+    public void getFeed_fallsBackToJoinWhenIncompleteTimelineCannotFillPage() {
+        LocalDateTime now = LocalDateTime.now();
+        when(timelineService.isEnabled()).thenReturn(true);
+        when(timelineService.getTimelinePage(1L, null, 2)).thenReturn(
+            timelinePage(List.of(3L), false, false, new KeysetCursor(now, 3L)));
+        when(timelineService.getReadFanoutAuthors(1L)).thenReturn(List.of());
+        when(postsRepository.findAllById(List.of(3L))).thenReturn(List.of(post(3L, now)));
+        when(postsRepository.findFeedFirstPage(1L, PageRequest.of(0, 2))).thenReturn(List.of(post(3L, now), post(2L, now.minusMinutes(1))));
+
+        FeedResponse feed = feedService.getFeed(1L, null, 2);
+
+        assertEquals(2, feed.getPosts().size());
+        assertNotNull(feed.getNextCursor());
+        verify(postsRepository, times(1)).findFeedFirstPage(1L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    public void getFeed_fallsBackToJoinWhenTimelinePostWasDeleted() {
+        LocalDateTime now = LocalDateTime.now();
+        when(timelineService.isEnabled()).thenReturn(true);
+        when(timelineService.getTimelinePage(1L, null, 2)).thenReturn(
+            timelinePage(List.of(3L, 2L), true, true, new KeysetCursor(now.minusDays(1), 1L)));
+        when(postsRepository.findAllById(List.of(3L, 2L))).thenReturn(List.of(post(3L, now)));
+        when(postsRepository.findFeedFirstPage(1L, PageRequest.of(0, 2))).thenReturn(List.of(post(3L, now), post(1L, now.minusDays(1))));
+
+        FeedResponse feed = feedService.getFeed(1L, null, 2);
+
+        assertEquals(2, feed.getPosts().size());
+        verify(timelineService, never()).getReadFanoutAuthors(any());
+    }
+
+    @Test
+    public void getFeed_rejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> feedService.getFeed(1L, "not-a-cursor", 20));
+    }
+}
@@ -0,0 +1,208 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.repository.FollowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FollowGraphIndexTest {
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private FollowGraphIndex followGraphIndex;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(followGraphIndex, "enabled", true);
+        ReflectionTestUtils.setField(followGraphIndex, "loadPartitions", 2);
+        ReflectionTestUtils.setField(followGraphIndex, "compactThreshold", 2);
+    }
+
+    // rows are handed out by partition the same way MOD(userId, partitions) splits them
+    private void givenEdges(long[]... edges) {
+        when(followRepository.streamEdgePartition(eq(2), anyInt())).thenAnswer(invocation -> {
+            int partition = invocation.getArgument(1);
+            List<Object[]> rows = new ArrayList<>();
+            for (long[] edge : edges) {
+                if (edge[0] % 2 == partition) {
+                    rows.add(new Object[]{edge[0], edge[1]});
+                }
+            }
+            return rows.stream();
+        });
+    }
+
+    @Test
+    public void notReadyBeforeLoad() {
+        assertFalse(followGraphIndex.isReady());
+        assertThrows(IllegalStateException.class, () -> followGraphIndex.follows(1L, 2L));
+    }
+
+    @Test
+    public void load_buildsOutAndInEdges() {
+        givenEdges(new long[]{1, 2}, new long[]{1, 3}, new long[]{2, 3}, new long[]{4, 1});
+
+        followGraphIndex.load();
+
+        assertTrue(followGraphIndex.isReady());
+        assertEquals(4, followGraphIndex.getEdgeCount());
+        assertTrue(followGraphIndex.follows(1L, 3L));
+        assertFalse(followGraphIndex.follows(3L, 1L));
+        assertEquals(2, followGraphIndex.followingCount(1L));
+        assertEquals(2, followGraphIndex.followerCount(3L));
+        assertArrayEquals(new long[]{2, 3}, followGraphIndex.following(1L));
+        assertArrayEquals(new long[]{1, 2}, followGraphIndex.followers(3L));
+        assertArrayEquals(new long[0], followGraphIndex.followers(4L));
+    }
+
+    @Test
+    public void addAndRemoveEdge_updateOverlay() {
+        givenEdges(new long[]{1, 2}, new long[]{1, 4});
+        followGraphIndex.load();
+
+        followGraphIndex.addEdge(1L, 3L);
+        followGraphIndex.removeEdge(1L, 2L);
+        followGraphIndex.addEdge(1L, 3L);
+
+        assertTrue(followGraphIndex.follows(1L, 3L));
+        assertFalse(followGraphIndex.follows(1L, 2L));
+        assertArrayEquals(new long[]{3, 4}, followGraphIndex.following(1L));
+        assertArrayEquals(new long[]{1}, followGraphIndex.followers(3L));
+        assertEquals(0, followGraphIndex.followerCount(2L));
+        assertEquals(2, followGraphIndex.getEdgeCount());
+
+        followGraphIndex.addEdge(1L, 2L);
+        followGraphIndex.removeEdge(1L, 3L);
+
+        assertArrayEquals(new long[]{2, 4}, followGraphIndex.following(1L));
+        assertEquals(0, followGraphIndex.followerCount(3L));
+    }
+
+    @Test
+    public void compact_foldsOverlayIntoArrays() {
+        givenEdges(new long[]{1, 2});
+        followGraphIndex.load();
+        followGraphIndex.addEdge(5L, 1L);
+        followGraphIndex.addEdge(5L, 2L);
+        followGraphIndex.removeEdge(1L, 2L);
+
+        followGraphIndex.compact();
+
+        List<Long> seen = new ArrayList<>();
+        followGraphIndex.forEachFollowing(5L, seen::add);
+        assertEquals(List.of(1L, 2L), seen);
+        assertFalse(followGraphIndex.follows(1L, 2L));
+        assertEquals(2, followGraphIndex.getEdgeCount());
+        assertEquals(1, followGraphIndex.followerCount(1L));
+    }
+
+    @Test
+    public void load_waitsForCompactionInProgress() throws InterruptedException {
+        givenEdges(new long[]{1, 2});
+        // a compaction is recording changes
+        ReflectionTestUtils.setField(followGraphIndex, "pendingChanges", new ArrayList<>());
+
+        Thread loader = new Thread(followGraphIndex::load);
+        loader.start();
+        loader.join(200);
+        assertTrue(loader.isAlive());
+        verifyNoInteractions(followRepository);
+
+        ReflectionTestUtils.invokeMethod(followGraphIndex, "endRebuild");
+        loader.join(5000);
+
+        assertFalse(loader.isAlive());
+        assertTrue(followGraphIndex.follows(1L, 2L));
+        assertNull(ReflectionTestUtils.getField(followGraphIndex, "pendingChanges"));
+    }
+
+    @Test
+    public void load_failureLeavesIndexNotReady() {
+        when(followRepository.streamEdgePartition(anyInt(), anyInt())).thenReturn(Stream.of());
+        when(followRepository.streamEdgePartition(2, 1)).thenThrow(new RuntimeException("down"));
+
+        followGraphIndex.load();
+
+        assertFalse(followGraphIndex.isReady());
+    }
+
+    private FollowGraphIndex restoredIndex(Path dir) {
+        FollowGraphIndex restored = new FollowGraphIndex();
+        ReflectionTestUtils.setField(restored, "enabled", true);
+        ReflectionTestUtils.setField(restored, "compactThreshold", 2);
+        ReflectionTestUtils.setField(restored, "snapshotDir", dir.toString());
+        ReflectionTestUtils.setField(restored, "snapshotMarginMs", 0L);
+        ReflectionTestUtils.setField(restored, "followRepository", followRepository);
+        ReflectionTestUtils.setField(restored, "transactionManager", transactionManager);
+        return restored;
+    }
+
+    @Test
+    public void loadSnapshot_restoresGraphAndAppliesNewerFollows(@TempDir Path dir) {
+        givenEdges(new long[]{1, 2}, new long[]{1, 3});
+        followGraphIndex.load();
+        ReflectionTestUtils.setField(followGraphIndex, "snapshotDir", dir.toString());
+        followGraphIndex.writeSnapshot();
+
+        FollowGraphIndex restored = restoredIndex(dir);
+        // the margin re-reads follows the snapshot already has
+        when(followRepository.streamEdgesSince(any())).thenReturn(Stream.of(new Object[]{4L, 1L}, new Object[]{1L, 2L}));
+        when(followRepository.count()).thenReturn(3L);
+
+        assertTrue(restored.loadSnapshot());
+
+        assertTrue(restored.isReady());
+        assertEquals(3, restored.getEdgeCount());
+        assertArrayEquals(new long[]{2, 3}, restored.following(1L));
+        assertArrayEquals(new long[]{4}, restored.followers(1L));
+        verify(followRepository, times(2)).streamEdgePartition(anyInt(), anyInt());
+    }
+
+    @Test
+    public void loadSnapshot_countMismatchAsksForFullLoad(@TempDir Path dir) {
+        givenEdges(new long[]{1, 2});
+        followGraphIndex.load();
+        ReflectionTestUtils.setField(followGraphIndex, "snapshotDir", dir.toString());
+        followGraphIndex.writeSnapshot();
+
+        FollowGraphIndex restored = restoredIndex(dir);
+        when(followRepository.streamEdgesSince(any())).thenReturn(Stream.of());
+        when(followRepository.count()).thenReturn(0L);
+
+        assertFalse(restored.loadSnapshot());
+        // callers keep using the database until the full load finishes
+        assertFalse(restored.isReady());
+        assertEquals(0, restored.getEdgeCount());
+    }
+
+    @Test
+    public void loadSnapshot_ignoresCorruptFile(@TempDir Path dir) throws IOException {
+        Files.write(dir.resolve(FollowGraphIndex.SNAPSHOT_FILE), new byte[64]);
+
+        assertFalse(restoredIndex(dir).loadSnapshot());
+        verifyNoInteractions(followRepository);
+    }
+}
@@ -1,14 +1,26 @@
 package com.c11.umastagram.service;
 
+import com.c11.umastagram.dto.FollowEntry;
+import com.c11.umastagram.dto.FollowPageResponse;
+import com.c11.umastagram.dto.RelationshipStatus;
+import com.c11.umastagram.dto.UserSummary;
 import com.c11.umastagram.model.Follow;
 import com.c11.umastagram.repository.FollowRepository;
+import com.c11.umastagram.repository.FriendRequestRepository;
+import com.c11.umastagram.util.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,12 +32,34 @@ public class FollowServiceTest {
     @Mock
     private FollowRepository followRepository;
 
+    @Mock
+    private TimelineService timelineService;
+
+    @Mock
+    private FollowGraphIndex followGraphIndex;
+
+    @Mock
+    private FriendRequestRepository friendRequestRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private DuplicateEdgeFilter duplicateEdgeFilter;
+
+    @Mock
+    private BlockService blockService;
+
     @InjectMocks
     private FollowService followService;
 
     @Test
     public void saveFollow_savesWhenUnique() {
         Follow f = new Follow(1L, 2L, LocalDateTime.now());
+        when(duplicateEdgeFilter.followMightExist(1L, 2L)).thenReturn(true);
         when(followRepository.getFollow(1L, 2L)).thenReturn(Optional.empty());
         when(followRepository.save(any(Follow.class))).thenReturn(f);
 
@@ -36,16 +70,49 @@ public class FollowServiceTest {
         assertEquals(2L, result.getFriendId());
         verify(followRepository, times(1)).getFollow(1L, 2L);
         verify(followRepository, times(1)).save(any(Follow.class));
+        verify(followGraphIndex, times(1)).addEdge(1L, 2L);
+        verify(userStatsService, times(1)).adjustFollowCounts(1L, 2L, 1);
+        verify(duplicateEdgeFilter, times(1)).recordFollowFalsePositive();
+        verify(duplicateEdgeFilter, times(1)).followAdded(1L, 2L);
+    }
+
+    @Test
+    public void saveFollow_skipsExistenceQueryWhenFilterSaysAbsent() {
+        Follow f = new Follow(1L, 2L, LocalDateTime.now());
+        when(duplicateEdgeFilter.followMightExist(1L, 2L)).thenReturn(false);
+        when(followRepository.save(any(Follow.class))).thenReturn(f);
+
+        followService.saveFollow(f);
+
+        verify(followRepository, never()).getFollow(anyLong(), anyLong());
+        verify(followRepository, times(1)).save(f);
+        verify(duplicateEdgeFilter, never()).recordFollowFalsePositive();
+        verify(duplicateEdgeFilter, times(1)).followAdded(1L, 2L);
+    }
+
+    @Test
+    public void saveFollow_primaryKeyViolationIsDuplicate() {
+        Follow f = new Follow(1L, 2L, LocalDateTime.now());
+        when(duplicateEdgeFilter.followMightExist(1L, 2L)).thenReturn(false);
+        when(followRepository.save(any(Follow.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> followService.saveFollow(f));
+
+        assertEquals("Unique Follow Record Already Exists", e.getMessage());
+        verify(duplicateEdgeFilter, never()).followAdded(anyLong(), anyLong());
+        verify(followGraphIndex, never()).addEdge(anyLong(), anyLong());
     }
 
     @Test
     public void saveFollow_throwsWhenDuplicate() {
         Follow f = new Follow(1L, 2L, LocalDateTime.now());
+        when(duplicateEdgeFilter.followMightExist(1L, 2L)).thenReturn(true);
         when(followRepository.getFollow(1L, 2L)).thenReturn(Optional.of(f));
 
         assertThrows(IllegalArgumentException.class, () -> followService.saveFollow(f));
         verify(followRepository, times(1)).getFollow(1L, 2L);
         verify(followRepository, never()).save(any());
+        verify(followGraphIndex, never()).addEdge(anyLong(), anyLong());
     }
 
     @Test
@@ -55,5 +122,198 @@ public class FollowServiceTest {
         followService.deleteFollow(1L, 2L);
 
         verify(followRepository, times(1)).deleteFollow(1L, 2L);
+        verify(followGraphIndex, times(1)).removeEdge(1L, 2L);
+        verify(userStatsService, times(1)).adjustFollowCounts(1L, 2L, -1);
+        verify(duplicateEdgeFilter, times(1)).followRemoved(1L, 2L);
+    }
+
+    @Test
+    public void getUserFollowers_returnsUsernamesFromOneQuery() {
+        when(followRepository.findFollowerSummariesByUserId(2L))
+                .thenReturn(List.of(new UserSummary(3L, "alice"), new UserSummary(4L, "bob")));
+
+        assertEquals(List.of("alice", "bob"), followService.getUserFollowers(2L));
+        verify(followRepository, never()).findAllFollowersByUserId(anyLong());
+    }
+
+    @Test
+    public void getUserFollowers_leavesOutUsersBlockedByOrBlockingTheViewer() {
+        when(followRepository.findFollowerSummariesByUserId(2L))
+                .thenReturn(List.of(new UserSummary(3L, "alice"), new UserSummary(4L, "bob")));
+        when(blockService.isBlocked(9L, 3L)).thenReturn(true);
+
+        assertEquals(List.of("bob"), followService.getUserFollowers(2L, 9L));
+    }
+
+    @Test
+    public void blockUser_removesFollowsInBothDirections() {
+        when(blockService.block(1L, 2L)).thenReturn(true);
+        when(followRepository.deleteFollow(anyLong(), anyLong())).thenReturn(1);
+
+        followService.blockUser(1L, 2L);
+
+        verify(followRepository, times(1)).deleteFollow(1L, 2L);
+        verify(followRepository, times(1)).deleteFollow(2L, 1L);
+        verify(followGraphIndex, times(1)).removeEdge(1L, 2L);
+        verify(followGraphIndex, times(1)).removeEdge(2L, 1L);
+    }
+
+    @Test
+    public void blockUser_alreadyBlockedChangesNothing() {
+        when(blockService.block(1L, 2L)).thenReturn(false);
+
+        followService.blockUser(1L, 2L);
+
+        verify(followRepository, never()).deleteFollow(anyLong(), anyLong());
+    }
+
+    @Test
+    public void acceptFriendRequest_deletesRequestAndInsertsBothFollows() {
+        when(friendRequestRepository.deleteFriendRequest(1L, 2L)).thenReturn(0);
+        when(friendRequestRepository.deleteFriendRequest(2L, 1L)).thenReturn(1);
+        when(followRepository.insertAllIfAbsent(anyList())).thenReturn(2);
+
+        followService.acceptFriendRequest(1L, 2L);
+
+        verify(duplicateEdgeFilter, times(1)).friendRequestRemoved(2L, 1L);
+        verify(duplicateEdgeFilter, never()).friendRequestRemoved(1L, 2L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Follow>> captor = ArgumentCaptor.forClass(List.class);
+        verify(followRepository, times(1)).insertAllIfAbsent(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(2L, captor.getValue().get(1).getUserId());
+        assertEquals(1L, captor.getValue().get(1).getFriendId());
+        verify(followRepository, never()).getFollow(anyLong(), anyLong());
+        verify(followGraphIndex, times(1)).addEdge(1L, 2L);
+        verify(followGraphIndex, times(1)).addEdge(2L, 1L);
+        verify(timelineService, times(1)).invalidate(2L);
+        verify(userStatsService, times(1)).adjustFollowCounts(2L, 1L, 1);
+        verify(userStatsService, never()).recount(any());
+    }
+
+    @Test
+    public void acceptFriendRequest_existingFollowRecountsStats() {
+        when(friendRequestRepository.deleteFriendRequest(1L, 2L)).thenReturn(1);
+        when(followRepository.insertAllIfAbsent(anyList())).thenReturn(1);
+
+        followService.acceptFriendRequest(1L, 2L);
+
+        verify(userStatsService, times(1)).recount(List.of(1L, 2L));
+        verify(userStatsService, never()).adjustFollowCounts(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void acceptFriendRequest_withoutRequestThrowsAndInsertsNothing() {
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> followService.acceptFriendRequest(1L, 2L));
+        assertEquals("Friend request not found", ex.getMessage());
+        verify(followRepository, never()).insertAllIfAbsent(any());
+        verifyNoInteractions(followGraphIndex);
+        verify(duplicateEdgeFilter, never()).friendRequestRemoved(anyLong(), anyLong());
+    }
+
+    @Test
+    public void acceptFriendRequests_acceptsOnlyPendingRequests() {
+        when(friendRequestRepository.findRequesterIdsAmong(eq(1L), anyCollection())).thenReturn(List.of(2L, 3L));
+        when(followRepository.insertAllIfAbsent(anyList())).thenReturn(4);
+
+        List<Long> accepted = followService.acceptFriendRequests(1L, List.of(2L, 3L, 4L));
+
+        assertEquals(List.of(2L, 3L), accepted);
+        verify(friendRequestRepository, times(1)).deleteFriendRequestsTo(1L, List.of(2L, 3L));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Follow>> captor = ArgumentCaptor.forClass(List.class);
+        verify(followRepository, times(1)).insertAllIfAbsent(captor.capture());
+        assertEquals(4, captor.getValue().size());
+        verify(followGraphIndex, times(1)).addEdge(3L, 1L);
+    }
+
+    @Test
+    public void acceptFriendRequests_withoutIdsAcceptsAllPending() {
+        when(friendRequestRepository.findRequesterIdsByUserId(1L)).thenReturn(List.of());
+
+        assertTrue(followService.acceptFriendRequests(1L, null).isEmpty());
+        verify(friendRequestRepository, never()).deleteFriendRequestsTo(anyLong(), anyCollection());
+        verify(followRepository, never()).insertAllIfAbsent(any());
+    }
+
+    @Test
+    public void getRelationshipStatuses_usesTwoQueriesWhileGraphLoads() {
+        when(followGraphIndex.isReady()).thenReturn(false);
+        when(followRepository.findFollowsBetween(eq(1L), anyCollection()))
+                .thenReturn(List.of(new Object[]{1L, 2L}, new Object[]{3L, 1L}));
+        when(friendRequestRepository.findFriendRequestsBetween(eq(1L), anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{4L, 1L}));
+
+        Map<Long, RelationshipStatus> statuses = followService.getRelationshipStatuses(1L, List.of(2L, 3L, 4L));
+
+        assertEquals(List.of(2L, 3L, 4L), List.copyOf(statuses.keySet()));
+        assertTrue(statuses.get(2L).isFollowing());
+        assertFalse(statuses.get(2L).isFollowedBy());
+        assertTrue(statuses.get(3L).isFollowedBy());
+        assertTrue(statuses.get(4L).isRequestReceived());
+        assertFalse(statuses.get(4L).isRequestSent());
+        verify(followRepository, never()).getFollow(anyLong(), anyLong());
+    }
+
+    @Test
+    public void getRelationshipStatuses_readsFollowsFromGraphWhenLoaded() {
+        when(followGraphIndex.isReady()).thenReturn(true);
+        when(followGraphIndex.follows(anyLong(), anyLong())).thenReturn(false);
+        when(followGraphIndex.follows(2L, 1L)).thenReturn(true);
+        when(friendRequestRepository.findFriendRequestsBetween(eq(1L), anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 2L}));
+
+        Map<Long, RelationshipStatus> statuses = followService.getRelationshipStatuses(1L, List.of(2L));
+
+        assertTrue(statuses.get(2L).isFollowedBy());
+        assertFalse(statuses.get(2L).isFollowing());
+        assertTrue(statuses.get(2L).isRequestSent());
+        verify(followRepository, never()).findFollowsBetween(anyLong(), anyCollection());
+    }
+
+    @Test
+    public void getRelationshipStatuses_rejectsTooManyTargets() {
+        List<Long> targets = new java.util.ArrayList<>();
+        for (long id = 0; id <= FollowService.MAX_STATUS_TARGETS; id++) {
+            targets.add(id);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> followService.getRelationshipStatuses(1L, targets));
+        verifyNoInteractions(friendRequestRepository);
+    }
+
+    @Test
+    public void getFollowersPage_fullPageReturnsCursorOfLastEntry() {
+        LocalDateTime t = LocalDateTime.of(2025, 1, 1, 12, 0);
+        when(followRepository.findFollowersFirstPage(eq(1L), any(Pageable.class)))
+                .thenReturn(List.of(new FollowEntry(3L, "c", t), new FollowEntry(2L, "b", t)));
+
+        FollowPageResponse page = followService.getFollowersPage(1L, null, 2);
+
+        assertEquals(2, page.getUsers().size());
+        KeysetCursor next = KeysetCursor.decode(page.getNextCursor());
+        assertEquals(t, next.getTimestamp());
+        assertEquals(2L, next.getId());
+    }
+
+    @Test
+    public void getFollowingPage_usesCursorAndEndsOnShortPage() {
+        LocalDateTime t = LocalDateTime.of(2025, 1, 1, 12, 0);
+        String cursor = new KeysetCursor(t, 5L).encode();
+        when(followRepository.findFollowingPageAfter(eq(1L), eq(t), eq(5L), any(Pageable.class)))
+                .thenReturn(List.of(new FollowEntry(4L, "d", t)));
+
+        FollowPageResponse page = followService.getFollowingPage(1L, cursor, 2);
+
+        assertEquals(1, page.getUsers().size());
+        assertNull(page.getNextCursor());
+        verify(followRepository, never()).findFollowingFirstPage(anyLong(), any());
+    }
+
+    @Test
+    public void getFollowersPage_rejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> followService.getFollowersPage(1L, "not-a-cursor", 20));
     }
 }
@@ -8,8 +8,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -21,12 +23,19 @@ public class FriendRequestServiceTest {
     @Mock
     private FriendRequestRepository friendRequestRepository;
 
+    @Mock
+    private DuplicateEdgeFilter duplicateEdgeFilter;
+
+    @Mock
+    private BlockService blockService;
+
     @InjectMocks
     private FriendRequestService friendRequestService;
 
     @Test
     public void saveFriendRequest_savesWhenUnique() {
         FriendRequest fr = new FriendRequest(1L, 2L, LocalDateTime.now());
+        when(duplicateEdgeFilter.friendRequestMightExist(1L, 2L)).thenReturn(true);
         when(friendRequestRepository.getFriendRequest(1L, 2L)).thenReturn(Optional.empty());
         when(friendRequestRepository.save(any(FriendRequest.class))).thenReturn(fr);
 
@@ -37,11 +46,37 @@ public class FriendRequestServiceTest {
         assertEquals(2L, result.getUserTargetId());
         verify(friendRequestRepository, times(1)).getFriendRequest(1L, 2L);
         verify(friendRequestRepository, times(1)).save(any(FriendRequest.class));
+        verify(duplicateEdgeFilter, times(1)).friendRequestAdded(1L, 2L);
+    }
+
+    @Test
+    public void saveFriendRequest_skipsExistenceQueryWhenFilterSaysAbsent() {
+        FriendRequest fr = new FriendRequest(1L, 2L, LocalDateTime.now());
+        when(duplicateEdgeFilter.friendRequestMightExist(1L, 2L)).thenReturn(false);
+        when(friendRequestRepository.save(fr)).thenReturn(fr);
+
+        friendRequestService.saveFriendRequest(fr);
+
+        verify(friendRequestRepository, never()).getFriendRequest(anyLong(), anyLong());
+        verify(duplicateEdgeFilter, never()).recordFriendRequestFalsePositive();
+    }
+
+    @Test
+    public void saveFriendRequest_primaryKeyViolationIsDuplicate() {
+        FriendRequest fr = new FriendRequest(1L, 2L, LocalDateTime.now());
+        when(duplicateEdgeFilter.friendRequestMightExist(1L, 2L)).thenReturn(false);
+        when(friendRequestRepository.save(fr)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> friendRequestService.saveFriendRequest(fr));
+
+        assertEquals("Unique Friend Request Already Exists", e.getMessage());
+        verify(duplicateEdgeFilter, never()).friendRequestAdded(anyLong(), anyLong());
     }
 
     @Test
     public void saveFriendRequest_throwsWhenDuplicate() {
         FriendRequest fr = new FriendRequest(1L, 2L, LocalDateTime.now());
+        when(duplicateEdgeFilter.friendRequestMightExist(1L, 2L)).thenReturn(true);
         when(friendRequestRepository.getFriendRequest(1L, 2L)).thenReturn(Optional.of(fr));
 
         assertThrows(IllegalArgumentException.class, () -> friendRequestService.saveFriendRequest(fr));
@@ -50,6 +85,15 @@ public class FriendRequestServiceTest {
         verify(friendRequestRepository, never()).save(any());
     }
 
+    @Test
+    public void saveFriendRequest_rejectedWhenBlocked() {
+        FriendRequest fr = new FriendRequest(1L, 2L, LocalDateTime.now());
+        when(blockService.isBlocked(1L, 2L)).thenReturn(true);
+
+        assertThrows(IllegalArgumentException.class, () -> friendRequestService.saveFriendRequest(fr));
+        verify(friendRequestRepository, never()).save(any());
+    }
+
     @Test
     public void deleteFriendRequest_invokesRepository() {
         when(friendRequestRepository.deleteFriendRequest(1L, 2L)).thenReturn(1);
@@ -57,5 +101,14 @@ public class FriendRequestServiceTest {
         friendRequestService.deleteFriendRequest(1L, 2L);
 
         verify(friendRequestRepository, times(1)).deleteFriendRequest(1L, 2L);
+        verify(duplicateEdgeFilter, times(1)).friendRequestRemoved(1L, 2L);
+    }
+
+    @Test
+    public void getUserFriendRequests_returnsRequesterNamesFromOneQuery() {
+        when(friendRequestRepository.findRequesterUsernamesByUserId(2L)).thenReturn(List.of("alice", "bob"));
+
+        assertEquals(List.of("alice", "bob"), friendRequestService.getUserFriendRequests(2L));
+        verify(friendRequestRepository, never()).findAllFriendRequestsByUserId(anyLong());
     }
 }
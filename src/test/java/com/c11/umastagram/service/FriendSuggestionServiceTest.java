@@ -0,0 +1,183 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.dto.FriendSuggestion;
+import com.c11.umastagram.dto.UserSummary;
+import com.c11.umastagram.repository.FollowRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FriendSuggestionServiceTest {
+
+    @Mock
+    private FollowGraphIndex followGraphIndex;
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private FriendSuggestionService friendSuggestionService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(friendSuggestionService, "ttlMs", 600000L);
+        ReflectionTestUtils.setField(friendSuggestionService, "refreshAfterMs", 300000L);
+    }
+
+    // 1 -> {2, 3}, 2 -> {4, 5}, 3 -> {1, 4}
+    private void givenGraph() {
+        lenient().when(followGraphIndex.isReady()).thenReturn(true);
+        lenient().when(followGraphIndex.following(anyLong())).thenReturn(new long[0]);
+        lenient().when(followGraphIndex.followingCount(anyLong())).thenReturn(0);
+        lenient().when(followGraphIndex.followingCount(longThat(id -> id >= 1 && id <= 3))).thenReturn(2);
+        lenient().when(followGraphIndex.following(1L)).thenReturn(new long[]{2, 3});
+        lenient().when(followGraphIndex.following(2L)).thenReturn(new long[]{4, 5});
+        lenient().when(followGraphIndex.following(3L)).thenReturn(new long[]{1, 4});
+        lenient().when(followGraphIndex.followers(4L)).thenReturn(new long[]{2, 3});
+        lenient().when(followGraphIndex.followers(5L)).thenReturn(new long[]{2});
+    }
+
+    @Test
+    public void getMutual_intersectsFollowSets() {
+        givenGraph();
+        when(userService.findUsernamesByIds(List.of(4L))).thenReturn(Map.of(4L, "dan"));
+
+        List<UserSummary> mutual = friendSuggestionService.getMutual(2L, 3L, 10);
+
+        assertEquals(1, mutual.size());
+        assertEquals(4L, mutual.get(0).getUserId());
+        assertEquals("dan", mutual.get(0).getUsername());
+    }
+
+    @Test
+    public void getMutual_fallsBackToRepositoryWhileGraphLoads() {
+        when(followGraphIndex.isReady()).thenReturn(false);
+        when(followRepository.findFollowingIdsByUserId(2L)).thenReturn(List.of(4L, 5L));
+        when(followRepository.findFollowingIdsByUserId(3L)).thenReturn(List.of(1L, 5L));
+        when(userService.findUsernamesByIds(List.of(5L))).thenReturn(Map.of(5L, "eve"));
+
+        List<UserSummary> mutual = friendSuggestionService.getMutual(2L, 3L, 10);
+
+        assertEquals(1, mutual.size());
+        assertEquals(5L, mutual.get(0).getUserId());
+    }
+
+    @Test
+    public void getSuggestions_ranksByMutualCountAndExcludesFollowed() {
+        givenGraph();
+        when(userService.findUsernamesByIds(List.of(4L, 5L))).thenReturn(Map.of(4L, "dan", 5L, "eve"));
+
+        assertTrue(friendSuggestionService.getSuggestions(1L, 10).isEmpty());
+        friendSuggestionService.refreshSuggestions();
+        List<FriendSuggestion> suggestions = friendSuggestionService.getSuggestions(1L, 10);
+
+        assertEquals(2, suggestions.size());
+        assertEquals(4L, suggestions.get(0).getUserId());
+        assertEquals(2, suggestions.get(0).getMutualCount());
+        assertEquals(5L, suggestions.get(1).getUserId());
+        assertEquals(1, suggestions.get(1).getMutualCount());
+    }
+
+    @Test
+    public void getSuggestions_servedFromCacheOnSecondRead() {
+        givenGraph();
+        when(userService.findUsernamesByIds(anyCollection())).thenReturn(Map.of(4L, "dan", 5L, "eve"));
+
+        friendSuggestionService.getSuggestions(1L, 10);
+        friendSuggestionService.refreshSuggestions();
+        friendSuggestionService.getSuggestions(1L, 10);
+        List<FriendSuggestion> second = friendSuggestionService.getSuggestions(1L, 1);
+
+        assertEquals(1, second.size());
+        verify(userService, times(1)).findUsernamesByIds(anyCollection());
+        assertEquals(1, friendSuggestionService.getCachedUserCount());
+    }
+
+    @Test
+    public void refreshSuggestions_evictsEntriesNotReadWithinTtl() {
+        givenGraph();
+        when(userService.findUsernamesByIds(anyCollection())).thenReturn(Map.of());
+        friendSuggestionService.getSuggestions(1L, 10);
+        friendSuggestionService.refreshSuggestions();
+        ReflectionTestUtils.setField(friendSuggestionService, "ttlMs", 0L);
+
+        friendSuggestionService.refreshSuggestions();
+
+        assertEquals(0, friendSuggestionService.getCachedUserCount());
+    }
+
+    @Test
+    public void getSuggestions_emptyWhileGraphLoads() {
+        when(followGraphIndex.isReady()).thenReturn(false);
+
+        assertTrue(friendSuggestionService.getSuggestions(1L, 10).isEmpty());
+        assertEquals(0, friendSuggestionService.getCachedUserCount());
+        verifyNoInteractions(followRepository);
+    }
+
+    @Test
+    public void getSuggestions_missQueuesUserWithoutComputing() {
+        givenGraph();
+
+        assertTrue(friendSuggestionService.getSuggestions(1L, 10).isEmpty());
+
+        verify(followGraphIndex, never()).following(anyLong());
+        verifyNoInteractions(userService);
+        assertEquals(0, friendSuggestionService.getCachedUserCount());
+    }
+
+    @Test
+    public void getSuggestions_doesNotQueueUsersOutsideTheGraph() {
+        givenGraph();
+
+        assertTrue(friendSuggestionService.getSuggestions(999L, 10).isEmpty());
+        friendSuggestionService.refreshSuggestions();
+
+        verify(followGraphIndex, never()).following(999L);
+        assertEquals(0, friendSuggestionService.getCachedUserCount());
+    }
+
+    @Test
+    public void getSuggestions_queueIsBounded() {
+        lenient().when(followGraphIndex.isReady()).thenReturn(true);
+        when(followGraphIndex.followingCount(anyLong())).thenReturn(1);
+
+        for (long id = 1; id <= FriendSuggestionService.MAX_QUEUED_USERS + 10; id++) {
+            friendSuggestionService.getSuggestions(id, 10);
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<Long> requested = (Set<Long>) ReflectionTestUtils.getField(friendSuggestionService, "requested");
+        assertEquals(FriendSuggestionService.MAX_QUEUED_USERS, requested.size());
+    }
+
+    @Test
+    public void getMutual_handlesIdsBeyondIntRange() {
+        long big = 5_000_000_000L;
+        lenient().when(followGraphIndex.isReady()).thenReturn(true);
+        when(followGraphIndex.following(2L)).thenReturn(new long[]{4, big});
+        when(followGraphIndex.following(3L)).thenReturn(new long[]{big});
+        when(userService.findUsernamesByIds(List.of(big))).thenReturn(Map.of(big, "far"));
+
+        List<UserSummary> mutual = friendSuggestionService.getMutual(2L, 3L, 10);
+
+        assertEquals(1, mutual.size());
+        assertEquals(big, mutual.get(0).getUserId());
+    }
+}
@@ -0,0 +1,123 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.repository.PostLikeRepository;
+import com.c11.umastagram.repository.PostsRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LikeServiceTest {
+
+    @Mock
+    private PostLikeRepository postLikeRepository;
+
+    @Mock
+    private PostsRepository postsRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TrendingService trendingService;
+
+    @InjectMocks
+    private LikeService likeService;
+
+    @Test
+    public void like_newLikeIncrementsPendingDelta() {
+        when(postsRepository.existsById(1L)).thenReturn(true);
+        when(postLikeRepository.insertIfAbsent(eq(5L), eq(1L), any())).thenReturn(1);
+
+        assertTrue(likeService.like(5L, 1L));
+        assertEquals(1, likeService.getPendingDelta(1L));
+        verify(trendingService, times(1)).recordLike(1L, 1);
+    }
+
+    @Test
+    public void like_duplicateLeavesDeltaUnchanged() {
+        when(postsRepository.existsById(1L)).thenReturn(true);
+        when(postLikeRepository.insertIfAbsent(eq(5L), eq(1L), any())).thenReturn(0);
+
+        assertFalse(likeService.like(5L, 1L));
+        assertEquals(0, likeService.getPendingDelta(1L));
+    }
+
+    @Test
+    public void like_missingPostThrows() {
+        when(postsRepository.existsById(1L)).thenReturn(false);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> likeService.like(5L, 1L));
+        assertEquals("Post not found", ex.getMessage());
+        verify(postLikeRepository, never()).insertIfAbsent(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    public void flushPendingLikes_sendsOneBatchAndResetsDeltas() {
+        when(postsRepository.existsById(anyLong())).thenReturn(true);
+        when(postLikeRepository.insertIfAbsent(anyLong(), anyLong(), any())).thenReturn(1);
+        when(postLikeRepository.deleteLike(7L, 2L)).thenReturn(1);
+        likeService.like(5L, 1L);
+        likeService.like(6L, 1L);
+        likeService.like(7L, 2L);
+        likeService.unlike(7L, 2L);
+
+        likeService.flushPendingLikes();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(LikeService.FLUSH_SQL), captor.capture());
+        // post 2 netted out to zero, so only post 1 is written
+        assertEquals(1, captor.getValue().size());
+        assertArrayEquals(new Object[]{2L, 1L}, captor.getValue().get(0));
+        assertEquals(0, likeService.getPendingDelta(1L));
+    }
+
+    @Test
+    public void flushPendingLikes_failureKeepsDeltasForRetry() {
+        when(postsRepository.existsById(1L)).thenReturn(true);
+        when(postLikeRepository.insertIfAbsent(eq(5L), eq(1L), any())).thenReturn(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        likeService.like(5L, 1L);
+
+        likeService.flushPendingLikes();
+
+        // the batch is rolled back as a whole, so retrying every delta counts none twice
+        verify(transactionManager, times(1)).rollback(any());
+        assertEquals(1, likeService.getPendingDelta(1L));
+    }
+
+    @Test
+    public void flushPendingLikes_nothingPendingSkipsDatabase() {
+        likeService.flushPendingLikes();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    public void flushOnShutdown_writesPendingDeltas() {
+        when(postsRepository.existsById(1L)).thenReturn(true);
+        when(postLikeRepository.insertIfAbsent(eq(5L), eq(1L), any())).thenReturn(1);
+        likeService.like(5L, 1L);
+
+        likeService.flushOnShutdown();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(LikeService.FLUSH_SQL), anyList());
+        assertEquals(0, likeService.getPendingDelta(1L));
+    }
+}
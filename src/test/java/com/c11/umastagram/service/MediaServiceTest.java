@@ -0,0 +1,121 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.dto.MediaUploadResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MediaServiceTest {
+
+    @TempDir
+    Path mediaDir;
+
+    private MediaService mediaService;
+
+    @BeforeEach
+    public void setUp() {
+        mediaService = new MediaService();
+        ReflectionTestUtils.setField(mediaService, "mediaDir", mediaDir.toString());
+        ReflectionTestUtils.setField(mediaService, "maxPixels", 50_000_000L);
+        // render thumbnails inline
+        ReflectionTestUtils.setField(mediaService, "thumbnailExecutor", (Executor) Runnable::run);
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    public void store_writesContentAddressedFileAndThumbnail() throws Exception {
+        byte[] content = png(1000, 500);
+        MediaUploadResponse response = mediaService.store(
+                new MockMultipartFile("file", "a.png", MediaType.IMAGE_PNG_VALUE, content));
+
+        assertTrue(response.getName().matches("[0-9a-f]{64}\\.png"));
+        assertEquals("/api/media/" + response.getName(), response.getUrl());
+        Path stored = mediaService.find(response.getName());
+        assertNotNull(stored);
+        assertArrayEquals(content, Files.readAllBytes(stored));
+
+        String thumbnailName = response.getThumbnailUrl().substring("/api/media/".length());
+        BufferedImage thumbnail = ImageIO.read(mediaService.find(thumbnailName).toFile());
+        assertEquals(MediaService.THUMBNAIL_SIZE, thumbnail.getWidth());
+        assertEquals(MediaService.THUMBNAIL_SIZE / 2, thumbnail.getHeight());
+    }
+
+    @Test
+    public void store_identicalUploadsShareOneFile() throws Exception {
+        byte[] content = png(10, 10);
+        MediaUploadResponse first = mediaService.store(new MockMultipartFile("file", "a.png", MediaType.IMAGE_PNG_VALUE, content));
+        MediaUploadResponse second = mediaService.store(new MockMultipartFile("file", "b.png", MediaType.IMAGE_PNG_VALUE, content));
+
+        assertEquals(first.getName(), second.getName());
+        try (var files = Files.list(mediaDir)) {
+            // only the shard directory, no leftover temp files
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void store_rejectsUnsupportedType() {
+        assertThrows(IllegalArgumentException.class, () -> mediaService.store(
+                new MockMultipartFile("file", "a.txt", MediaType.TEXT_PLAIN_VALUE, "hi".getBytes())));
+    }
+
+    @Test
+    public void store_typeComesFromContentNotHeader() throws Exception {
+        MediaUploadResponse response = mediaService.store(
+                new MockMultipartFile("file", "a.jpg", MediaType.IMAGE_JPEG_VALUE, png(10, 10)));
+
+        assertTrue(response.getName().endsWith(".png"));
+        assertThrows(IllegalArgumentException.class, () -> mediaService.store(
+                new MockMultipartFile("file", "a.png", MediaType.IMAGE_PNG_VALUE, "<svg onload=alert(1)>".getBytes())));
+    }
+
+    @Test
+    public void store_rejectsImagesOverPixelCap() throws Exception {
+        ReflectionTestUtils.setField(mediaService, "maxPixels", 10_000L);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> mediaService.store(
+                new MockMultipartFile("file", "a.png", MediaType.IMAGE_PNG_VALUE, png(200, 100))));
+
+        assertTrue(e.getMessage().contains("10000"));
+        try (var files = Files.list(mediaDir)) {
+            // the upload was not kept
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void find_missingThumbnailFallsBackToOriginal() throws Exception {
+        ReflectionTestUtils.setField(mediaService, "thumbnailExecutor", (Executor) task -> {
+            throw new RejectedExecutionException("full");
+        });
+        MediaUploadResponse response = mediaService.store(
+                new MockMultipartFile("file", "a.png", MediaType.IMAGE_PNG_VALUE, png(10, 10)));
+
+        String thumbnailName = response.getThumbnailUrl().substring("/api/media/".length());
+        assertEquals(mediaService.find(response.getName()), mediaService.find(thumbnailName));
+    }
+
+    @Test
+    public void find_rejectsNamesOutsideTheStore() {
+        assertNull(mediaService.find("../application.properties"));
+        assertNull(mediaService.find("0".repeat(64) + ".png"));
+    }
+}
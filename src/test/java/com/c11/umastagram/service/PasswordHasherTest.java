@@ -0,0 +1,54 @@
+package com.c11.umastagram.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    // runs tasks on the calling thread; cost 4 is the lowest BCrypt allows
+    private final PasswordHasher hasher = new PasswordHasher(Runnable::run, 4);
+
+    @Test
+    public void hashMatchesOnlyTheSamePassword() {
+        String hash = hasher.hash("password123").join();
+
+        assertTrue(hasher.isHash(hash));
+        assertTrue(hasher.matches("password123", hash).join());
+        assertFalse(hasher.matches("password124", hash).join());
+        assertFalse(hasher.matches(null, hash).join());
+        assertFalse(hasher.needsRehash(hash));
+    }
+
+    @Test
+    public void plaintextPasswordsStillMatchAndNeedRehash() {
+        assertTrue(hasher.matches("password123", "password123").join());
+        assertFalse(hasher.matches("password123", "password").join());
+        assertTrue(hasher.needsRehash("password123"));
+        assertFalse(hasher.needsRehash(null));
+    }
+
+    @Test
+    public void hashesAtAnotherCostNeedRehash() {
+        String oldHash = new PasswordHasher(Runnable::run, 5).hash("password123").join();
+
+        assertTrue(hasher.matches("password123", oldHash).join());
+        assertTrue(hasher.needsRehash(oldHash));
+    }
+
+    @Test
+    public void fullPoolFailsTheFuture() {
+        PasswordHasher saturated = new PasswordHasher(task -> {
+            throw new RejectedExecutionException("queue full");
+        }, 4);
+
+        CompletableFuture<String> hash = saturated.hash("password123");
+
+        CompletionException e = assertThrows(CompletionException.class, hash::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+}
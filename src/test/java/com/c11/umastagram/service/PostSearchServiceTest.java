@@ -0,0 +1,140 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.repository.PostsRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PostSearchServiceTest {
+
+    @Mock
+    private PostsRepository postsRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private PostSearchService postSearchService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(postSearchService, "backend", "memory");
+    }
+
+    private Posts post(long id, String text) {
+        Posts p = new Posts(1L, text, null, LocalDateTime.now());
+        p.setId(id);
+        return p;
+    }
+
+    @Test
+    public void tokenize_lowercasesAndSplitsOnPunctuation() {
+        assertEquals(Set.of("secretariat", "wins", "by", "31", "lengths"),
+                PostSearchService.tokenize("Secretariat wins... by 31 LENGTHS!"));
+    }
+
+    @Test
+    public void findIds_intersectsAllTermsNewestFirst() {
+        postSearchService.index(post(1L, "derby day"));
+        postSearchService.index(post(2L, "derby winner"));
+        postSearchService.index(post(3L, "Derby day again"));
+        postSearchService.index(post(4L, "day off"));
+
+        assertArrayEquals(new long[]{3L, 1L}, postSearchService.findIds(List.of("derby", "day"), 10));
+        assertArrayEquals(new long[]{3L}, postSearchService.findIds(List.of("derby", "day"), 1));
+        assertArrayEquals(new long[0], postSearchService.findIds(List.of("derby", "missing"), 10));
+    }
+
+    @Test
+    public void remove_dropsPostFromIndex() {
+        Posts post = post(1L, "derby day");
+        postSearchService.index(post);
+
+        postSearchService.remove(post);
+
+        assertArrayEquals(new long[0], postSearchService.findIds(List.of("derby"), 10));
+    }
+
+    @Test
+    public void search_loadsPostsInIdOrder() {
+        Posts older = post(1L, "derby day");
+        Posts newer = post(2L, "derby night");
+        postSearchService.index(older);
+        postSearchService.index(newer);
+        when(postsRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(older, newer));
+
+        List<Posts> result = postSearchService.search("DERBY", 20);
+
+        assertEquals(List.of(newer, older), result);
+    }
+
+    @Test
+    public void search_blankQueryThrows() {
+        assertThrows(IllegalArgumentException.class, () -> postSearchService.search(" ?! ", 20));
+    }
+
+    @Test
+    public void rebuild_indexesAllPosts() {
+        when(postsRepository.streamAllPosts()).thenReturn(Stream.of(post(5L, "stream one"), post(6L, "stream two")));
+
+        postSearchService.rebuild();
+
+        assertArrayEquals(new long[]{6L, 5L}, postSearchService.findIds(List.of("stream"), 10));
+        verify(entityManager, times(2)).detach(any());
+    }
+
+    @Test
+    public void postgresBackend_delegatesToRepository() {
+        ReflectionTestUtils.setField(postSearchService, "backend", "postgres");
+        when(postsRepository.searchFullText("derby day", 20)).thenReturn(List.of());
+
+        postSearchService.search("derby day", 20);
+
+        verify(postsRepository, times(1)).searchFullText("derby day", 20);
+    }
+
+    @Test
+    public void intersect_handlesPartialOverlap() {
+        long[] b = {1, 3, 5, 7, 9, 11, 13, 0, 0};
+        assertArrayEquals(new long[]{3, 9, 13}, PostSearchService.intersect(new long[]{2, 3, 9, 13, 20}, b, 7));
+    }
+
+    @Test
+    public void postingList_keepsIdsSortedAndUnique() {
+        PostSearchService.PostingList list = new PostSearchService.PostingList();
+        list.add(5);
+        list.add(1);
+        list.add(9);
+        list.add(5);
+        list.add(7);
+
+        assertEquals(4, list.size);
+        assertTrue(list.remove(5));
+        assertFalse(list.remove(5));
+        assertArrayEquals(new long[]{1, 7, 9}, java.util.Arrays.copyOf(list.ids, list.size));
+    }
+}
@@ -0,0 +1,85 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.repository.PostsRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PostsExportServiceTest {
+
+    @Mock
+    private PostsRepository postsRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @InjectMocks
+    private PostsExportService postsExportService;
+
+    private Posts post(long id) {
+        Posts p = new Posts(1L, "post " + id, null, LocalDateTime.of(2025, 12, 1, 12, 0));
+        p.setId(id);
+        return p;
+    }
+
+    @Test
+    public void writePosts_jsonArray() throws Exception {
+        when(postsRepository.streamAllPosts()).thenReturn(Stream.of(post(1L), post(2L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        postsExportService.writePosts(out, false);
+
+        JsonNode json = new ObjectMapper().readTree(out.toByteArray());
+        assertTrue(json.isArray());
+        assertEquals(2, json.size());
+        assertEquals(1, json.get(0).get("id").asInt());
+        assertEquals("post 2", json.get(1).get("text").asText());
+        verify(entityManager, times(2)).detach(any());
+    }
+
+    @Test
+    public void writePosts_ndjson() throws Exception {
+        when(postsRepository.streamAllPosts()).thenReturn(Stream.of(post(1L), post(2L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        postsExportService.writePosts(out, true);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1, new ObjectMapper().readTree(lines[0]).get("id").asInt());
+        assertEquals(2, new ObjectMapper().readTree(lines[1]).get("id").asInt());
+    }
+
+    @Test
+    public void writePosts_emptyTable() throws Exception {
+        when(postsRepository.streamAllPosts()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        postsExportService.writePosts(out, false);
+
+        assertEquals("[]", out.toString(StandardCharsets.UTF_8));
+    }
+}
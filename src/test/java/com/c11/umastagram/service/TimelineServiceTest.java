@@ -0,0 +1,184 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.model.Timeline;
+import com.c11.umastagram.repository.FollowRepository;
+import com.c11.umastagram.repository.PostsRepository;
+import com.c11.umastagram.repository.TimelineRepository;
+import com.c11.umastagram.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TimelineServiceTest {
+
+    @Mock
+    private TimelineRepository timelineRepository;
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private PostsRepository postsRepository;
+
+    @Mock
+    private Executor timelineExecutor;
+
+    @InjectMocks
+    private TimelineService timelineService;
+
+    private Posts post;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(timelineService, "enabled", true);
+        ReflectionTestUtils.setField(timelineService, "capacity", 3);
+        ReflectionTestUtils.setField(timelineService, "fanoutThreshold", 2L);
+        ReflectionTestUtils.setField(timelineService, "maxResidentUsers", 10);
+
+        post = new Posts(7L, "hello", null, LocalDateTime.now());
+        post.setId(100L);
+    }
+
+    @Test
+    public void pushToFollowers_persistsEntryPerFollower() {
+        when(followRepository.countFollowersByUserId(7L)).thenReturn(2L);
+        when(followRepository.findFollowerIdsByUserId(7L)).thenReturn(List.of(1L, 2L));
+
+        timelineService.pushToFollowers(post);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Timeline>> captor = ArgumentCaptor.forClass(List.class);
+        verify(timelineRepository, times(1)).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(1L, captor.getValue().get(0).getUserId());
+        assertEquals(100L, captor.getValue().get(0).getPostId());
+    }
+
+    @Test
+    public void pushToFollowers_skipsAuthorsAboveThreshold() {
+        when(followRepository.countFollowersByUserId(7L)).thenReturn(3L);
+        when(followRepository.findFollowedAmong(eq(1L), anyCollection())).thenReturn(List.of(7L));
+
+        timelineService.pushToFollowers(post);
+
+        verify(followRepository, never()).findFollowerIdsByUserId(anyLong());
+        verify(timelineRepository, never()).saveAll(any());
+        assertEquals(List.of(7L), timelineService.getReadFanoutAuthors(1L));
+    }
+
+    @Test
+    public void fanOut_rejectedSwitchesAuthorToFanoutOnRead() {
+        doThrow(new RejectedExecutionException("full")).when(timelineExecutor).execute(any());
+        when(followRepository.findFollowedAmong(eq(1L), anyCollection())).thenReturn(List.of(7L));
+
+        timelineService.fanOut(post);
+
+        assertEquals(List.of(7L), timelineService.getReadFanoutAuthors(1L));
+    }
+
+    private static Posts post(long id, LocalDateTime datePosted) {
+        Posts p = new Posts(7L, "post " + id, null, datePosted);
+        p.setId(id);
+        return p;
+    }
+
+    @Test
+    public void getTimelinePage_fullTableLoadsRingAndReceivesPushedPosts() {
+        LocalDateTime then = post.getDatePosted().minusHours(1);
+        when(timelineRepository.findRecentEntries(eq(1L), any())).thenReturn(List.of(
+            new Timeline(1L, 30L, then), new Timeline(1L, 20L, then.minusMinutes(1)), new Timeline(1L, 10L, then.minusMinutes(2))));
+        assertEquals(List.of(30L, 20L, 10L), timelineService.getTimelinePage(1L, null, 10).postIds());
+
+        when(followRepository.countFollowersByUserId(7L)).thenReturn(1L);
+        when(followRepository.findFollowerIdsByUserId(7L)).thenReturn(List.of(1L));
+        timelineService.pushToFollowers(post);
+
+        TimelineService.TimelinePage page = timelineService.getTimelinePage(1L, null, 10);
+        assertEquals(List.of(100L, 30L, 20L), page.postIds());
+        assertFalse(page.complete());
+        verify(timelineRepository, times(1)).findRecentEntries(eq(1L), any());
+        verify(postsRepository, never()).findFeedFirstPage(any(), any());
+    }
+
+    @Test
+    public void getTimelinePage_partialTableIsRebuiltFromFollowGraph() {
+        // only the post pushed since the last invalidate() is in the table
+        LocalDateTime then = post.getDatePosted().minusHours(1);
+        when(timelineRepository.findRecentEntries(eq(1L), any())).thenReturn(List.of(new Timeline(1L, 100L, post.getDatePosted())));
+        when(postsRepository.findFeedFirstPage(eq(1L), any())).thenReturn(List.of(post, post(50L, then)));
+
+        TimelineService.TimelinePage page = timelineService.getTimelinePage(1L, null, 10);
+
+        assertEquals(List.of(100L, 50L), page.postIds());
+        assertTrue(page.complete());
+        assertFalse(page.more());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Timeline>> captor = ArgumentCaptor.forClass(List.class);
+        verify(timelineRepository, times(1)).saveAll(captor.capture());
+        assertEquals(List.of(50L), captor.getValue().stream().map(Timeline::getPostId).toList());
+    }
+
+    @Test
+    public void getTimelinePage_backfillThatFillsTheRingIsNotComplete() {
+        LocalDateTime now = post.getDatePosted();
+        when(timelineRepository.findRecentEntries(eq(1L), any())).thenReturn(List.of());
+        when(postsRepository.findFeedFirstPage(eq(1L), any())).thenReturn(List.of(
+            post(3L, now), post(2L, now.minusMinutes(1)), post(1L, now.minusMinutes(2))));
+
+        assertFalse(timelineService.getTimelinePage(1L, null, 10).complete());
+    }
+
+    @Test
+    public void timelineRing_keepsFeedOrderDropsOldestAndIgnoresDuplicates() {
+        LocalDateTime now = LocalDateTime.now();
+        TimelineService.TimelineRing ring = new TimelineService.TimelineRing(3, true);
+        ring.push(1L, now.minusMinutes(4));
+        ring.push(3L, now.minusMinutes(2));
+        // fan-out delivered this one late
+        ring.push(2L, now.minusMinutes(3));
+        ring.push(2L, now.minusMinutes(3));
+        assertTrue(ring.page(null, 10).complete());
+
+        ring.push(4L, now.minusMinutes(1));
+        // older than everything on a full ring
+        ring.push(0L, now.minusMinutes(5));
+
+        TimelineService.TimelinePage page = ring.page(null, 10);
+        assertEquals(List.of(4L, 3L, 2L), page.postIds());
+        assertFalse(page.complete());
+        assertEquals(2L, page.oldest().getId());
+    }
+
+    @Test
+    public void timelineRing_pageStartsAfterCursor() {
+        LocalDateTime now = LocalDateTime.now();
+        TimelineService.TimelineRing ring = new TimelineService.TimelineRing(5, true);
+        for (long id = 1; id <= 5; id++) {
+            ring.push(id, now.minusMinutes(10 - id));
+        }
+
+        TimelineService.TimelinePage page = ring.page(new KeysetCursor(now.minusMinutes(6), 4L), 2);
+        assertEquals(List.of(3L, 2L), page.postIds());
+        assertTrue(page.more());
+
+        page = ring.page(new KeysetCursor(now.minusMinutes(8), 2L), 2);
+        assertEquals(List.of(1L), page.postIds());
+        assertFalse(page.more());
+    }
+}
@@ -0,0 +1,103 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.model.Posts;
+import com.c11.umastagram.repository.PostsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TrendingServiceTest {
+
+    private static final long NOW = 1_000_000_000_000L;
+
+    @Mock
+    private PostsRepository postsRepository;
+
+    @InjectMocks
+    private TrendingService trendingService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(trendingService, "size", 2);
+        ReflectionTestUtils.setField(trendingService, "bucketSeconds", 60);
+        ReflectionTestUtils.setField(trendingService, "bucketCount", 10);
+        ReflectionTestUtils.setField(trendingService, "halfLifeSeconds", 60L);
+        ReflectionTestUtils.setField(trendingService, "commentWeight", 2);
+    }
+
+    private Posts post(long id, int likes) {
+        Posts p = new Posts(1L, "post " + id, null, LocalDateTime.now());
+        p.setId(id);
+        p.setLikes(likes);
+        return p;
+    }
+
+    @Test
+    public void refresh_ranksByRecentActivityAndKeepsTopK() {
+        trendingService.record(1L, 1, NOW);
+        trendingService.record(2L, 5, NOW);
+        trendingService.record(3L, 3, NOW);
+        when(postsRepository.findMostLikedSince(any(), any())).thenReturn(List.of());
+        when(postsRepository.findAllById(anyList())).thenReturn(List.of(post(2L, 0), post(3L, 0)));
+
+        trendingService.refresh(NOW);
+
+        List<Posts> trending = trendingService.getTrending(10);
+        assertEquals(2, trending.size());
+        assertEquals(2L, trending.get(0).getId());
+        assertEquals(3L, trending.get(1).getId());
+        assertThrows(UnsupportedOperationException.class, () -> trending.add(post(9L, 0)));
+    }
+
+    @Test
+    public void refresh_olderActivityDecays() {
+        // 5 events four minutes ago (half-life one minute) weigh less than 1 event now
+        trendingService.record(1L, 5, NOW - 4 * 60_000L);
+        trendingService.record(2L, 1, NOW);
+        when(postsRepository.findMostLikedSince(any(), any())).thenReturn(List.of());
+        when(postsRepository.findAllById(anyList())).thenReturn(List.of(post(1L, 0), post(2L, 0)));
+
+        trendingService.refresh(NOW);
+
+        assertEquals(2L, trendingService.getTrending(1).get(0).getId());
+    }
+
+    @Test
+    public void refresh_eventsOutsideWindowAreIgnored() {
+        trendingService.record(1L, 100, NOW - 11 * 60_000L);
+        when(postsRepository.findMostLikedSince(any(), any())).thenReturn(List.of());
+
+        trendingService.refresh(NOW);
+
+        assertTrue(trendingService.getTrending(10).isEmpty());
+        verify(postsRepository, never()).findAllById(anyList());
+    }
+
+    @Test
+    public void refresh_usesLikesColumnWithoutRecentEvents() {
+        when(postsRepository.findMostLikedSince(any(), any())).thenReturn(List.of(post(7L, 40), post(8L, 10)));
+
+        trendingService.refresh(NOW);
+
+        List<Posts> trending = trendingService.getTrending(10);
+        assertEquals(List.of(7L, 8L), trending.stream().map(Posts::getId).toList());
+        verify(postsRepository, never()).findAllById(anyList());
+    }
+
+    @Test
+    public void getTrending_beforeFirstRefreshIsEmpty() {
+        assertTrue(trendingService.getTrending(10).isEmpty());
+    }
+}
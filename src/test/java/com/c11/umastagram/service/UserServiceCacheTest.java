@@ -0,0 +1,141 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.config.CacheConfig;
+import com.c11.umastagram.dto.UserProfile;
+import com.c11.umastagram.model.User;
+import com.c11.umastagram.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class UserServiceCacheTest {
+
+    @Configuration
+    @Import({CacheConfig.class, UserService.class})
+    static class Config {
+        @Bean
+        public CacheManager cacheManager() {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats());
+            cacheManager.setCacheNames(List.of(CacheConfig.USERS_BY_ID, CacheConfig.USERS_BY_USERNAME));
+            return cacheManager;
+        }
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private UsernameIndex usernameIndex;
+
+    @MockBean
+    private PasswordHasher passwordHasher;
+
+    private static User user(Long id, String username) {
+        User user = new User(username, username + "@example.com", "hash");
+        user.setUserId(id);
+        return user;
+    }
+
+    @Test
+    public void repeatedLookupsHitTheCache() {
+        when(userRepository.getUserByUserId(1L)).thenReturn(Optional.of(user(1L, "cached")));
+        when(userRepository.getUserByUsername("cached")).thenReturn(Optional.of(user(1L, "cached")));
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("cached", userService.findUserById(1L).get().getUsername());
+            assertEquals("cached", userService.findUserByUsername(" cached ").get().getUsername());
+        }
+
+        verify(userRepository, times(1)).getUserByUserId(1L);
+        verify(userRepository, times(1)).getUserByUsername("cached");
+    }
+
+    @Test
+    public void missingUsersAreNotCached() {
+        when(userRepository.getUserByUserId(2L)).thenReturn(Optional.empty());
+
+        assertTrue(userService.findUserById(2L).isEmpty());
+        assertTrue(userService.findUserById(2L).isEmpty());
+
+        verify(userRepository, times(2)).getUserByUserId(2L);
+    }
+
+    @Test
+    public void setUsernameEvictsBothNames() {
+        User stored = user(1L, "before");
+        when(userRepository.getUserByUserId(1L)).thenReturn(Optional.of(stored));
+        when(userRepository.getUserByUsername("before")).thenReturn(Optional.of(stored));
+        when(userRepository.getUserByUsername("after")).thenReturn(Optional.empty());
+        userService.findUserById(1L);
+        userService.findUserByUsername("before");
+
+        userService.setUsername(stored, "after");
+
+        when(userRepository.getUserByUsername("before")).thenReturn(Optional.empty());
+        assertTrue(userService.findUserByUsername("before").isEmpty());
+        userService.findUserById(1L);
+        verify(userRepository, times(2)).getUserByUserId(1L);
+    }
+
+    @Test
+    public void deleteUserEvicts() {
+        when(userRepository.getUserByUserId(1L)).thenReturn(Optional.of(user(1L, "leaving")));
+        userService.findUserById(1L);
+
+        userService.deleteUser(user(1L, "leaving"));
+
+        when(userRepository.getUserByUserId(1L)).thenReturn(Optional.empty());
+        assertTrue(userService.findUserById(1L).isEmpty());
+    }
+
+    @Test
+    public void hitAndMissRatiosArePublished() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheConfig.registerRatioGauges(cacheManager, registry);
+        when(userRepository.getUserByUserId(1L)).thenReturn(Optional.of(user(1L, "ratio")));
+
+        for (int i = 0; i < 4; i++) {
+            userService.findUserById(1L);
+        }
+
+        assertEquals(0.75, registry.get("cache.hit.ratio").tag("cache", CacheConfig.USERS_BY_ID).gauge().value(), 1e-9);
+        assertEquals(0.25, registry.get("cache.miss.ratio").tag("cache", CacheConfig.USERS_BY_ID).gauge().value(), 1e-9);
+    }
+
+    @Test
+    public void findProfilesQueriesOnlyUncachedUsers() {
+        when(userRepository.getUserByUserId(1L)).thenReturn(Optional.of(user(1L, "cached")));
+        userService.findUserById(1L);
+        when(userRepository.findProfilesByUserIds(List.of(2L))).thenReturn(List.of(new UserProfile(2L, "fresh", null, null)));
+
+        List<UserProfile> profiles = userService.findProfiles(List.of(1L, 2L), null);
+
+        assertEquals(List.of("cached", "fresh"), profiles.stream().map(UserProfile::getUsername).toList());
+        verify(userRepository, times(1)).findProfilesByUserIds(List.of(2L));
+        verify(userRepository, never()).findProfilesByUsernames(any());
+    }
+}
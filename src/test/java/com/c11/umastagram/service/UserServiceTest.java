@@ -9,17 +9,24 @@ package com.c11.umastagram.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import com.c11.umastagram.dto.UserProfile;
 import com.c11.umastagram.model.User;
 import com.c11.umastagram.repository.UserRepository;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -250,4 +257,77 @@ public class UserServiceTest {
         assertNotNull(foundUser);
         assertEquals("usernameUser", foundUser.getUsername());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFindUsernamesByIds(){
+        User first = userService.saveUser(new User("batchUser1", "batchUser1@example.com", "password123"));
+        User second = userService.saveUser(new User("batchUser2", "batchUser2@example.com", "password123"));
+
+        // more ids than fit in one IN list, including duplicates and ids that do not exist
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1_000_000L; id < 1_000_000L + UserService.ID_BATCH_SIZE; id++) {
+            ids.add(id);
+        }
+        ids.add(first.getUserId());
+        ids.add(second.getUserId());
+        ids.add(first.getUserId());
+
+        Map<Long, String> usernames = userService.findUsernamesByIds(ids);
+        assertEquals(2, usernames.size());
+        assertEquals("batchUser1", usernames.get(first.getUserId()));
+        assertEquals("batchUser2", usernames.get(second.getUserId()));
+    }
+
+    @Test
+    public void testSaveGoogleUserConflicts(){
+        userService.saveUser(new User("google", "g-1", "googleName", "googleuser", "googleuser@example.com", null));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> userService.saveUser(
+                new User("google", "g-1", "otherName", "otheruser", "otheruser@example.com", null)));
+        assertEquals("Google ID already exists", e.getMessage());
+
+        // the Google username is not unique in the schema, so it is not a conflict either
+        User sameName = userService.saveUser(new User("google", "g-2", "googleName", "googleuser3", "googleuser3@example.com", null));
+        assertNotNull(sameName.getUserId());
+
+        // the email is reported before the username when both are taken
+        e = assertThrows(IllegalArgumentException.class, () -> userService.saveUser(
+                new User("googleuser", "GoogleUser@example.com", "password123")));
+        assertEquals("Email already exists", e.getMessage());
+
+        // google ids are only checked for google signups
+        User github = userService.saveUser(new User("github", "g-1", "googleName", "githubuser2", "githubuser2@example.com", null));
+        assertNotNull(github.getUserId());
+    }
+
+    @Test
+    public void testConstraintViolationMessages(){
+        assertEquals("Email already exists", UserService.constraintMessage(new DataIntegrityViolationException("insert failed",
+                new SQLException("duplicate key value violates unique constraint \"uk_email\" Detail: Key (email)=(a@b.com) already exists."))));
+        assertEquals("GitHub Username already exists", UserService.constraintMessage(new DataIntegrityViolationException("insert failed",
+                new SQLException("Unique index or primary key violation: \"PUBLIC.UK_X ON PUBLIC.\"uma_user\"(\"github_username\" NULLS FIRST) VALUES ( /* 1 */ 'x' )\""))));
+        assertEquals("User already exists", UserService.constraintMessage(new DataIntegrityViolationException("insert failed")));
+    }
+
+    @Test
+    public void testFindProfiles(){
+        User first = userService.saveUser(new User("profileUser1", "profileUser1@example.com", "password123"));
+        User second = userService.saveUser(new User("github", "3030", "profileGitHub", "profileUser2", "profileUser2@example.com", "password123"));
+
+        // requested order, each user once, missing users left out
+        List<UserProfile> profiles = userService.findProfiles(
+                List.of(second.getUserId(), 9_999_999L), List.of(" profileUser1 ", "profileUser2", "nobody"));
+        assertEquals(2, profiles.size());
+        assertEquals(second.getUserId(), profiles.get(0).getUserId());
+        assertEquals("profileGitHub", profiles.get(0).getGithubUsername());
+        assertEquals(first.getUserId(), profiles.get(1).getUserId());
+        assertEquals("profileuser1@example.com", profiles.get(1).getEmail());
+
+        assertTrue(userService.findProfiles(null, null).isEmpty());
+        List<Long> tooMany = new ArrayList<>();
+        for (long id = 1; id <= UserService.MAX_BATCH_USERS + 1; id++) {
+            tooMany.add(id);
+        }
+        assertThrows(IllegalArgumentException.class, () -> userService.findProfiles(tooMany, null));
+    }
+}
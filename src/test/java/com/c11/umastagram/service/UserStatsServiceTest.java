@@ -0,0 +1,130 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.model.UserStats;
+import com.c11.umastagram.repository.PostsRepository;
+import com.c11.umastagram.repository.UserRepository;
+import com.c11.umastagram.repository.UserStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserStatsServiceTest {
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PostsRepository postsRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private UserStatsService userStatsService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(userStatsService, "reconcileChunkSize", 2);
+    }
+
+    @Test
+    public void getStats_isPrimaryKeyLookup() {
+        UserStats stats = new UserStats(1L, 10, 5, 3);
+        when(userStatsRepository.findById(1L)).thenReturn(Optional.of(stats));
+
+        assertSame(stats, userStatsService.getStats(1L));
+        verify(userStatsRepository, never()).countFollowersByUserIds(any());
+    }
+
+    @Test
+    public void getStats_missingRowIsCountedAndStored() {
+        when(userStatsRepository.findById(1L)).thenReturn(Optional.empty());
+        when(userStatsRepository.countFollowersByUserIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 4L}));
+        when(userStatsRepository.countPostsByUserIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 2L}));
+
+        UserStats stats = userStatsService.getStats(1L);
+
+        assertEquals(new UserStats(1L, 4, 0, 2), stats);
+        verify(userStatsRepository, times(1)).insertIfAbsent(stats);
+    }
+
+    @Test
+    public void adjustFollowCounts_updatesBothUsers() {
+        when(userStatsRepository.adjust(anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(1);
+
+        userStatsService.adjustFollowCounts(1L, 2L, 1);
+
+        verify(userStatsRepository, times(1)).adjust(2L, 1, 0, 0);
+        verify(userStatsRepository, times(1)).adjust(1L, 0, 1, 0);
+        verify(userStatsRepository, never()).insertIfAbsent(any());
+    }
+
+    @Test
+    public void adjustPostCount_missingRowInsertsCountedRow() {
+        when(userStatsRepository.adjust(1L, 0, 0, 1)).thenReturn(0);
+        when(userStatsRepository.countPostsByUserIds(List.of(1L))).thenReturn(List.<Object[]>of(new Object[]{1L, 7L}));
+        when(userStatsRepository.insertIfAbsent(any())).thenReturn(1);
+
+        userStatsService.adjustPostCount(1L, 1);
+
+        // the count already includes the new post, so the delta is not applied on top
+        verify(userStatsRepository, times(1)).insertIfAbsent(new UserStats(1L, 0, 0, 7));
+        verify(userStatsRepository, times(1)).adjust(1L, 0, 0, 1);
+    }
+
+    @Test
+    public void onPostDeleted_decrementsAuthor() {
+        when(postsRepository.findUserIdById(9L)).thenReturn(Optional.of(1L));
+        when(userStatsRepository.adjust(1L, 0, 0, -1)).thenReturn(1);
+
+        userStatsService.onPostDeleted(9L);
+
+        verify(userStatsRepository, times(1)).adjust(1L, 0, 0, -1);
+    }
+
+    @Test
+    public void recount_repairsDriftedRowsOnly() {
+        UserStats drifted = new UserStats(1L, 99, 0, 0);
+        UserStats correct = new UserStats(2L, 0, 1, 0);
+        when(userStatsRepository.findAllForUpdate(List.of(1L, 2L))).thenReturn(List.of(drifted, correct));
+        when(userStatsRepository.countFollowersByUserIds(List.of(1L, 2L))).thenReturn(List.<Object[]>of(new Object[]{1L, 1L}));
+        when(userStatsRepository.countFollowingByUserIds(List.of(1L, 2L))).thenReturn(List.<Object[]>of(new Object[]{2L, 1L}));
+
+        assertEquals(1, userStatsService.recount(List.of(1L, 2L)));
+        assertEquals(1, drifted.getFollowerCount());
+        verify(userStatsRepository, never()).insertIfAbsent(any());
+    }
+
+    @Test
+    public void reconcile_walksUsersInChunks() {
+        when(userRepository.findUserIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(userRepository.findUserIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(userRepository.findUserIdsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of());
+
+        userStatsService.reconcile();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Long>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userStatsRepository, times(2)).findAllForUpdate(captor.capture());
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L)), captor.getAllValues());
+        verify(userStatsRepository, times(3)).insertIfAbsent(any());
+    }
+}
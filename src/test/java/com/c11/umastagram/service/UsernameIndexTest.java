@@ -0,0 +1,102 @@
+package com.c11.umastagram.service;
+
+import com.c11.umastagram.dto.UserSummary;
+import com.c11.umastagram.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UsernameIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private FollowGraphIndex followGraphIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private UsernameIndex usernameIndex;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(usernameIndex, "enabled", true);
+        ReflectionTestUtils.setField(usernameIndex, "maxCandidates", 2000);
+    }
+
+    private void givenUsers(Object[]... users) {
+        when(userRepository.streamAllUsernames()).thenReturn(Stream.of(users));
+        usernameIndex.load();
+    }
+
+    private static List<String> usernames(List<UserSummary> results) {
+        return results.stream().map(UserSummary::getUsername).toList();
+    }
+
+    @Test
+    public void searchReturnsNullBeforeLoad() {
+        assertNull(usernameIndex.search("ab", 10, id -> true));
+        assertFalse(usernameIndex.isReady());
+    }
+
+    @Test
+    public void prefixMatchesRankBeforeInfixMatches() {
+        givenUsers(new Object[]{1L, "SecretariatFan"}, new Object[]{2L, "fan_of_uma"}, new Object[]{3L, "bigfan"});
+
+        assertEquals(List.of("fan_of_uma", "bigfan", "SecretariatFan"), usernames(usernameIndex.search("fan", 10, id -> true)));
+        verify(userRepository, times(1)).streamAllUsernames();
+    }
+
+    @Test
+    public void matchesRankByFollowerCountAndRespectLimit() {
+        givenUsers(new Object[]{1L, "umaone"}, new Object[]{2L, "umatwo"}, new Object[]{3L, "umathree"});
+        when(followGraphIndex.isReady()).thenReturn(true);
+        when(followGraphIndex.followerCount(1L)).thenReturn(5);
+        when(followGraphIndex.followerCount(2L)).thenReturn(50);
+        when(followGraphIndex.followerCount(3L)).thenReturn(0);
+
+        assertEquals(List.of("umatwo", "umaone"), usernames(usernameIndex.search("UMA", 2, id -> true)));
+    }
+
+    @Test
+    public void shortQueriesMatchPrefixesOnly() {
+        givenUsers(new Object[]{1L, "abc"}, new Object[]{2L, "xabc"});
+
+        assertEquals(List.of("abc"), usernames(usernameIndex.search("ab", 10, id -> true)));
+    }
+
+    @Test
+    public void excludedUsersAreSkipped() {
+        givenUsers(new Object[]{1L, "derby1"}, new Object[]{2L, "derby2"});
+
+        assertEquals(List.of("derby2"), usernames(usernameIndex.search("derby", 10, id -> id != 1L)));
+    }
+
+    @Test
+    public void renamesAndDeletesKeepIndexCurrent() {
+        givenUsers(new Object[]{1L, "oldname"}, new Object[]{2L, "another"});
+
+        usernameIndex.put(1L, "newname");
+        usernameIndex.remove(2L);
+        usernameIndex.put(3L, "newcomer");
+
+        assertEquals(List.of(), usernameIndex.search("oldname", 10, id -> true));
+        assertEquals(List.of(), usernameIndex.search("another", 10, id -> true));
+        assertEquals(List.of("newname", "newcomer"), usernames(usernameIndex.search("new", 10, id -> true)));
+        assertEquals(List.of("newname"), usernames(usernameIndex.search("wna", 10, id -> true)));
+    }
+}
@@ -0,0 +1,16 @@
+package com.c11.umastagram.support;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test if it runs more than value() SQL statements.
+ * Requires {@code @ExtendWith(QueryCountExtension.class)}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MaxQueries {
+    int value();
+}
@@ -0,0 +1,26 @@
+package com.c11.umastagram.support;
+
+import com.c11.umastagram.util.QueryCounter;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test-side view of the current QueryCounter count, injected by QueryCountExtension.
+ * Call reset() after test setup so only the code under test is counted.
+ */
+public class QueryCount {
+
+    public int get() {
+        return QueryCounter.get();
+    }
+
+    public void reset() {
+        QueryCounter.stop();
+        QueryCounter.start();
+    }
+
+    public void assertAtMost(int max) {
+        int count = get();
+        assertTrue(count <= max, "Expected at most " + max + " SQL statements but " + count + " were run");
+    }
+}
@@ -0,0 +1,41 @@
+package com.c11.umastagram.support;
+
+import com.c11.umastagram.util.QueryCounter;
+import org.junit.jupiter.api.extension.*;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the SQL statements each test method runs (on the test thread, which is also
+ * where MockMvc requests execute). Only the test method body is counted, not the class's
+ * {@code @BeforeEach} and {@code @AfterEach} methods. Methods annotated with
+ * {@link MaxQueries} fail when they exceed the limit; a {@link QueryCount} parameter gives
+ * finer control.
+ */
+public class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback, ParameterResolver {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        QueryCounter.start();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        int count = QueryCounter.stop();
+        MaxQueries max = context.getRequiredTestMethod().getAnnotation(MaxQueries.class);
+        if (max != null && context.getExecutionException().isEmpty()) {
+            assertTrue(count <= max.value(),
+                    context.getDisplayName() + " ran " + count + " SQL statements, budget is " + max.value());
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == QueryCount.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return new QueryCount();
+    }
+}